@@ -45,7 +45,12 @@ public class EhCacheServiceImpl<K, T> implements CacheService<K, T> {
 
     @Override
     public void createCache(String cacheName, int heapMb, int timeToLiveSeconds, int timeToIdleSeconds, NulsCacheListener listener) {
-        cacheManager.createCache(cacheName, String.class, Serializable.class, heapMb, timeToLiveSeconds, timeToIdleSeconds, listener);
+        this.createCache(cacheName, String.class, heapMb, timeToLiveSeconds, timeToIdleSeconds, listener);
+    }
+
+    @Override
+    public void createCache(String cacheName, Class keyType, int heapMb, int timeToLiveSeconds, int timeToIdleSeconds, NulsCacheListener listener) {
+        cacheManager.createCache(cacheName, keyType, Serializable.class, heapMb, timeToLiveSeconds, timeToIdleSeconds, listener);
     }
 
     @Override
@@ -109,4 +109,13 @@ public interface CacheService<K, V> {
     Set<K> keySet(String cacheTitle);
 
     void createCache(String cacheName, int heapMb, int timeToLiveSeconds, int timeToIdleSeconds, NulsCacheListener listener);
+
+    /**
+     * create a cache whose keys are of the given type
+     * 创建指定key类型的缓存
+     *
+     * @param cacheName
+     * @param keyType
+     */
+    void createCache(String cacheName, Class keyType, int heapMb, int timeToLiveSeconds, int timeToIdleSeconds, NulsCacheListener listener);
 }
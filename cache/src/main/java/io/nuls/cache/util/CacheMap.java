@@ -50,7 +50,15 @@ public class CacheMap<K, V> {
     }
 
     public CacheMap(String cacheName, int heapMb, int timeToLiveSeconds, int timeToIdleSeconds, NulsCacheListener listener) {
-        this.cacheService.createCache(cacheName, heapMb, timeToLiveSeconds, timeToIdleSeconds, listener);
+        this(cacheName, String.class, heapMb, timeToLiveSeconds, timeToIdleSeconds, listener);
+    }
+
+    public CacheMap(String cacheName, Class<K> keyType, int heapMb, int timeToLiveSeconds, int timeToIdleSeconds) {
+        this(cacheName, keyType, heapMb, timeToLiveSeconds, timeToIdleSeconds, null);
+    }
+
+    public CacheMap(String cacheName, Class keyType, int heapMb, int timeToLiveSeconds, int timeToIdleSeconds, NulsCacheListener listener) {
+        this.cacheService.createCache(cacheName, keyType, heapMb, timeToLiveSeconds, timeToIdleSeconds, listener);
         this.cacheName = cacheName;
     }
 
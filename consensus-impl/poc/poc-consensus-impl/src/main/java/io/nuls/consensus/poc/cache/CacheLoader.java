@@ -54,14 +54,18 @@ import java.util.List;
  */
 public class CacheLoader {
 
-    private BlockService blockService = NulsContext.getServiceBean(BlockService.class);
-    private AgentDataService agentDataService = NulsContext.getServiceBean(AgentDataService.class);
-    private DepositDataService depositDataService = NulsContext.getServiceBean(DepositDataService.class);
-    private PunishLogDataService punishLogDataService = NulsContext.getServiceBean(PunishLogDataService.class);
+    /**
+     * 服务在首次使用时才获取，子类可以覆盖加载方法而不依赖这些服务
+     * The services are looked up on first use, so a subclass may override the load methods without them
+     */
+    private BlockService blockService;
+    private AgentDataService agentDataService;
+    private DepositDataService depositDataService;
+    private PunishLogDataService punishLogDataService;
 
     public List<Block> loadBlocks(int size) throws NulsException {
 
-        Block block = blockService.getLocalBestBlock();
+        Block block = getBlockService().getLocalBestBlock();
 
         if(null==block){
             return new ArrayList<>();
@@ -74,7 +78,7 @@ public class CacheLoader {
             startHeight = 0;
         }
 
-        List<Block> blockList = blockService.getBlockList(startHeight, bestBlockHeight);
+        List<Block> blockList = getBlockService().getBlockList(startHeight, bestBlockHeight);
         blockList.sort(new Comparator<Block>() {
             @Override
             public int compare(Block o1, Block o2) {
@@ -86,7 +90,7 @@ public class CacheLoader {
     }
 
     public List<BlockHeader> loadBlockHeaders(int size) {
-        Block block = blockService.getLocalBestBlock();
+        Block block = getBlockService().getLocalBestBlock();
         if (null == block) {
             return new ArrayList<>();
         }
@@ -95,7 +99,7 @@ public class CacheLoader {
 
         List<BlockHeader> blockHeaderList = new ArrayList<>();
 
-        List<BlockHeaderPo> list = blockService.getBlockHeaderListByRound(roundData.getRoundIndex() - size + 1, roundData.getRoundIndex());
+        List<BlockHeaderPo> list = getBlockService().getBlockHeaderListByRound(roundData.getRoundIndex() - size + 1, roundData.getRoundIndex());
         for (BlockHeaderPo blockHeaderPo : list) {
             try {
                 blockHeaderList.add(BlockHeaderTool.fromPojo(blockHeaderPo));
@@ -109,9 +113,9 @@ public class CacheLoader {
 
     public List<Consensus<Agent>> loadAgents() {
 
-        Block block = blockService.getLocalBestBlock();
+        Block block = getBlockService().getLocalBestBlock();
 
-        List<AgentPo> list = agentDataService.getAllList();
+        List<AgentPo> list = getAgentDataService().getAllList();
 
         List<Consensus<Agent>> agentList = new ArrayList<>();
 
@@ -123,9 +127,9 @@ public class CacheLoader {
     }
 
     public List<Consensus<Deposit>> loadDepositList() {
-        Block block = blockService.getLocalBestBlock();
+        Block block = getBlockService().getLocalBestBlock();
 
-        List<DepositPo> list = depositDataService.getAllList();
+        List<DepositPo> list = getDepositDataService().getAllList();
 
         List<Consensus<Deposit>> depositList = new ArrayList<>();
 
@@ -137,12 +141,40 @@ public class CacheLoader {
     }
 
     public List<PunishLogPo> loadYellowPunishList() {
-        List<PunishLogPo> list = punishLogDataService.getListByType(PunishType.YELLOW.getCode());
+        List<PunishLogPo> list = getPunishLogDataService().getListByType(PunishType.YELLOW.getCode());
         return list;
     }
 
     public List<PunishLogPo> loadRedPunishList() {
-        List<PunishLogPo> list = punishLogDataService.getListByType(PunishType.RED.getCode());
+        List<PunishLogPo> list = getPunishLogDataService().getListByType(PunishType.RED.getCode());
         return list;
     }
+
+    private BlockService getBlockService() {
+        if (null == blockService) {
+            blockService = NulsContext.getServiceBean(BlockService.class);
+        }
+        return blockService;
+    }
+
+    private AgentDataService getAgentDataService() {
+        if (null == agentDataService) {
+            agentDataService = NulsContext.getServiceBean(AgentDataService.class);
+        }
+        return agentDataService;
+    }
+
+    private DepositDataService getDepositDataService() {
+        if (null == depositDataService) {
+            depositDataService = NulsContext.getServiceBean(DepositDataService.class);
+        }
+        return depositDataService;
+    }
+
+    private PunishLogDataService getPunishLogDataService() {
+        if (null == punishLogDataService) {
+            punishLogDataService = NulsContext.getServiceBean(PunishLogDataService.class);
+        }
+        return punishLogDataService;
+    }
 }
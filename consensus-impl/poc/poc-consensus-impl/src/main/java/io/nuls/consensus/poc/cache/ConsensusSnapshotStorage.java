@@ -0,0 +1,335 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.nuls.consensus.poc.cache;
+
+import io.nuls.consensus.poc.model.Chain;
+import io.nuls.consensus.poc.protocol.model.Agent;
+import io.nuls.consensus.poc.protocol.model.ConsensusAgentImpl;
+import io.nuls.consensus.poc.protocol.model.ConsensusDepositImpl;
+import io.nuls.consensus.poc.protocol.model.Deposit;
+import io.nuls.core.exception.NulsException;
+import io.nuls.core.thread.manager.TaskManager;
+import io.nuls.core.utils.log.Log;
+import io.nuls.db.entity.PunishLogPo;
+import io.nuls.db.service.intf.KVStorageService;
+import io.nuls.protocol.context.NulsContext;
+import io.nuls.protocol.event.entity.Consensus;
+import io.nuls.protocol.model.BlockHeader;
+import io.nuls.protocol.model.Na;
+import io.nuls.protocol.model.NulsDigestData;
+import io.nuls.protocol.utils.io.NulsByteBuffer;
+import io.nuls.protocol.utils.io.NulsOutputStreamBuffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Snapshot of the consensus state of the master chain at a checkpoint: agents, deposits, punish logs and the block
+ * headers of the recent rounds, kept in the key-value store.
+ * At startup the state is restored from the snapshot and only the blocks after it are replayed, instead of loading
+ * every agent, deposit and punish log from the database.
+ * Only the latest snapshot is kept, a snapshot of another version is ignored.
+ *
+ * 主链在检查点上的共识状态快照：代理节点、委托、惩罚记录以及最近轮次的区块头，保存在键值数据库中。
+ * 启动时从快照恢复状态，只重放快照之后的区块，不再从数据库加载全部的代理节点、委托和惩罚记录。
+ * 只保留最新的快照，版本不一致的快照会被忽略。
+ *
+ * Created by agent on 2026/10/18.
+ */
+public class ConsensusSnapshotStorage {
+
+    private static final String AREA_SNAPSHOT = "consensus_snapshot";
+    private static final byte[] SNAPSHOT_KEY = {'l', 'a', 't', 'e', 's', 't'};
+
+    /**
+     * Increase it whenever the encoding changes
+     * 编码格式变化时增加
+     */
+    private static final int VERSION = 1;
+
+    private KVStorageService storageService;
+
+    private final AtomicBoolean saving = new AtomicBoolean(false);
+
+    private boolean opened;
+
+    /**
+     * Save the snapshot in the background, the chain must be a fork which is no longer modified.
+     * The checkpoint is skipped when the previous snapshot is still being written.
+     *
+     * 在后台保存快照，传入的链必须是不会再被修改的分叉视图。上一个快照还在写入时跳过本次检查点。
+     */
+    public void saveAsync(final Chain chain) {
+        if (!saving.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            TaskManager.asynExecuteRunnable(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        save(chain);
+                    } finally {
+                        saving.set(false);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            saving.set(false);
+            Log.error(e);
+        }
+    }
+
+    public boolean save(Chain chain) {
+        byte[] value = encode(chain);
+        if (null == value) {
+            return false;
+        }
+        if (!open()) {
+            return false;
+        }
+        if (storageService.put(AREA_SNAPSHOT, SNAPSHOT_KEY, value).isFailed()) {
+            Log.error("save consensus snapshot failed, height : " + chain.getEndBlockHeader().getHeight());
+            return false;
+        }
+        Log.debug("save consensus snapshot, height : " + chain.getEndBlockHeader().getHeight());
+        return true;
+    }
+
+    /**
+     * Get the chain of the latest snapshot, the end block header is the checkpoint and there is no block in the
+     * block list. Returns null when there is no usable snapshot, also when the key-value store is not available.
+     *
+     * 获取最新快照的链，结束区块头即检查点，区块列表为空。没有可用的快照或键值存储不可用时返回null。
+     */
+    public Chain load() {
+        if (!open()) {
+            return null;
+        }
+        byte[] value = storageService.get(AREA_SNAPSHOT, SNAPSHOT_KEY);
+        if (null == value) {
+            return null;
+        }
+        return decode(value);
+    }
+
+    public void clear() {
+        if (!open()) {
+            return;
+        }
+        storageService.delete(AREA_SNAPSHOT, SNAPSHOT_KEY);
+    }
+
+    /**
+     * 首次使用时才获取键值存储服务，获取不到时返回false
+     * The key-value store service is looked up on first use, returns false when it is not available
+     */
+    private synchronized boolean open() {
+        if (opened) {
+            return true;
+        }
+        if (null == storageService) {
+            storageService = NulsContext.getServiceBean(KVStorageService.class);
+        }
+        if (null == storageService) {
+            return false;
+        }
+        storageService.createArea(AREA_SNAPSHOT);
+        opened = true;
+        return true;
+    }
+
+    private byte[] encode(Chain chain) {
+        BlockHeader endHeader = chain.getEndBlockHeader();
+        long height = endHeader.getHeight();
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        NulsOutputStreamBuffer buffer = new NulsOutputStreamBuffer(bos);
+        try {
+            buffer.writeVarInt(VERSION);
+            buffer.writeNulsData(endHeader);
+
+            // The agents and deposits are shared with the master chain, the changes after the checkpoint are left out
+            // 代理节点和委托与主链共用，检查点之后的变化不写入
+            List<Consensus<Agent>> agentList = new ArrayList<>();
+            for (Consensus<Agent> ca : chain.getAgentList()) {
+                if (ca.getExtend().getBlockHeight() <= height) {
+                    agentList.add(ca);
+                }
+            }
+            buffer.writeVarInt(agentList.size());
+            for (Consensus<Agent> ca : agentList) {
+                Agent agent = ca.getExtend();
+                buffer.writeNulsData(ca.getHash());
+                buffer.writeString(ca.getAddress());
+                buffer.writeVarInt(ca.getDelHeight() > height ? 0L : ca.getDelHeight());
+                buffer.writeVarInt(agent.getDeposit().getValue());
+                buffer.writeDouble(agent.getCommissionRate());
+                buffer.writeString(agent.getPackingAddress());
+                buffer.writeString(agent.getIntroduction());
+                buffer.writeVarInt(agent.getStartTime());
+                buffer.writeVarInt(agent.getStatus());
+                buffer.writeString(agent.getAgentName());
+                buffer.writeVarInt(agent.getBlockHeight());
+                buffer.writeString(agent.getTxHash());
+            }
+
+            List<Consensus<Deposit>> depositList = new ArrayList<>();
+            for (Consensus<Deposit> cd : chain.getDepositList()) {
+                if (cd.getExtend().getBlockHeight() <= height) {
+                    depositList.add(cd);
+                }
+            }
+            buffer.writeVarInt(depositList.size());
+            for (Consensus<Deposit> cd : depositList) {
+                Deposit deposit = cd.getExtend();
+                buffer.writeNulsData(cd.getHash());
+                buffer.writeString(cd.getAddress());
+                buffer.writeVarInt(cd.getDelHeight() > height ? 0L : cd.getDelHeight());
+                buffer.writeString(deposit.getAgentHash());
+                buffer.writeVarInt(deposit.getDeposit().getValue());
+                buffer.writeVarInt(deposit.getStartTime());
+                buffer.writeString(deposit.getTxHash());
+                buffer.writeVarInt(deposit.getBlockHeight());
+            }
+
+            writePunishList(buffer, chain.getYellowPunishList());
+            writePunishList(buffer, chain.getRedPunishList());
+
+            List<BlockHeader> headerList = chain.getBlockHeaderList();
+            buffer.writeVarInt(headerList.size());
+            for (BlockHeader header : headerList) {
+                buffer.writeNulsData(header);
+            }
+        } catch (Exception e) {
+            Log.error(e);
+            return null;
+        }
+        return bos.toByteArray();
+    }
+
+    private Chain decode(byte[] value) {
+        try {
+            NulsByteBuffer buffer = new NulsByteBuffer(value);
+            if (buffer.readVarInt() != VERSION) {
+                Log.info("the version of the consensus snapshot is changed, ignore it");
+                return null;
+            }
+            BlockHeader endHeader = buffer.readNulsData(new BlockHeader());
+
+            int count = (int) buffer.readVarInt();
+            List<Consensus<Agent>> agentList = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Consensus<Agent> ca = new ConsensusAgentImpl();
+                ca.setHash(buffer.readHash());
+                ca.setAddress(buffer.readString());
+                ca.setDelHeight(buffer.readVarInt());
+                Agent agent = new Agent();
+                agent.setDeposit(Na.valueOf(buffer.readVarInt()));
+                agent.setCommissionRate(buffer.readDouble());
+                agent.setPackingAddress(buffer.readString());
+                agent.setIntroduction(buffer.readString());
+                agent.setStartTime(buffer.readVarInt());
+                agent.setStatus((int) buffer.readVarInt());
+                agent.setAgentName(buffer.readString());
+                agent.setBlockHeight(buffer.readVarInt());
+                agent.setTxHash(buffer.readString());
+                ca.setExtend(agent);
+                agentList.add(ca);
+            }
+
+            count = (int) buffer.readVarInt();
+            List<Consensus<Deposit>> depositList = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Consensus<Deposit> cd = new ConsensusDepositImpl();
+                cd.setHash(buffer.readHash());
+                cd.setAddress(buffer.readString());
+                cd.setDelHeight(buffer.readVarInt());
+                Deposit deposit = new Deposit();
+                deposit.setAgentHash(buffer.readString());
+                deposit.setDeposit(Na.valueOf(buffer.readVarInt()));
+                deposit.setStartTime(buffer.readVarInt());
+                deposit.setTxHash(buffer.readString());
+                deposit.setBlockHeight(buffer.readVarInt());
+                cd.setExtend(deposit);
+                depositList.add(cd);
+            }
+
+            List<PunishLogPo> yellowPunishList = readPunishList(buffer);
+            List<PunishLogPo> redPunishList = readPunishList(buffer);
+
+            count = (int) buffer.readVarInt();
+            List<BlockHeader> headerList = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                headerList.add(buffer.readNulsData(new BlockHeader()));
+            }
+
+            Chain chain = new Chain();
+            chain.setStartBlockHeader(endHeader);
+            chain.setEndBlockHeader(endHeader);
+            chain.setBlockHeaderList(headerList);
+            chain.setBlockList(new ArrayList<>());
+            chain.setAgentList(agentList);
+            chain.setDepositList(depositList);
+            chain.setYellowPunishList(yellowPunishList);
+            chain.setRedPunishList(redPunishList);
+            return chain;
+        } catch (Exception e) {
+            Log.error("parse consensus snapshot failed", e);
+            return null;
+        }
+    }
+
+    private void writePunishList(NulsOutputStreamBuffer buffer, List<PunishLogPo> punishList) throws IOException {
+        buffer.writeVarInt(punishList.size());
+        for (PunishLogPo po : punishList) {
+            buffer.writeString(po.getId());
+            buffer.writeVarInt(po.getType());
+            buffer.writeString(po.getAddress());
+            buffer.writeVarInt(po.getTime());
+            buffer.writeVarInt(po.getHeight());
+            buffer.writeVarInt(po.getRoundIndex());
+        }
+    }
+
+    private List<PunishLogPo> readPunishList(NulsByteBuffer buffer) throws NulsException {
+        int count = (int) buffer.readVarInt();
+        List<PunishLogPo> punishList = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            PunishLogPo po = new PunishLogPo();
+            po.setId(buffer.readString());
+            po.setType((int) buffer.readVarInt());
+            po.setAddress(buffer.readString());
+            po.setTime(buffer.readVarInt());
+            po.setHeight(buffer.readVarInt());
+            po.setRoundIndex(buffer.readVarInt());
+            punishList.add(po);
+        }
+        return punishList;
+    }
+}
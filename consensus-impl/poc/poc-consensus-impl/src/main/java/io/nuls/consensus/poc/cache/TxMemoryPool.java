@@ -22,37 +22,58 @@
  * SOFTWARE.
  */
 
+
 package io.nuls.consensus.poc.cache;
 
-import io.nuls.cache.util.CacheMap;
+import io.nuls.consensus.poc.container.TxContainer;
 import io.nuls.consensus.poc.locker.Lockers;
-import io.nuls.core.utils.queue.service.impl.QueueService;
+import io.nuls.consensus.poc.protocol.context.ConsensusContext;
+import io.nuls.ledger.entity.tx.AbstractCoinTransaction;
+import io.nuls.protocol.model.NulsDigestData;
+import io.nuls.protocol.model.NulsDigestKey;
 import io.nuls.protocol.model.Transaction;
 
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * Transaction memory pool, indexed by hash and by spent output, ordered by fee rate and bounded by a memory budget.
+ * When the budget is exceeded, the isolated transactions are dropped first, then the lowest fee rate transactions.
+ *
+ * 交易内存池，按hash和花费的输出建立索引，按手续费率排序，并受内存上限约束。
+ * 超出上限时，优先丢弃孤立交易，然后丢弃手续费率最低的交易。
+ *
  * Created by ln on 2018/4/13.
  */
 public final class TxMemoryPool {
 
-    private final static String CACHE_NAME = "tx-memory-pool";
+    private final Map<NulsDigestKey, TxContainer> container = new ConcurrentHashMap<>();
+    private final TreeSet<TxContainer> txQueue = new TreeSet<>(TxContainer.FEE_RATE_COMPARATOR);
+    private final LinkedHashMap<NulsDigestKey, TxContainer> isolatedQueue = new LinkedHashMap<>();
 
-    private CacheMap<String, Transaction> container;
-    private QueueService<String> txHashQueue;
+    /**
+     * key = spent output key, value = the pooled transaction which spends it
+     * key = 被花费的输出，value = 花费它的交易
+     */
+    private final Map<String, TxContainer> spentIndex = new HashMap<>();
 
-    private final static String CACHE_NAME_ISOLATED = "isolated-tx-memory-pool";
-    private CacheMap<String, Transaction> isolatedContainer;
-    private QueueService<String> isolatedTxHashQueue;
+    private final long maxSize;
+    private final int maxCount;
+
+    /**
+     * Only written under the lock, volatile so that getTotalSize() can read it without the lock
+     * 只在持有锁时修改，volatile使getTotalSize()无需加锁即可读取
+     */
+    private volatile long totalSize;
+    private long sequence;
 
     public TxMemoryPool() {
-        txHashQueue = new QueueService<>();
-        txHashQueue.createQueue(CACHE_NAME, (long) Integer.MAX_VALUE, false);
-        container = new CacheMap<>(CACHE_NAME, 64);
+        this(ConsensusContext.getTxPoolMaxSize(), ConsensusContext.getTxPoolMaxCount());
+    }
 
-        isolatedTxHashQueue = new QueueService<>();
-        isolatedTxHashQueue.createQueue(CACHE_NAME_ISOLATED, (long) Integer.MAX_VALUE, false);
-        isolatedContainer = new CacheMap< >(CACHE_NAME_ISOLATED, 16);
+    public TxMemoryPool(long maxSize, int maxCount) {
+        this.maxSize = maxSize;
+        this.maxCount = maxCount;
     }
 
     public boolean add(Transaction tx, boolean isIsolated) {
@@ -60,23 +81,75 @@ public final class TxMemoryPool {
 
         try {
             //check Repeatability
-            String hash = tx.getHash().getDigestHex();
-            if (isolatedContainer.containsKey(hash) || container.containsKey(hash)) {
+            NulsDigestKey hash = tx.getHash().getDigestKey();
+            if (container.containsKey(hash)) {
                 return false;
             }
+            //check double spend of the transactions in the pool
+            List<String> inputKeys = getInputKeys(tx);
+            for (String key : inputKeys) {
+                if (spentIndex.containsKey(key)) {
+                    return false;
+                }
+            }
+            TxContainer txContainer = new TxContainer(tx, hash, sequence++, isIsolated, inputKeys);
+            container.put(hash, txContainer);
             if (isIsolated) {
-                isolatedContainer.put(hash, tx);
-                isolatedTxHashQueue.offer(CACHE_NAME_ISOLATED, hash);
+                isolatedQueue.put(hash, txContainer);
             } else {
-                container.put(hash, tx);
-                txHashQueue.offer(CACHE_NAME, hash);
+                txQueue.add(txContainer);
             }
-            return true;
+            for (String key : inputKeys) {
+                spentIndex.put(key, txContainer);
+            }
+            totalSize += txContainer.getSize();
+
+            evict();
+
+            return container.containsKey(hash);
         } finally {
             Lockers.TX_MEMORY_LOCK.unlock();
         }
     }
 
+    private void evict() {
+        while (totalSize > maxSize || container.size() > maxCount) {
+            TxContainer victim;
+            if (!isolatedQueue.isEmpty()) {
+                victim = isolatedQueue.values().iterator().next();
+            } else if (!txQueue.isEmpty()) {
+                victim = txQueue.last();
+            } else {
+                break;
+            }
+            removeContainer(victim);
+        }
+    }
+
+    private void removeContainer(TxContainer txContainer) {
+        container.remove(txContainer.getHash());
+        if (txContainer.isIsolated()) {
+            isolatedQueue.remove(txContainer.getHash());
+        } else {
+            txQueue.remove(txContainer);
+        }
+        for (String key : txContainer.getInputKeys()) {
+            spentIndex.remove(key);
+        }
+        totalSize -= txContainer.getSize();
+    }
+
+    private List<String> getInputKeys(Transaction tx) {
+        if (!(tx instanceof AbstractCoinTransaction)) {
+            return Collections.emptyList();
+        }
+        AbstractCoinTransaction coinTx = (AbstractCoinTransaction) tx;
+        if (null == coinTx.getCoinData()) {
+            return Collections.emptyList();
+        }
+        return coinTx.getCoinDataProvider().getInputKeys(coinTx.getCoinData());
+    }
+
     /**
      * Get a transaction through hash, do not remove the memory pool after obtaining
      *
@@ -84,105 +157,151 @@ public final class TxMemoryPool {
      * @param hash
      * @return Transaction
      */
-    public Transaction get(String hash) {
+    public Transaction get(NulsDigestData hash) {
+        TxContainer txContainer = container.get(hash.getDigestKey());
+        if (txContainer == null) {
+            return null;
+        }
+        return txContainer.getTx();
+    }
+
+    /**
+     * Get a transaction, removed from the memory pool after acquisition
+     *
+     * 获取一笔交易，获取之后从内存池中移除
+     * @return Transaction
+     */
+    public Transaction getAndRemove(NulsDigestData hash) {
         Lockers.TX_MEMORY_LOCK.lock();
 
         try {
-            Transaction tx = container.get(hash);
-            if (tx == null) {
-                tx = isolatedContainer.get(hash);
+            TxContainer txContainer = container.get(hash.getDigestKey());
+            if (txContainer == null) {
+                return null;
             }
-            return tx;
+            removeContainer(txContainer);
+            return txContainer.getTx();
         } finally {
             Lockers.TX_MEMORY_LOCK.unlock();
         }
     }
 
     /**
-     * Get a transaction, the first transaction received, removed from the memory pool after acquisition
+     * Get all the transactions which are not isolated, ordered by fee rate
      *
-     * 获取一笔交易，最先收到的交易，获取之后从内存池中移除
-     * @return Transaction
+     * 获取所有非孤立交易，按手续费率排序
      */
-    public Transaction get() {
+    public List<Transaction> getAll() {
         Lockers.TX_MEMORY_LOCK.lock();
 
-        Transaction tx = null;
         try {
-            String hash = txHashQueue.poll(CACHE_NAME);
-            if(hash != null) {
-                tx = container.get(hash);
-            } else {
-                hash = isolatedTxHashQueue.poll(CACHE_NAME_ISOLATED);
-                if (hash != null) {
-                    tx = isolatedContainer.get(hash);
-                }
+            List<Transaction> list = new ArrayList<>(txQueue.size());
+            for (TxContainer txContainer : txQueue) {
+                list.add(txContainer.getTx());
             }
+            return list;
         } finally {
             Lockers.TX_MEMORY_LOCK.unlock();
         }
+    }
 
-        if(tx != null) {
-            remove(tx.getHash().getDigestHex());
-        }
+    public List<Transaction> getAllIsolated() {
+        Lockers.TX_MEMORY_LOCK.lock();
 
-        return tx;
+        try {
+            List<Transaction> list = new ArrayList<>(isolatedQueue.size());
+            for (TxContainer txContainer : isolatedQueue.values()) {
+                list.add(txContainer.getTx());
+            }
+            return list;
+        } finally {
+            Lockers.TX_MEMORY_LOCK.unlock();
+        }
     }
 
     /**
-     * Get a transaction, removed from the memory pool after acquisition
+     * Move an isolated transaction into the fee rate queue, called when its inputs are found
      *
-     * 获取一笔交易，获取之后从内存池中移除
-     * @return Transaction
+     * 将孤立交易移入按手续费率排序的队列，在其输入已经找到时调用
+     * @return false if the transaction is not an isolated one in the pool
      */
-    public Transaction getAndRemove(String hash) {
-        Transaction tx = get(hash);
-        if(tx != null) {
-            remove(hash);
+    public boolean promote(NulsDigestData hash) {
+        Lockers.TX_MEMORY_LOCK.lock();
+
+        try {
+            TxContainer isolated = isolatedQueue.remove(hash.getDigestKey());
+            if (isolated == null) {
+                return false;
+            }
+            TxContainer txContainer = new TxContainer(isolated.getTx(), isolated.getHash(), isolated.getSequence(), false, isolated.getInputKeys());
+            container.put(txContainer.getHash(), txContainer);
+            txQueue.add(txContainer);
+            for (String key : txContainer.getInputKeys()) {
+                spentIndex.put(key, txContainer);
+            }
+            return true;
+        } finally {
+            Lockers.TX_MEMORY_LOCK.unlock();
         }
-        return tx;
     }
 
-    public List<Transaction> getAll() {
-        return container.values();
+    public boolean remove(NulsDigestData hash) {
+        Lockers.TX_MEMORY_LOCK.lock();
+
+        try {
+            TxContainer txContainer = container.get(hash.getDigestKey());
+            if (txContainer == null) {
+                return false;
+            }
+            removeContainer(txContainer);
+            return true;
+        } finally {
+            Lockers.TX_MEMORY_LOCK.unlock();
+        }
     }
 
-    public List<Transaction> getAllIsolated() {
-        return isolatedContainer.values();
+    public boolean exist(NulsDigestData hash) {
+        return container.containsKey(hash.getDigestKey());
     }
 
-    public boolean remove(String hash) {
+    /**
+     * Get the hash of the pooled transaction which spends the output
+     *
+     * 获取内存池中花费了该输出的交易hash
+     * @param inputKey spent output key
+     * @return transaction hash, or null when the output is not spent in the pool
+     */
+    public NulsDigestData getSpentTxHash(String inputKey) {
         Lockers.TX_MEMORY_LOCK.lock();
 
         try {
-            if (container.containsKey(hash)) {
-                container.remove(hash);
-                txHashQueue.remove(CACHE_NAME, hash);
-                return true;
-            } else if (isolatedContainer.containsKey(hash)) {
-                isolatedContainer.remove(hash);
-                isolatedTxHashQueue.remove(CACHE_NAME_ISOLATED, hash);
-                return true;
+            TxContainer txContainer = spentIndex.get(inputKey);
+            if (txContainer == null) {
+                return null;
             }
-            return false;
+            return txContainer.getTx().getHash();
         } finally {
             Lockers.TX_MEMORY_LOCK.unlock();
         }
     }
 
-    public boolean exist(String hash) {
-        return container.containsKey(hash) || isolatedContainer.containsKey(hash);
+    public int size() {
+        return container.size();
+    }
+
+    public long getTotalSize() {
+        return totalSize;
     }
 
     public void clear() {
         Lockers.TX_MEMORY_LOCK.lock();
 
         try {
-            txHashQueue.clear(CACHE_NAME);
             container.clear();
-
-            isolatedTxHashQueue.clear(CACHE_NAME_ISOLATED);
-            isolatedContainer.clear();
+            txQueue.clear();
+            isolatedQueue.clear();
+            spentIndex.clear();
+            totalSize = 0L;
         } finally {
             Lockers.TX_MEMORY_LOCK.unlock();
         }
@@ -50,9 +50,9 @@ import io.nuls.protocol.context.NulsContext;
 import io.nuls.protocol.event.entity.Consensus;
 import io.nuls.protocol.model.Block;
 import io.nuls.protocol.model.BlockHeader;
+import io.nuls.protocol.model.NulsDigestData;
 import io.nuls.protocol.model.Transaction;
 
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -91,6 +91,7 @@ public class ChainContainer implements Cloneable {
         List<PunishLogPo> redList = chain.getRedPunishList();
 
         long height = block.getHeader().getHeight();
+        BlockChange change = new BlockChange(height);
 
         List<Transaction> txs = block.getTxs();
         for (Transaction tx : txs) {
@@ -102,11 +103,13 @@ public class ChainContainer implements Cloneable {
                 Consensus<Agent> ca = registerAgentTx.getTxData();
                 ca.getExtend().setBlockHeight(height);
                 agentList.add(ca);
+                change.getAddedAgentList().add(ca);
             } else if (txType == TransactionConstant.TX_TYPE_JOIN_CONSENSUS) {
                 PocJoinConsensusTransaction joinConsensusTx = (PocJoinConsensusTransaction) tx;
                 Consensus<Deposit> cDeposit = joinConsensusTx.getTxData();
                 cDeposit.getExtend().setBlockHeight(height);
                 depositList.add(cDeposit);
+                change.getAddedDepositList().add(cDeposit);
             } else if (txType == TransactionConstant.TX_TYPE_CANCEL_DEPOSIT) {
 
                 CancelDepositTransaction cancelDepositTx = (CancelDepositTransaction) tx;
@@ -120,6 +123,7 @@ public class ChainContainer implements Cloneable {
                     Consensus<Deposit> tempDe = it.next();
                     if (tempDe.getHash().equals(cDeposit.getHash())) {
                         tempDe.setDelHeight(height);
+                        change.getDeletedDepositList().add(tempDe);
                         break;
                     }
                 }
@@ -137,6 +141,7 @@ public class ChainContainer implements Cloneable {
                     Deposit deposit = tempDe.getExtend();
                     if (deposit.getAgentHash().equals(registerAgentTx.getTxData().getHexHash())) {
                         tempDe.setDelHeight(height);
+                        change.getDeletedDepositList().add(tempDe);
                     }
                 }
 
@@ -145,6 +150,7 @@ public class ChainContainer implements Cloneable {
                     Consensus<Agent> tempCa = ita.next();
                     if (tempCa.getHash().equals(registerAgentTx.getTxData().getHash())) {
                         tempCa.setDelHeight(height);
+                        change.getDeletedAgentList().add(tempCa);
                         break;
                     }
                 }
@@ -189,6 +195,7 @@ public class ChainContainer implements Cloneable {
         chain.setEndBlockHeader(block.getHeader());
         blockList.add(block);
         blockHeaderList.add(block.getHeader());
+        chain.getBlockChangeList().add(change);
 
         return true;
     }
@@ -407,30 +414,9 @@ public class ChainContainer implements Cloneable {
 
         long height = rollbackBlockHeader.getHeight();
 
-        for (int i = agentList.size() - 1; i >= 0; i--) {
-            Consensus<Agent> agentConsensus = agentList.get(i);
-            Agent agent = agentConsensus.getExtend();
-
-            if (agentConsensus.getDelHeight() == height) {
-                agentConsensus.setDelHeight(0);
-            }
-
-            if (agent.getBlockHeight() == height) {
-                agentList.remove(i);
-            }
-        }
-
-        for (int i = depositList.size() - 1; i >= 0; i--) {
-            Consensus<Deposit> tempDe = depositList.get(i);
-            Deposit deposit = tempDe.getExtend();
-
-            if (tempDe.getDelHeight() == height) {
-                tempDe.setDelHeight(0);
-            }
-
-            if (deposit.getBlockHeight() == height) {
-                depositList.remove(i);
-            }
+        BlockChange change = removeBlockChange(height);
+        if (null == change || !rollbackChange(change, agentList, depositList)) {
+            rollbackByScan(height, agentList, depositList);
         }
 
         for (int i = yellowList.size() - 1; i >= 0; i--) {
@@ -459,6 +445,91 @@ public class ChainContainer implements Cloneable {
         return true;
     }
 
+    /**
+     * Take the change record of the block being rolled back, the records of higher blocks are stale and dropped
+     * 取出正在回滚的区块的变化记录，更高区块的记录已经失效，直接丢弃
+     */
+    private BlockChange removeBlockChange(long height) {
+        List<BlockChange> changeList = chain.getBlockChangeList();
+        while (!changeList.isEmpty()) {
+            BlockChange change = changeList.remove(changeList.size() - 1);
+            if (change.getHeight() == height) {
+                return change;
+            }
+            if (change.getHeight() < height) {
+                changeList.add(change);
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Undo the recorded change of a block, the added agents and deposits are the last ones of the lists
+     * 根据记录撤销区块的变化，区块新增的节点和委托位于列表末尾
+     *
+     * @return false if the lists do not match the record, nothing is changed in that case
+     */
+    private boolean rollbackChange(BlockChange change, List<Consensus<Agent>> agentList, List<Consensus<Deposit>> depositList) {
+        if (!endsWith(agentList, change.getAddedAgentList()) || !endsWith(depositList, change.getAddedDepositList())) {
+            return false;
+        }
+        for (Consensus<Agent> agent : change.getDeletedAgentList()) {
+            agent.setDelHeight(0);
+        }
+        for (Consensus<Deposit> deposit : change.getDeletedDepositList()) {
+            deposit.setDelHeight(0);
+        }
+        agentList.subList(agentList.size() - change.getAddedAgentList().size(), agentList.size()).clear();
+        depositList.subList(depositList.size() - change.getAddedDepositList().size(), depositList.size()).clear();
+        return true;
+    }
+
+    private <T> boolean endsWith(List<T> list, List<T> subList) {
+        int offset = list.size() - subList.size();
+        if (offset < 0) {
+            return false;
+        }
+        for (int i = 0; i < subList.size(); i++) {
+            if (list.get(offset + i) != subList.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Used when the change of the block was not recorded, such as the blocks loaded at startup
+     * 区块的变化没有记录时使用，如启动时加载的区块
+     */
+    private void rollbackByScan(long height, List<Consensus<Agent>> agentList, List<Consensus<Deposit>> depositList) {
+        for (int i = agentList.size() - 1; i >= 0; i--) {
+            Consensus<Agent> agentConsensus = agentList.get(i);
+            Agent agent = agentConsensus.getExtend();
+
+            if (agentConsensus.getDelHeight() == height) {
+                agentConsensus.setDelHeight(0);
+            }
+
+            if (agent.getBlockHeight() == height) {
+                agentList.remove(i);
+            }
+        }
+
+        for (int i = depositList.size() - 1; i >= 0; i--) {
+            Consensus<Deposit> tempDe = depositList.get(i);
+            Deposit deposit = tempDe.getExtend();
+
+            if (tempDe.getDelHeight() == height) {
+                tempDe.setDelHeight(0);
+            }
+
+            if (deposit.getBlockHeight() == height) {
+                depositList.remove(i);
+            }
+        }
+    }
+
     private void addBlockInBlockList(List<Block> blockList) {
         String firstHash = blockList.get(0).getHeader().getPreHash().getDigestHex();
         Block block = blockService.getBlock(firstHash);
@@ -476,25 +547,8 @@ public class ChainContainer implements Cloneable {
      */
     public ChainContainer getBeforeTheForkChain(ChainContainer chainContainer) {
 
-        Chain newChain = new Chain();
+        Chain newChain = chain.fork();
         newChain.setId(chainContainer.getChain().getId());
-        newChain.setStartBlockHeader(chain.getStartBlockHeader());
-        newChain.setEndBlockHeader(chain.getEndBlockHeader());
-        newChain.setBlockHeaderList(new ArrayList<>(chain.getBlockHeaderList()));
-        newChain.setBlockList(new ArrayList<>(chain.getBlockList()));
-
-        if (chain.getAgentList() != null) {
-            newChain.setAgentList(new ArrayList<>(chain.getAgentList()));
-        }
-        if (chain.getDepositList() != null) {
-            newChain.setDepositList(new ArrayList<>(chain.getDepositList()));
-        }
-        if (chain.getYellowPunishList() != null) {
-            newChain.setYellowPunishList(new ArrayList<>(chain.getYellowPunishList()));
-        }
-        if (chain.getRedPunishList() != null) {
-            newChain.setRedPunishList(new ArrayList<>(chain.getRedPunishList()));
-        }
         ChainContainer newChainContainer = new ChainContainer(newChain);
 
         // Bifurcation
@@ -532,27 +586,38 @@ public class ChainContainer implements Cloneable {
 
         List<Block> blockList = getChain().getBlockList();
 
-        boolean canAdd = false;
-        for (int i = 0; i < blockList.size(); i++) {
-
-            Block block = blockList.get(i);
-
-            if (canAdd) {
+        int index = indexOfBlock(blockList, pointBlockHeader.getHeight() - 1, pointBlockHeader.getPreHash());
+        if (index >= 0 && index + 1 < blockList.size()) {
+            List<Block> forkBlockList = blockList.subList(index + 1, blockList.size());
+            for (Block block : forkBlockList) {
                 chain.getBlockList().add(block);
                 chain.getBlockHeaderList().add(block.getHeader());
             }
+            chain.setStartBlockHeader(forkBlockList.get(0).getHeader());
+            chain.setEndBlockHeader(getChain().getEndBlockHeader());
+            chain.setPreChainId(chainContainer.getChain().getId());
+        }
+        return new ChainContainer(chain);
+    }
 
-            if (pointBlockHeader.getPreHash().equals(block.getHeader().getHash())) {
-                canAdd = true;
-                if (i + 1 < blockList.size()) {
-                    chain.setStartBlockHeader(blockList.get(i + 1).getHeader());
-                    chain.setEndBlockHeader(getChain().getEndBlockHeader());
-                    chain.setPreChainId(chainContainer.getChain().getId());
-                }
-                continue;
+    /**
+     * The heights of the cached blocks are continuous, so the block is located by its height first
+     * 缓存的区块高度是连续的，先根据高度定位区块
+     */
+    private int indexOfBlock(List<Block> blockList, long height, NulsDigestData hash) {
+        if (blockList.isEmpty()) {
+            return -1;
+        }
+        long index = height - blockList.get(0).getHeader().getHeight();
+        if (index >= 0 && index < blockList.size() && hash.equals(blockList.get((int) index).getHeader().getHash())) {
+            return (int) index;
+        }
+        for (int i = blockList.size() - 1; i >= 0; i--) {
+            if (hash.equals(blockList.get(i).getHeader().getHash())) {
+                return i;
             }
         }
-        return new ChainContainer(chain);
+        return -1;
     }
 
     public MeetingRound getCurrentRound() {
@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.nuls.consensus.poc.container;
+
+import io.nuls.protocol.model.NulsDigestKey;
+import io.nuls.protocol.model.Transaction;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Entry of the transaction memory pool
+ * 交易内存池中的交易包装
+ *
+ * Created by agent on 2026/10/18.
+ */
+public class TxContainer {
+
+    /**
+     * Higher fee rate first, earlier received first when the fee rate is the same
+     * 手续费率高的优先，费率相同时先收到的优先
+     */
+    public final static Comparator<TxContainer> FEE_RATE_COMPARATOR = new Comparator<TxContainer>() {
+        @Override
+        public int compare(TxContainer o1, TxContainer o2) {
+            int result = Double.compare(o2.feeRate, o1.feeRate);
+            if (result != 0) {
+                return result;
+            }
+            return Long.compare(o1.sequence, o2.sequence);
+        }
+    };
+
+    private final Transaction tx;
+    private final NulsDigestKey hash;
+    private final int size;
+    private final double feeRate;
+    private final long sequence;
+    private final boolean isolated;
+    private final List<String> inputKeys;
+
+    public TxContainer(Transaction tx, NulsDigestKey hash, long sequence, boolean isolated, List<String> inputKeys) {
+        this.tx = tx;
+        this.hash = hash;
+        this.size = Math.max(tx.getSize(), 1);
+        long fee = tx.getFee() == null ? 0L : tx.getFee().getValue();
+        this.feeRate = (double) fee / this.size;
+        this.sequence = sequence;
+        this.isolated = isolated;
+        this.inputKeys = inputKeys;
+    }
+
+    public Transaction getTx() {
+        return tx;
+    }
+
+    public NulsDigestKey getHash() {
+        return hash;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public double getFeeRate() {
+        return feeRate;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public boolean isIsolated() {
+        return isolated;
+    }
+
+    public List<String> getInputKeys() {
+        return inputKeys;
+    }
+}
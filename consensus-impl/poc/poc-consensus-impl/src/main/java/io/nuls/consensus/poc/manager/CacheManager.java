@@ -25,20 +25,24 @@
 package io.nuls.consensus.poc.manager;
 
 import io.nuls.consensus.poc.cache.CacheLoader;
+import io.nuls.consensus.poc.cache.ConsensusSnapshotStorage;
 import io.nuls.consensus.poc.constant.ConsensusConstant;
 import io.nuls.consensus.poc.container.ChainContainer;
 import io.nuls.consensus.poc.model.Chain;
 import io.nuls.consensus.poc.protocol.model.Agent;
 import io.nuls.consensus.poc.protocol.model.Deposit;
+import io.nuls.consensus.poc.protocol.service.BlockService;
 import io.nuls.core.constant.ErrorCode;
 import io.nuls.core.exception.NulsException;
 import io.nuls.core.exception.NulsRuntimeException;
 import io.nuls.core.utils.log.Log;
 import io.nuls.db.entity.PunishLogPo;
+import io.nuls.protocol.context.NulsContext;
 import io.nuls.protocol.event.entity.Consensus;
 import io.nuls.protocol.model.Block;
 import io.nuls.protocol.model.BlockHeader;
 
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -48,7 +52,16 @@ public class CacheManager {
 
     private ChainManager chainManager;
 
+    /**
+     * Blocks read from the database at a time when replaying on the snapshot
+     * 在快照基础上重放时每次从数据库读取的区块数
+     */
+    private static final int REPLAY_BATCH_SIZE = 100;
+
+    private BlockService blockService;
+
     private CacheLoader cacheLoader = new CacheLoader();
+    private ConsensusSnapshotStorage snapshotStorage = new ConsensusSnapshotStorage();
 
     public CacheManager(ChainManager chainManager) {
         this.chainManager = chainManager;
@@ -58,6 +71,17 @@ public class CacheManager {
 
         //load storage data to memory
 
+        ChainContainer masterChainContainer = loadFromSnapshot();
+        if (null == masterChainContainer) {
+            masterChainContainer = new ChainContainer(loadFromStorage());
+        }
+
+        chainManager.setMasterChain(masterChainContainer);
+
+        chainManager.getMasterChain().initRound();
+    }
+
+    private Chain loadFromStorage() throws NulsException {
         List<BlockHeader> blockHeaderList = cacheLoader.loadBlockHeaders(ConsensusConstant.INIT_HEADERS_OF_ROUND_COUNT);
         List<Block> blockList = cacheLoader.loadBlocks(ConsensusConstant.INIT_BLOCKS_COUNT);
 
@@ -82,11 +106,77 @@ public class CacheManager {
         masterChain.setYellowPunishList(yellowPunishList);
         masterChain.setRedPunishList(redPunishList);
 
-        ChainContainer masterChainContainer = new ChainContainer(masterChain);
-
-        chainManager.setMasterChain(masterChainContainer);
+        return masterChain;
+    }
 
-        chainManager.getMasterChain().initRound();
+    /**
+     * Restore the master chain from the latest consensus snapshot and replay the blocks saved after it.
+     * Returns null when there is no snapshot, it is not on the local chain any more or it can not be read, the
+     * caller then loads everything from the database.
+     *
+     * 从最新的共识状态快照恢复主链，并重放快照之后保存的区块。
+     * 没有快照、快照已经不在本地链上或无法读取时返回null，由调用方从数据库全量加载。
+     */
+    private ChainContainer loadFromSnapshot() {
+        try {
+            Chain chain = snapshotStorage.load();
+            if (null == chain) {
+                return null;
+            }
+            if (null == blockService) {
+                blockService = NulsContext.getServiceBean(BlockService.class);
+            }
+            BlockHeader snapshotHeader = chain.getEndBlockHeader();
+            BlockHeader bestHeader = blockService.getLocalBestBlockHeader();
+            if (null == bestHeader || bestHeader.getHeight() < snapshotHeader.getHeight()) {
+                return null;
+            }
+            BlockHeader localHeader = blockService.getBlockHeader(snapshotHeader.getHeight());
+            if (null == localHeader || !localHeader.getHash().equals(snapshotHeader.getHash())) {
+                Log.info("the consensus snapshot at height " + snapshotHeader.getHeight() + " is not on the local chain, ignore it");
+                return null;
+            }
+
+            ChainContainer chainContainer = new ChainContainer(chain);
+            long bestHeight = bestHeader.getHeight();
+            for (long start = snapshotHeader.getHeight() + 1; start <= bestHeight; start += REPLAY_BATCH_SIZE) {
+                List<Block> blockList = blockService.getBlockList(start, Math.min(start + REPLAY_BATCH_SIZE - 1, bestHeight));
+                blockList.sort(new Comparator<Block>() {
+                    @Override
+                    public int compare(Block o1, Block o2) {
+                        return Long.compare(o1.getHeader().getHeight(), o2.getHeader().getHeight());
+                    }
+                });
+                for (Block block : blockList) {
+                    if (!chainContainer.addBlock(block)) {
+                        Log.info("replay block " + block.getHeader().getHeight() + " on the consensus snapshot failed");
+                        return null;
+                    }
+                }
+                // only the latest blocks are kept in memory, the same as loading from the database
+                // 内存中只保留最新的区块，与从数据库加载一致
+                List<Block> replayedList = chain.getBlockList();
+                if (replayedList.size() > ConsensusConstant.INIT_BLOCKS_COUNT) {
+                    replayedList.subList(0, replayedList.size() - ConsensusConstant.INIT_BLOCKS_COUNT).clear();
+                }
+            }
+            if (chain.getEndBlockHeader().getHeight() != bestHeight) {
+                return null;
+            }
+
+            List<Block> blockList = cacheLoader.loadBlocks(ConsensusConstant.INIT_BLOCKS_COUNT);
+            if (blockList.isEmpty() || !blockList.get(blockList.size() - 1).getHeader().getHash().equals(chain.getEndBlockHeader().getHash())) {
+                return null;
+            }
+            chain.setBlockList(blockList);
+            chain.setStartBlockHeader(blockList.get(0).getHeader());
+
+            Log.info("load consensus cache from the snapshot at height " + snapshotHeader.getHeight() + ", replayed " + (bestHeight - snapshotHeader.getHeight()) + " blocks");
+            return chainContainer;
+        } catch (Exception e) {
+            Log.error(e);
+            return null;
+        }
     }
 
     public void reload() throws NulsException {
@@ -105,4 +195,8 @@ public class CacheManager {
     public void setCacheLoader(CacheLoader cacheLoader) {
         this.cacheLoader = cacheLoader;
     }
+
+    public void setSnapshotStorage(ConsensusSnapshotStorage snapshotStorage) {
+        this.snapshotStorage = snapshotStorage;
+    }
 }
@@ -24,7 +24,6 @@
 
 package io.nuls.consensus.poc.manager;
 
-import io.nuls.account.entity.Address;
 import io.nuls.account.service.intf.AccountService;
 import io.nuls.consensus.poc.locker.Lockers;
 import io.nuls.consensus.poc.model.Chain;
@@ -37,7 +36,10 @@ import io.nuls.consensus.poc.protocol.model.Deposit;
 import io.nuls.consensus.poc.protocol.model.MeetingMember;
 import io.nuls.consensus.poc.protocol.model.MeetingRound;
 import io.nuls.consensus.poc.protocol.model.block.BlockRoundData;
+import io.nuls.core.exception.NulsException;
 import io.nuls.core.utils.calc.DoubleUtils;
+import io.nuls.core.utils.crypto.Base58;
+import io.nuls.core.utils.crypto.Hex;
 import io.nuls.core.utils.date.TimeService;
 import io.nuls.core.utils.log.ConsensusLog;
 import io.nuls.core.utils.log.Log;
@@ -50,14 +52,16 @@ import io.nuls.protocol.model.BlockHeader;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Created by ln on 2018/4/14.
  */
 public class RoundManager {
 
-    private AccountService accountService = NulsContext.getServiceBean(AccountService.class);
+    private AccountService accountService;
 
     private List<MeetingRound> roundList = new ArrayList<>();
 
@@ -246,7 +250,12 @@ public class RoundManager {
 
         setMemberList(round, startBlockHeader);
 
-        round.calcLocalPacker(accountService.getAccountList());
+        if (null == accountService) {
+            accountService = NulsContext.getServiceBean(AccountService.class);
+        }
+        if (null != accountService) {
+            round.calcLocalPacker(accountService.getAccountList());
+        }
 
         ConsensusLog.debug("calculation||index:{},startTime:{},startHeight:{},hash:{}\n" + round.toString(), index, startTime, startBlockHeader.getHeight(), startBlockHeader.getHash());
         return round;
@@ -266,6 +275,24 @@ public class RoundManager {
             memberList.add(member);
         }
         List<Consensus<Agent>> agentList = getAliveAgentList(startBlockHeader.getHeight());
+
+        // Index the data once for all the members, instead of scanning the lists for each member
+        // 为所有成员一次性建立索引，不再为每个成员遍历列表
+        Map<String, List<Consensus<Deposit>>> depositMap = new HashMap<>();
+        Map<String, Long> blockCountMap = new HashMap<>();
+        Map<String, Long> punishCountMap = new HashMap<>();
+        if (!agentList.isEmpty()) {
+            BlockRoundData roundData = new BlockRoundData(startBlockHeader.getExtend());
+            long roundStart = roundData.getRoundIndex() - PocConsensusConstant.RANGE_OF_CAPACITY_COEFFICIENT;
+            if (roundStart < 0) {
+                roundStart = 0;
+            }
+            long roundEnd = roundData.getRoundIndex() - 1;
+            depositMap = getDepositMap(startBlockHeader.getHeight());
+            blockCountMap = getBlockCountMap(roundStart, roundEnd);
+            punishCountMap = getPunishCountMap(roundStart, roundEnd, PunishType.YELLOW.getCode());
+        }
+
         for (Consensus<Agent> ca : agentList) {
             MeetingMember member = new MeetingMember();
             member.setAgentConsensus(ca);
@@ -276,12 +303,15 @@ public class RoundManager {
             member.setCommissionRate(ca.getExtend().getCommissionRate());
             member.setRoundStartTime(round.getStartTime());
 
-            List<Consensus<Deposit>> cdlist = getDepositListByAgentId(ca.getHexHash(), startBlockHeader.getHeight());
+            List<Consensus<Deposit>> cdlist = depositMap.get(ca.getHexHash());
+            if (null == cdlist) {
+                cdlist = new ArrayList<>();
+            }
             for (Consensus<Deposit> cd : cdlist) {
                 member.setTotalDeposit(member.getTotalDeposit().add(cd.getExtend().getDeposit()));
             }
             member.setDepositList(cdlist);
-            member.setCreditVal(calcCreditVal(member, startBlockHeader));
+            member.setCreditVal(calcCreditVal(member, blockCountMap, punishCountMap));
             ca.getExtend().setCreditVal(member.getRealCreditVal());
             ca.getExtend().setTotalDeposit(member.getTotalDeposit().getValue());
             boolean isItIn = member.getTotalDeposit().isGreaterOrEquals(PocConsensusConstant.SUM_OF_DEPOSIT_OF_AGENT_LOWER_LIMIT);
@@ -309,10 +339,14 @@ public class RoundManager {
         round.setTotalWeight(totalWeight);
     }
 
-    private List<Consensus<Deposit>> getDepositListByAgentId(String agentId, long startBlockHeight) {
+    /**
+     * The deposits which are valid at the height, grouped by agent hash, the later deposits first
+     * 在该高度有效的委托，按节点hash分组，后加入的委托在前
+     */
+    private Map<String, List<Consensus<Deposit>>> getDepositMap(long startBlockHeight) {
 
         List<Consensus<Deposit>> depositList = chain.getDepositList();
-        List<Consensus<Deposit>> resultList = new ArrayList<>();
+        Map<String, List<Consensus<Deposit>>> depositMap = new HashMap<>();
 
         for (int i = depositList.size() - 1; i >= 0; i--) {
             Consensus<Deposit> cd = depositList.get(i);
@@ -323,13 +357,15 @@ public class RoundManager {
             if (deposit.getBlockHeight() >= startBlockHeight || deposit.getBlockHeight() < 0) {
                 continue;
             }
-            if (!deposit.getAgentHash().equals(agentId)) {
-                continue;
+            List<Consensus<Deposit>> resultList = depositMap.get(deposit.getAgentHash());
+            if (null == resultList) {
+                resultList = new ArrayList<>();
+                depositMap.put(deposit.getAgentHash(), resultList);
             }
             resultList.add(cd);
         }
 
-        return resultList;
+        return depositMap;
     }
 
     private List<Consensus<Agent>> getAliveAgentList(long startBlockHeight) {
@@ -347,29 +383,38 @@ public class RoundManager {
         return resultList;
     }
 
-    private double calcCreditVal(MeetingMember member, BlockHeader blockHeader) {
-
-        BlockRoundData roundData = new BlockRoundData(blockHeader.getExtend());
+    private double calcCreditVal(MeetingMember member, Map<String, Long> blockCountMap, Map<String, Long> punishCountMap) {
 
-        long roundStart = roundData.getRoundIndex() - PocConsensusConstant.RANGE_OF_CAPACITY_COEFFICIENT;
-        if (roundStart < 0) {
-            roundStart = 0;
-        }
-        long blockCount = getBlockCountByAddress(member.getPackingAddress(), roundStart, roundData.getRoundIndex() - 1);
-        long sumRoundVal = getPunishCountByAddress(member.getAgentAddress(), roundStart, roundData.getRoundIndex() - 1, PunishType.YELLOW.getCode());
+        long blockCount = getCount(blockCountMap, getAddressKey(member.getPackingAddress()));
+        long sumRoundVal = getCount(punishCountMap, member.getAgentAddress());
         double ability = DoubleUtils.div(blockCount, PocConsensusConstant.RANGE_OF_CAPACITY_COEFFICIENT);
 
         double penalty = DoubleUtils.div(DoubleUtils.mul(PocConsensusConstant.CREDIT_MAGIC_NUM, sumRoundVal),
                 DoubleUtils.mul(PocConsensusConstant.RANGE_OF_CAPACITY_COEFFICIENT, PocConsensusConstant.RANGE_OF_CAPACITY_COEFFICIENT));
 
-//        BlockLog.debug(")))))))))))))creditVal:" + DoubleUtils.sub(ability, penalty) + ",member:" + member.getAgentAddress());
-//        BlockLog.debug(")))))))))))))blockCount:" + blockCount + ", start:" + roundStart + ",end:" + calcRoundIndex + ", yellowCount:" + sumRoundVal);
-
         return DoubleUtils.round(DoubleUtils.sub(ability, penalty), 4);
     }
 
-    private long getPunishCountByAddress(String address, long roundStart, long roundEnd, int code) {
-        long count = 0;
+    private String getAddressKey(String address) {
+        try {
+            return Hex.encode(Base58.decode(address));
+        } catch (NulsException e) {
+            Log.warn("wrong address:" + address);
+            return address;
+        }
+    }
+
+    private long getCount(Map<String, Long> countMap, String key) {
+        Long count = countMap.get(key);
+        return null == count ? 0L : count;
+    }
+
+    /**
+     * The count of the punishments within the rounds, by address
+     * 轮次范围内的处罚次数，以地址为key
+     */
+    private Map<String, Long> getPunishCountMap(long roundStart, long roundEnd, int code) {
+        Map<String, Long> countMap = new HashMap<>();
         List<PunishLogPo> punishList = chain.getYellowPunishList();
 
         if (code == PunishType.RED.getCode()) {
@@ -385,49 +430,43 @@ public class RoundManager {
             if (punish.getRoundIndex() < roundStart) {
                 break;
             }
-            if (punish.getAddress().equals(address)) {
-                count++;
-            }
+            countMap.put(punish.getAddress(), getCount(countMap, punish.getAddress()) + 1);
         }
-        return count;
+        return countMap;
     }
 
-    private long getBlockCountByAddress(String packingAddress, long roundStart, long roundEnd) {
-        long count = 0;
+    /**
+     * The count of the blocks packed within the rounds, by the hex of the packing address, so the headers are
+     * not base58 encoded one by one
+     *
+     * 轮次范围内打包的区块数，以打包地址的hex为key，不再逐个对区块头的地址做base58编码
+     */
+    private Map<String, Long> getBlockCountMap(long roundStart, long roundEnd) {
+        Map<String, Long> countMap = new HashMap<>();
         List<BlockHeader> blockHeaderList = chain.getBlockHeaderList();
 
-        for (int i = blockHeaderList.size() - 1; i >= 0; i--) {
+        for (int i = indexOfLastHeaderBeforeRound(roundEnd + 1); i >= 0; i--) {
             BlockHeader blockHeader = blockHeaderList.get(i);
             BlockRoundData roundData = new BlockRoundData(blockHeader.getExtend());
 
-            if (roundData.getRoundIndex() > roundEnd) {
-                continue;
-            }
             if (roundData.getRoundIndex() < roundStart) {
                 break;
             }
-            if (Address.fromHashs(blockHeader.getPackingAddress()).getBase58().equals(packingAddress)) {
-                count++;
-            }
+            String key = Hex.encode(blockHeader.getPackingAddress());
+            countMap.put(key, getCount(countMap, key) + 1);
         }
-        return count;
+        return countMap;
     }
 
     private BlockHeader getFirstBlockHeightOfPreRoundByRoundIndex(long roundIndex) {
         BlockHeader firstBlockHeader = null;
-        long startRoundIndex = 0l;
         List<BlockHeader> blockHeaderList = chain.getBlockHeaderList();
-        for (int i = blockHeaderList.size() - 1; i >= 0; i--) {
-            BlockHeader blockHeader = blockHeaderList.get(i);
-            long currentRoundIndex = new BlockRoundData(blockHeader.getExtend()).getRoundIndex();
-            if (roundIndex > currentRoundIndex) {
-                if (startRoundIndex == 0l) {
-                    startRoundIndex = currentRoundIndex;
-                }
-                if (currentRoundIndex < startRoundIndex) {
-                    firstBlockHeader = blockHeaderList.get(i + 1);
-                    break;
-                }
+        int index = indexOfLastHeaderBeforeRound(roundIndex);
+        if (index >= 0) {
+            long startRoundIndex = new BlockRoundData(blockHeaderList.get(index).getExtend()).getRoundIndex();
+            int preIndex = indexOfLastHeaderBeforeRound(startRoundIndex);
+            if (preIndex >= 0) {
+                firstBlockHeader = blockHeaderList.get(preIndex + 1);
             }
         }
         if (firstBlockHeader == null) {
@@ -436,4 +475,26 @@ public class RoundManager {
         }
         return firstBlockHeader;
     }
+
+    /**
+     * The round indexes of the header list never decrease, so the position is found by binary search
+     * 区块头列表的轮次不会递减，使用二分查找定位
+     *
+     * @return the position of the last header whose round is before the round, or -1 if there is none
+     */
+    private int indexOfLastHeaderBeforeRound(long roundIndex) {
+        List<BlockHeader> blockHeaderList = chain.getBlockHeaderList();
+        int low = 0;
+        int high = blockHeaderList.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midRoundIndex = new BlockRoundData(blockHeaderList.get(mid).getExtend()).getRoundIndex();
+            if (midRoundIndex < roundIndex) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
 }
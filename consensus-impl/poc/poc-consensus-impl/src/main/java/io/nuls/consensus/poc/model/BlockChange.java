@@ -0,0 +1,83 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.nuls.consensus.poc.model;
+
+import io.nuls.consensus.poc.protocol.model.Agent;
+import io.nuls.consensus.poc.protocol.model.Deposit;
+import io.nuls.protocol.event.entity.Consensus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The consensus data changed by a block of the chain, so that the block can be rolled back without scanning all
+ * the agents and deposits
+ *
+ * 链中一个区块引起的共识数据变化，回滚该区块时不再需要遍历所有的节点和委托
+ *
+ * Created by agent on 2026/10/18.
+ */
+public class BlockChange {
+
+    private final long height;
+
+    /**
+     * The agents and deposits added by the block, in the order they were appended
+     * 区块新增的节点和委托，按加入的顺序
+     */
+    private final List<Consensus<Agent>> addedAgentList = new ArrayList<>();
+    private final List<Consensus<Deposit>> addedDepositList = new ArrayList<>();
+
+    /**
+     * The agents and deposits whose delete height was set by the block
+     * 被区块设置了删除高度的节点和委托
+     */
+    private final List<Consensus<Agent>> deletedAgentList = new ArrayList<>();
+    private final List<Consensus<Deposit>> deletedDepositList = new ArrayList<>();
+
+    public BlockChange(long height) {
+        this.height = height;
+    }
+
+    public long getHeight() {
+        return height;
+    }
+
+    public List<Consensus<Agent>> getAddedAgentList() {
+        return addedAgentList;
+    }
+
+    public List<Consensus<Deposit>> getAddedDepositList() {
+        return addedDepositList;
+    }
+
+    public List<Consensus<Agent>> getDeletedAgentList() {
+        return deletedAgentList;
+    }
+
+    public List<Consensus<Deposit>> getDeletedDepositList() {
+        return deletedDepositList;
+    }
+}
@@ -31,8 +31,8 @@ import io.nuls.db.entity.PunishLogPo;
 import io.nuls.protocol.event.entity.Consensus;
 import io.nuls.protocol.model.Block;
 import io.nuls.protocol.model.BlockHeader;
+import io.nuls.protocol.model.NulsDigestData;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -51,12 +51,40 @@ public class Chain implements Cloneable {
     private List<PunishLogPo> yellowPunishList;
     private List<PunishLogPo> redPunishList;
 
+    /**
+     * The consensus data changed by the latest blocks, in the order of the blocks
+     * 最近区块引起的共识数据变化，按区块顺序
+     */
+    private List<BlockChange> blockChangeList;
+
     public Chain() {
-        blockHeaderList = new ArrayList<>();
-        blockList = new ArrayList<>();
+        blockHeaderList = new ForkableList<>();
+        blockList = new ForkableList<>();
+        blockChangeList = new ForkableList<>();
         id = StringUtils.getNewUUID();
     }
 
+    /**
+     * Create a chain with the same blocks and consensus data, the lists are shared and copied on write, so the new
+     * chain can be rolled back without affecting the lists of this one
+     *
+     * 创建一条区块和共识数据都相同的链，列表共享并在修改时复制，新链的回滚不会影响本链的列表
+     */
+    public Chain fork() {
+        Chain chain = new Chain();
+        chain.setId(id);
+        chain.setStartBlockHeader(startBlockHeader);
+        chain.setEndBlockHeader(endBlockHeader);
+        chain.blockHeaderList = fork(blockHeaderList);
+        chain.blockList = fork(blockList);
+        chain.agentList = fork(agentList);
+        chain.depositList = fork(depositList);
+        chain.yellowPunishList = fork(yellowPunishList);
+        chain.redPunishList = fork(redPunishList);
+        chain.blockChangeList = fork(blockChangeList);
+        return chain;
+    }
+
     public void setId(String id) {
         this.id = id;
     }
@@ -74,7 +102,7 @@ public class Chain implements Cloneable {
     }
 
     public void setBlockHeaderList(List<BlockHeader> blockHeaderList) {
-        this.blockHeaderList = blockHeaderList;
+        this.blockHeaderList = ForkableList.of(blockHeaderList);
     }
 
     public String getId() {
@@ -110,15 +138,15 @@ public class Chain implements Cloneable {
     }
 
     public void setBlockList(List<Block> blockList) {
-        this.blockList = blockList;
+        this.blockList = ForkableList.of(blockList);
     }
 
     public void setAgentList(List<Consensus<Agent>> agentList) {
-        this.agentList = agentList;
+        this.agentList = ForkableList.of(agentList);
     }
 
     public void setDepositList(List<Consensus<Deposit>> depositList) {
-        this.depositList = depositList;
+        this.depositList = ForkableList.of(depositList);
     }
 
     public List<PunishLogPo> getYellowPunishList() {
@@ -126,7 +154,7 @@ public class Chain implements Cloneable {
     }
 
     public void setYellowPunishList(List<PunishLogPo> yellowPunishList) {
-        this.yellowPunishList = yellowPunishList;
+        this.yellowPunishList = ForkableList.of(yellowPunishList);
     }
 
     public List<PunishLogPo> getRedPunishList() {
@@ -134,7 +162,11 @@ public class Chain implements Cloneable {
     }
 
     public void setRedPunishList(List<PunishLogPo> redPunishList) {
-        this.redPunishList = redPunishList;
+        this.redPunishList = ForkableList.of(redPunishList);
+    }
+
+    public List<BlockChange> getBlockChangeList() {
+        return blockChangeList;
     }
 
     @Override
@@ -142,10 +174,55 @@ public class Chain implements Cloneable {
         return super.clone();
     }
 
+    /**
+     * Get the position of the header of the height in the header list. The heights of the list are continuous,
+     * so the position is calculated from the first height instead of scanning the list
+     *
+     * 获取该高度的区块头在区块头列表中的位置，列表中的高度是连续的，直接根据起始高度计算位置，不再遍历列表
+     *
+     * @return the position, or -1 when the height is not in the list
+     */
+    public int indexOfBlockHeader(long height) {
+        int size = blockHeaderList.size();
+        if (size == 0) {
+            return -1;
+        }
+        long firstHeight = blockHeaderList.get(0).getHeight();
+        long index = height - firstHeight;
+        if (index >= 0 && index < size && blockHeaderList.get((int) index).getHeight() == height) {
+            return (int) index;
+        }
+        if (blockHeaderList.get(size - 1).getHeight() - firstHeight == size - 1) {
+            return -1;
+        }
+        for (int i = size - 1; i >= 0; i--) {
+            if (blockHeaderList.get(i).getHeight() == height) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Whether the header of the hash and the height is in the header list
+     * 区块头列表中是否有该hash和高度的区块头
+     */
+    public boolean containsBlockHeader(NulsDigestData hash, long height) {
+        int index = indexOfBlockHeader(height);
+        return index >= 0 && blockHeaderList.get(index).getHash().equals(hash);
+    }
+
     public Block getBestBlock() {
         if(blockList == null || blockList.size() == 0) {
             return null;
         }
         return blockList.get(blockList.size() - 1);
     }
+
+    private static <T> List<T> fork(List<T> list) {
+        if (null == list) {
+            return null;
+        }
+        return ForkableList.of(list).fork();
+    }
 }
@@ -0,0 +1,300 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.nuls.consensus.poc.model;
+
+import java.util.*;
+
+/**
+ * List which can be forked in constant time: the elements appended before a fork are frozen into segments which
+ * are shared by both lists and never written again, each list only keeps its own tail and its own replacements.
+ * Appending, removing the last or the first element, removing a range at either end and replacing an element
+ * cost the same as for an ArrayList after a fork, other inserts and removes copy the list once. Not thread safe.
+ *
+ * 可以在常数时间内分叉的列表：分叉之前加入的元素被冻结为分段，由两个列表共享且不再修改，每个列表只保存自己新增的尾部和替换的元素。
+ * 分叉之后，在末尾追加、移除首尾元素、移除首尾的一段元素和替换元素的开销与ArrayList相同，其它位置的插入和移除会复制一次列表。非线程安全。
+ *
+ * Created by agent on 2026/10/18.
+ */
+public class ForkableList<E> extends AbstractList<E> implements RandomAccess {
+
+    /**
+     * The segments are merged into one when there are more of them, or when more elements are replaced
+     * 分段或者替换的元素超过该数量时合并为一个分段
+     */
+    private static final int MAX_SEGMENT_COUNT = 16;
+    private static final int MAX_REPLACED_COUNT = 64;
+
+    private static final Object[][] EMPTY_SEGMENTS = new Object[0][];
+    private static final int[] EMPTY_ENDS = new int[0];
+
+    /**
+     * Frozen elements, may be shared with other lists, the arrays are never written
+     * 冻结的元素，可能与其它列表共享，数组不会被修改
+     */
+    private Object[][] segments = EMPTY_SEGMENTS;
+    private int[] segmentEnds = EMPTY_ENDS;
+
+    /**
+     * The range of the frozen elements which belongs to this list
+     * 冻结元素中属于本列表的范围
+     */
+    private int frozenStart;
+    private int frozenEnd;
+
+    /**
+     * The frozen elements replaced in this list, by position
+     * 本列表中被替换的冻结元素，以位置为key
+     */
+    private Map<Integer, E> replacedMap;
+
+    private ArrayList<E> tail;
+
+    public ForkableList() {
+        this.tail = new ArrayList<>();
+    }
+
+    public ForkableList(Collection<? extends E> c) {
+        this.tail = new ArrayList<>(c);
+    }
+
+    /**
+     * Returns the list itself if it is forkable already, otherwise copies it
+     * 已经是可分叉列表时直接返回，否则复制为新的列表
+     */
+    public static <E> ForkableList<E> of(List<E> list) {
+        if (null == list || list instanceof ForkableList) {
+            return (ForkableList<E>) list;
+        }
+        return new ForkableList<>(list);
+    }
+
+    /**
+     * Create a list with the same elements, the two lists are independent of each other afterwards
+     * 创建一个元素相同的列表，之后两个列表互不影响
+     */
+    public ForkableList<E> fork() {
+        freeze();
+        ForkableList<E> list = new ForkableList<>();
+        list.segments = segments;
+        list.segmentEnds = segmentEnds;
+        list.frozenStart = frozenStart;
+        list.frozenEnd = frozenEnd;
+        if (null != replacedMap) {
+            list.replacedMap = new HashMap<>(replacedMap);
+        }
+        return list;
+    }
+
+    @Override
+    public int size() {
+        return frozenEnd - frozenStart + tail.size();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        checkIndex(index, size());
+        int frozenSize = frozenEnd - frozenStart;
+        if (index >= frozenSize) {
+            return tail.get(index - frozenSize);
+        }
+        int position = frozenStart + index;
+        if (null != replacedMap && replacedMap.containsKey(position)) {
+            return replacedMap.get(position);
+        }
+        int i = 0;
+        while (segmentEnds[i] <= position) {
+            i++;
+        }
+        int segmentStart = i == 0 ? 0 : segmentEnds[i - 1];
+        return (E) segments[i][position - segmentStart];
+    }
+
+    @Override
+    public E set(int index, E element) {
+        checkIndex(index, size());
+        int frozenSize = frozenEnd - frozenStart;
+        if (index >= frozenSize) {
+            return tail.set(index - frozenSize, element);
+        }
+        E old = get(index);
+        if (null == replacedMap) {
+            replacedMap = new HashMap<>();
+        }
+        replacedMap.put(frozenStart + index, element);
+        if (replacedMap.size() > MAX_REPLACED_COUNT) {
+            compact();
+        }
+        return old;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        checkIndex(index, size() + 1);
+        int frozenSize = frozenEnd - frozenStart;
+        if (index < frozenSize) {
+            materialize();
+            frozenSize = 0;
+        }
+        tail.add(index - frozenSize, element);
+        modCount++;
+    }
+
+    @Override
+    public E remove(int index) {
+        checkIndex(index, size());
+        int frozenSize = frozenEnd - frozenStart;
+        E old;
+        if (index >= frozenSize) {
+            old = tail.remove(index - frozenSize);
+        } else if (index == 0 || (index == frozenSize - 1 && tail.isEmpty())) {
+            old = get(index);
+            int position = frozenStart + index;
+            if (null != replacedMap) {
+                replacedMap.remove(position);
+            }
+            if (index == 0) {
+                frozenStart++;
+            } else {
+                frozenEnd--;
+            }
+            releaseFrozen();
+        } else {
+            materialize();
+            old = tail.remove(index);
+        }
+        modCount++;
+        return old;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        int frozenSize = frozenEnd - frozenStart;
+        if (fromIndex >= frozenSize) {
+            tail.subList(fromIndex - frozenSize, toIndex - frozenSize).clear();
+        } else if (fromIndex == 0 && toIndex <= frozenSize) {
+            if (null != replacedMap) {
+                for (int position = frozenStart; position < frozenStart + toIndex; position++) {
+                    replacedMap.remove(position);
+                }
+            }
+            frozenStart += toIndex;
+            releaseFrozen();
+        } else if (toIndex == size()) {
+            tail.clear();
+            if (null != replacedMap) {
+                for (int position = frozenStart + fromIndex; position < frozenEnd; position++) {
+                    replacedMap.remove(position);
+                }
+            }
+            frozenEnd = frozenStart + fromIndex;
+            releaseFrozen();
+        } else {
+            materialize();
+            tail.subList(fromIndex, toIndex).clear();
+        }
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        segments = EMPTY_SEGMENTS;
+        segmentEnds = EMPTY_ENDS;
+        frozenStart = 0;
+        frozenEnd = 0;
+        replacedMap = null;
+        tail = new ArrayList<>();
+        modCount++;
+    }
+
+    /**
+     * Freeze the tail into a new segment, so that it can be shared
+     * 把尾部冻结为新的分段，以便共享
+     */
+    private void freeze() {
+        if (tail.isEmpty()) {
+            return;
+        }
+        int count = 0;
+        while (count < segmentEnds.length && (count == 0 ? 0 : segmentEnds[count - 1]) < frozenEnd) {
+            count++;
+        }
+        if (count >= MAX_SEGMENT_COUNT || frozenStart > frozenEnd - frozenStart) {
+            compact();
+            return;
+        }
+        Object[][] newSegments = Arrays.copyOf(segments, count + 1);
+        int[] newEnds = Arrays.copyOf(segmentEnds, count + 1);
+        if (count > 0) {
+            newEnds[count - 1] = frozenEnd;
+        }
+        newSegments[count] = tail.toArray();
+        newEnds[count] = frozenEnd + tail.size();
+        segments = newSegments;
+        segmentEnds = newEnds;
+        frozenEnd = newEnds[count];
+        tail = new ArrayList<>();
+    }
+
+    /**
+     * Merge all the elements into one segment
+     * 把所有元素合并为一个分段
+     */
+    private void compact() {
+        Object[] array = toArray();
+        clear();
+        if (array.length > 0) {
+            segments = new Object[][]{array};
+            segmentEnds = new int[]{array.length};
+            frozenEnd = array.length;
+        }
+    }
+
+    /**
+     * Copy all the elements into the tail, the shared segments are no longer referenced
+     * 把所有元素复制到尾部，不再引用共享的分段
+     */
+    private void materialize() {
+        ArrayList<E> list = new ArrayList<>(this);
+        clear();
+        tail = list;
+    }
+
+    private void releaseFrozen() {
+        if (frozenStart == frozenEnd) {
+            segments = EMPTY_SEGMENTS;
+            segmentEnds = EMPTY_ENDS;
+            frozenStart = 0;
+            frozenEnd = 0;
+            replacedMap = null;
+        }
+    }
+
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
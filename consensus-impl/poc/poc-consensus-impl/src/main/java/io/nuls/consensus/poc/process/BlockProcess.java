@@ -24,6 +24,7 @@
 
 package io.nuls.consensus.poc.process;
 
+import io.nuls.consensus.poc.cache.ConsensusSnapshotStorage;
 import io.nuls.consensus.poc.cache.TxMemoryPool;
 import io.nuls.consensus.poc.constant.BlockContainerStatus;
 import io.nuls.consensus.poc.constant.ConsensusConstant;
@@ -31,6 +32,7 @@ import io.nuls.consensus.poc.container.BlockContainer;
 import io.nuls.consensus.poc.container.ChainContainer;
 import io.nuls.consensus.poc.manager.ChainManager;
 import io.nuls.consensus.poc.model.Chain;
+import io.nuls.consensus.poc.protocol.context.ConsensusContext;
 import io.nuls.consensus.poc.protocol.event.notice.PackedBlockNotice;
 import io.nuls.consensus.poc.protocol.service.BlockService;
 import io.nuls.consensus.poc.protocol.utils.ConsensusTool;
@@ -60,6 +62,8 @@ public class BlockProcess {
     private IsolatedBlocksProvider isolatedBlocksProvider;
     private TxMemoryPool txMemoryPool;
 
+    private ConsensusSnapshotStorage snapshotStorage = new ConsensusSnapshotStorage();
+
     public BlockProcess(ChainManager chainManager, IsolatedBlocksProvider isolatedBlocksProvider, TxMemoryPool txMemoryPool) {
         this.chainManager = chainManager;
         this.isolatedBlocksProvider = isolatedBlocksProvider;
@@ -85,6 +89,7 @@ public class BlockProcess {
             }
             if(success) {
                 NulsContext.getInstance().setBestBlock(block);
+                saveSnapshotIfCheckpoint(block);
                 //remove tx from memory pool
                 removeTxFromMemoryPool(block);
                 // 转发区块
@@ -114,9 +119,21 @@ public class BlockProcess {
         return false;
     }
 
+    /**
+     * Save the consensus state when the saved block is a checkpoint, the fork view is written in the background
+     * 保存的区块是检查点时保存共识状态快照，分叉视图在后台写入
+     */
+    private void saveSnapshotIfCheckpoint(Block block) {
+        int interval = ConsensusContext.getSnapshotInterval();
+        if (interval <= 0 || block.getHeader().getHeight() % interval != 0) {
+            return;
+        }
+        snapshotStorage.saveAsync(chainManager.getMasterChain().getChain().fork());
+    }
+
     private void removeTxFromMemoryPool(Block block) {
         for(Transaction tx : block.getTxs()) {
-            txMemoryPool.remove(tx.getHash().getDigestHex());
+            txMemoryPool.remove(tx.getHash());
         }
     }
 
@@ -147,31 +164,23 @@ public class BlockProcess {
         BlockHeader blockHeader = block.getHeader();
 
         Chain masterChain = chainManager.getMasterChain().getChain();
-        List<BlockHeader> headerList = masterChain.getBlockHeaderList();
 
-        for(int i = headerList.size() - 1 ; i >= 0 ; i--) {
-            BlockHeader header = headerList.get(i);
-
-            if(header.getHash().equals(blockHeader.getHash())) {
-                // found a same block , return true
-               return true;
-            } else if(header.getHash().equals(blockHeader.getPreHash())) {
+        if(masterChain.containsBlockHeader(blockHeader.getHash(), blockHeader.getHeight())) {
+            // found a same block , return true
+            return true;
+        }
+        if(masterChain.containsBlockHeader(blockHeader.getPreHash(), blockHeader.getHeight() - 1)) {
 
-                Chain newForkChain = new Chain();
+            Chain newForkChain = new Chain();
 
-                newForkChain.getBlockList().add(block);
-                newForkChain.getBlockHeaderList().add(block.getHeader());
+            newForkChain.getBlockList().add(block);
+            newForkChain.getBlockHeaderList().add(block.getHeader());
 
-                newForkChain.setStartBlockHeader(block.getHeader());
-                newForkChain.setEndBlockHeader(block.getHeader());
+            newForkChain.setStartBlockHeader(block.getHeader());
+            newForkChain.setEndBlockHeader(block.getHeader());
 
-                chainManager.getChains().add(new ChainContainer(newForkChain));
-                return true;
-            }
-
-            if(header.getHeight() < blockHeader.getHeight()) {
-                break;
-            }
+            chainManager.getChains().add(new ChainContainer(newForkChain));
+            return true;
         }
         return false;
     }
@@ -187,44 +196,42 @@ public class BlockProcess {
             Chain forkChain = chainContainer.getChain();
             List<BlockHeader> headerList = forkChain.getBlockHeaderList();
 
-            for(int i = headerList.size() - 1 ; i >= 0 ; i--) {
-                BlockHeader header = headerList.get(i);
+            if(forkChain.containsBlockHeader(blockHeader.getHash(), blockHeader.getHeight())) {
+                // found a same block , return true
+                return true;
+            }
 
-                if(header.getHash().equals(blockHeader.getHash())) {
-                    // found a same block , return true
-                    return true;
-                } else if(header.getHash().equals(preHash)) {
+            int i = forkChain.indexOfBlockHeader(blockHeader.getHeight() - 1);
+            if(i < 0 || !headerList.get(i).getHash().equals(preHash)) {
+                continue;
+            }
 
-                    // Check whether it is forked or connected. If it is a connection, add it.
-                    // 检查是分叉还是连接，如果是连接，则加上即可
-                    if(i == headerList.size() - 1) {
-                        chainContainer.getChain().setEndBlockHeader(block.getHeader());
-                        chainContainer.getChain().getBlockHeaderList().add(block.getHeader());
-                        chainContainer.getChain().getBlockList().add(block);
-                        return true;
-                    }
+            // Check whether it is forked or connected. If it is a connection, add it.
+            // 检查是分叉还是连接，如果是连接，则加上即可
+            if(i == headerList.size() - 1) {
+                chainContainer.getChain().setEndBlockHeader(block.getHeader());
+                chainContainer.getChain().getBlockHeaderList().add(block.getHeader());
+                chainContainer.getChain().getBlockList().add(block);
+                return true;
+            }
 
-                    // The block is again forked in the forked chain
-                    // 该块是在分叉链中再次进行的分叉
-                    List<Block> blockList = forkChain.getBlockList();
+            // The block is again forked in the forked chain
+            // 该块是在分叉链中再次进行的分叉
+            List<Block> blockList = forkChain.getBlockList();
 
-                    Chain newForkChain = new Chain();
+            Chain newForkChain = new Chain();
 
-                    newForkChain.getBlockList().addAll(blockList.subList(0, i));
-                    newForkChain.getBlockHeaderList().addAll(headerList.subList(0, i));
+            newForkChain.getBlockList().addAll(blockList.subList(0, i));
+            newForkChain.getBlockHeaderList().addAll(headerList.subList(0, i));
 
-                    newForkChain.getBlockList().add(block);
-                    newForkChain.getBlockHeaderList().add(block.getHeader());
+            newForkChain.getBlockList().add(block);
+            newForkChain.getBlockHeaderList().add(block.getHeader());
 
-                    newForkChain.setStartBlockHeader(forkChain.getStartBlockHeader());
-                    newForkChain.setEndBlockHeader(block.getHeader());
+            newForkChain.setStartBlockHeader(forkChain.getStartBlockHeader());
+            newForkChain.setEndBlockHeader(block.getHeader());
 
-                    chainManager.getChains().add(new ChainContainer(newForkChain));
-                    return true;
-                } else if(header.getHeight() < blockHeader.getHeight()) {
-                    break;
-                }
-            }
+            chainManager.getChains().add(new ChainContainer(newForkChain));
+            return true;
         }
         return false;
     }
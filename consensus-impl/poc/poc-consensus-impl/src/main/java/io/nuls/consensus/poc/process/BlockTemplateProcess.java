@@ -0,0 +1,252 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.nuls.consensus.poc.process;
+
+import io.nuls.consensus.poc.cache.TxMemoryPool;
+import io.nuls.consensus.poc.protocol.constant.PocConsensusConstant;
+import io.nuls.core.constant.ErrorCode;
+import io.nuls.core.exception.NulsException;
+import io.nuls.core.utils.date.TimeService;
+import io.nuls.core.utils.log.Log;
+import io.nuls.core.validate.ValidateResult;
+import io.nuls.ledger.entity.BlockValidateContext;
+import io.nuls.ledger.entity.tx.AbstractCoinTransaction;
+import io.nuls.ledger.service.intf.LedgerService;
+import io.nuls.protocol.context.NulsContext;
+import io.nuls.protocol.model.Block;
+import io.nuls.protocol.model.NulsDigestData;
+import io.nuls.protocol.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Candidate block template, maintained in the background: the transactions of the memory pool are verified and
+ * appended as they arrive, and the template is verified again on top of every new best block.
+ * When it is our turn to pack, the block is made from a snapshot of the template instead of verifying the
+ * transactions one by one within the packing time.
+ * The transactions stay in the memory pool, they are removed when the block is saved.
+ *
+ * 后台持续维护的候选区块模板：内存池中的交易到达后验证并加入模板，每次最新区块变化后在新区块的基础上重新验证。
+ * 轮到本节点打包时直接使用模板的快照生成区块，不再在打包时间内逐笔验证交易。
+ * 交易仍然保留在内存池中，区块保存后才移除。
+ *
+ * Created by agent on 2026/10/18.
+ */
+public class BlockTemplateProcess {
+
+    private final TxMemoryPool txMemoryPool;
+
+    private final LedgerService ledgerService;
+
+    /**
+     * The hash of the best block which the template is based on
+     * 模板所基于的最新区块hash
+     */
+    private NulsDigestData preHash;
+
+    private BlockValidateContext txList = new BlockValidateContext();
+    private final Set<NulsDigestData> txHashSet = new HashSet<>();
+
+    /**
+     * The orphans which failed the verification on top of the template, they are tried again when the template is
+     * rebased or grows. The other failed transactions are removed from the memory pool.
+     * 在模板基础上验证失败的孤立交易，模板重新建立或增加交易后再次尝试。其它验证失败的交易从内存池中移除。
+     */
+    private final Set<NulsDigestData> rejectedHashSet = new HashSet<>();
+
+    private long totalSize;
+
+    /**
+     * Set while the packer waits for the template, the background update then stops at the next transaction
+     * 打包线程等待模板时设置，后台更新在下一笔交易处停止
+     */
+    private volatile boolean snapshotWaiting;
+
+    public BlockTemplateProcess(TxMemoryPool txMemoryPool) {
+        this(txMemoryPool, NulsContext.getServiceBean(LedgerService.class));
+    }
+
+    BlockTemplateProcess(TxMemoryPool txMemoryPool, LedgerService ledgerService) {
+        this.txMemoryPool = txMemoryPool;
+        this.ledgerService = ledgerService;
+    }
+
+    public synchronized void process() throws NulsException {
+        Block bestBlock = NulsContext.getInstance().getBestBlock();
+        if (null == bestBlock) {
+            return;
+        }
+        update(bestBlock.getHeader().getHash(), Long.MAX_VALUE);
+    }
+
+    /**
+     * Get the transactions of the template on top of the best block, the template is rebased first when it is
+     * based on another block. A background update in progress gives way at once, and the rebase stops at the
+     * deadline with the transactions verified so far.
+     *
+     * 获取基于该最新区块的模板交易，如果模板基于其它区块，先重新建立模板。
+     * 正在进行的后台更新会立即让出，重新建立模板到截止时间为止，只包含此前已验证的交易。
+     *
+     * @param bestBlock the block which the new block follows
+     * @param deadline  no transaction is verified after this time
+     * @return the transactions in the order of the template
+     */
+    public List<Transaction> getSnapshot(Block bestBlock, long deadline) throws NulsException {
+        snapshotWaiting = true;
+        synchronized (this) {
+            snapshotWaiting = false;
+            update(bestBlock.getHeader().getHash(), deadline);
+            return new ArrayList<>(txList);
+        }
+    }
+
+    public synchronized void clear() {
+        preHash = null;
+        reset();
+    }
+
+    private void update(NulsDigestData bestHash, long deadline) throws NulsException {
+        if (!bestHash.equals(preHash)) {
+            preHash = bestHash;
+            rejectedHashSet.clear();
+            rebuild(deadline);
+        } else {
+            removeMissingTxs(deadline);
+        }
+        fill(deadline);
+    }
+
+    /**
+     * The transactions left out here are still in the memory pool, the next update adds them again
+     * 这里没有处理的交易仍在内存池中，下次更新会再次加入
+     */
+    private boolean isExpired(long deadline) {
+        return snapshotWaiting || TimeService.currentTimeMillis() >= deadline;
+    }
+
+    /**
+     * Verify the transactions of the template again, the ones which are no longer valid are dropped
+     * 重新验证模板中的交易，丢弃不再有效的交易
+     */
+    private void rebuild(long deadline) throws NulsException {
+        List<Transaction> oldTxList = new ArrayList<>(txList);
+        reset();
+        for (Transaction tx : oldTxList) {
+            if (isExpired(deadline)) {
+                return;
+            }
+            if (txMemoryPool.exist(tx.getHash())) {
+                tryAdd(tx);
+            }
+        }
+    }
+
+    private void removeMissingTxs(long deadline) throws NulsException {
+        for (Transaction tx : txList) {
+            if (!txMemoryPool.exist(tx.getHash())) {
+                //the transactions after it may depend on it, so verify all of them again
+                rebuild(deadline);
+                return;
+            }
+        }
+    }
+
+    private void fill(long deadline) throws NulsException {
+        for (Transaction tx : txMemoryPool.getAll()) {
+            if (isFull() || isExpired(deadline)) {
+                return;
+            }
+            if (canAdd(tx)) {
+                tryAdd(tx);
+            }
+        }
+        // the isolated txs whose inputs are found now are moved into the fee rate queue of the pool
+        // 输入已经找到的孤立交易移入内存池按手续费率排序的队列
+        for (Transaction tx : txMemoryPool.getAllIsolated()) {
+            if (isFull() || isExpired(deadline)) {
+                return;
+            }
+            if (canAdd(tx) && tryAdd(tx)) {
+                txMemoryPool.promote(tx.getHash());
+            }
+        }
+    }
+
+    private boolean isFull() {
+        return totalSize >= PocConsensusConstant.MAX_BLOCK_SIZE;
+    }
+
+    private boolean canAdd(Transaction tx) {
+        NulsDigestData hash = tx.getHash();
+        if (txHashSet.contains(hash) || rejectedHashSet.contains(hash)) {
+            return false;
+        }
+        return (totalSize + tx.size()) < PocConsensusConstant.MAX_BLOCK_SIZE;
+    }
+
+    private boolean tryAdd(Transaction tx) throws NulsException {
+        ValidateResult result = ledgerService.conflictDetectTx(tx, txList);
+        if (result.isSuccess()) {
+            result = ledgerService.verifyTx(tx, txList);
+        }
+        if (result.isFailed()) {
+            Log.debug(result.getMessage());
+            if (result.getErrorCode() == ErrorCode.ORPHAN_TX) {
+                rejectedHashSet.add(tx.getHash());
+            } else {
+                txMemoryPool.remove(tx.getHash());
+            }
+            return false;
+        }
+        //a confirmed tx which spends outputs already fails the verification above, only query the others
+        if (!hasInputs(tx) && ledgerService.getTx(tx.getHash()) != null) {
+            txMemoryPool.remove(tx.getHash());
+            return false;
+        }
+        txList.add(tx);
+        txHashSet.add(tx.getHash());
+        totalSize += tx.size();
+        //the new tx may be the parent of a rejected orphan
+        rejectedHashSet.clear();
+        return true;
+    }
+
+    private void reset() {
+        txList = new BlockValidateContext();
+        txHashSet.clear();
+        totalSize = 0L;
+    }
+
+    private boolean hasInputs(Transaction tx) {
+        if (!(tx instanceof AbstractCoinTransaction)) {
+            return false;
+        }
+        AbstractCoinTransaction coinTx = (AbstractCoinTransaction) tx;
+        return null != coinTx.getCoinData() && !coinTx.getCoinDataProvider().getInputKeys(coinTx.getCoinData()).isEmpty();
+    }
+}
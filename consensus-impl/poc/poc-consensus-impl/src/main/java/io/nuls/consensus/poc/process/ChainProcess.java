@@ -27,6 +27,7 @@ package io.nuls.consensus.poc.process;
 import io.nuls.consensus.poc.constant.ConsensusConstant;
 import io.nuls.consensus.poc.container.ChainContainer;
 import io.nuls.consensus.poc.manager.ChainManager;
+import io.nuls.consensus.poc.model.BlockChange;
 import io.nuls.consensus.poc.model.Chain;
 import io.nuls.consensus.poc.protocol.model.Agent;
 import io.nuls.consensus.poc.protocol.model.Deposit;
@@ -241,23 +242,20 @@ public class ChainProcess {
         // 判断该孤立链是否和主链相连
         BlockHeader startBlockHeader = isolatedChain.getChain().getStartBlockHeader();
 
-        List<BlockHeader> blockHeaderList = chainManager.getMasterChain().getChain().getBlockHeaderList();
+        Chain masterChain = chainManager.getMasterChain().getChain();
+        List<BlockHeader> blockHeaderList = masterChain.getBlockHeaderList();
 
         int count = blockHeaderList.size() > ConsensusConstant.MAX_ISOLATED_BLOCK_COUNT ? ConsensusConstant.MAX_ISOLATED_BLOCK_COUNT : blockHeaderList.size();
-        for(int i = blockHeaderList.size() - 1 ; i >= blockHeaderList.size() - count ; i--) {
-            BlockHeader header = blockHeaderList.get(i);
-            if(startBlockHeader.getPreHash().equals(header.getHash()) && startBlockHeader.getHeight() == header.getHeight() + 1) {
-                //yes connectioned
-                isolatedChain.getChain().setPreChainId(chainManager.getMasterChain().getChain().getId());
+        int index = masterChain.indexOfBlockHeader(startBlockHeader.getHeight() - 1);
+        if(index >= blockHeaderList.size() - count && startBlockHeader.getPreHash().equals(blockHeaderList.get(index).getHash())) {
+            //yes connectioned
+            isolatedChain.getChain().setPreChainId(masterChain.getId());
 
-                chainManager.getChains().add(isolatedChain);
+            chainManager.getChains().add(isolatedChain);
 
-                ChainLog.debug("discover the IsolatedChain {} : start {} - {} , end {} - {} , connection the master chain of {} - {} - {}, move into the fork chians", isolatedChain.getChain().getId(), startBlockHeader.getHeight(), startBlockHeader.getHash().getDigestHex(), isolatedChain.getChain().getEndBlockHeader().getHeight(), isolatedChain.getChain().getEndBlockHeader().getHash(), chainManager.getMasterChain().getChain().getId(), chainManager.getMasterChain().getChain().getBestBlock().getHeader().getHeight(), chainManager.getMasterChain().getChain().getBestBlock().getHeader().getHash());
+            ChainLog.debug("discover the IsolatedChain {} : start {} - {} , end {} - {} , connection the master chain of {} - {} - {}, move into the fork chians", isolatedChain.getChain().getId(), startBlockHeader.getHeight(), startBlockHeader.getHash().getDigestHex(), isolatedChain.getChain().getEndBlockHeader().getHeight(), isolatedChain.getChain().getEndBlockHeader().getHash(), masterChain.getId(), masterChain.getBestBlock().getHeader().getHeight(), masterChain.getBestBlock().getHeader().getHash());
 
-                return true;
-            } else if(startBlockHeader.getHeight() > header.getHeight()) {
-                break;
-            }
+            return true;
         }
 
         // Determine whether the lone chain is connected to the forked chain to be verified
@@ -272,9 +270,10 @@ public class ChainProcess {
 
             blockHeaderList = chain.getBlockHeaderList();
 
-            for(int i = 0 ; i < blockHeaderList.size() ; i++) {
+            int i = chain.indexOfBlockHeader(startBlockHeader.getHeight() - 1);
+            if(i >= 0) {
                 BlockHeader header = blockHeaderList.get(i);
-                if(startBlockHeader.getPreHash().equals(header.getHash()) && startBlockHeader.getHeight() == header.getHeight() + 1) {
+                if(startBlockHeader.getPreHash().equals(header.getHash())) {
                     //yes connectioned
                     isolatedChain.getChain().setPreChainId(chain.getPreChainId());
                     isolatedChain.getChain().setStartBlockHeader(chain.getStartBlockHeader());
@@ -291,8 +290,6 @@ public class ChainProcess {
                     ChainLog.debug("discover the IsolatedChain {} : start {} - {} , end {} - {} , connection the fork chain of : start {} - {} , end {} - {}, move into the fork chians", isolatedChain.getChain().getId(), startBlockHeader.getHeight(), startBlockHeader.getHash().getDigestHex(), isolatedChain.getChain().getEndBlockHeader().getHeight(), isolatedChain.getChain().getEndBlockHeader().getHash(), chainManager.getMasterChain().getChain().getId(), chain.getStartBlockHeader().getHeight(), chain.getStartBlockHeader().getHash(), chain.getEndBlockHeader().getHeight(), chain.getEndBlockHeader().getHash());
 
                     return true;
-                } else if(startBlockHeader.getHeight() == header.getHeight() + 1) {
-                    break;
                 }
             }
         }
@@ -504,6 +501,13 @@ public class ChainProcess {
             blockList = blockList.subList(blockList.size() - ConsensusConstant.MAX_ISOLATED_BLOCK_COUNT, blockList.size());
         }
 
+        //the blocks before them can still be rolled back by scanning the agents and deposits
+        //更早的区块仍然可以通过遍历节点和委托回滚
+        List<BlockChange> blockChangeList = masterChain.getBlockChangeList();
+        if(blockChangeList.size() > ConsensusConstant.MAX_ISOLATED_BLOCK_COUNT) {
+            blockChangeList.subList(0, blockChangeList.size() - ConsensusConstant.MAX_ISOLATED_BLOCK_COUNT).clear();
+        }
+
         List<Consensus<Agent>> agentList = masterChain.getAgentList();
         List<Consensus<Deposit>> depositList = masterChain.getDepositList();
 
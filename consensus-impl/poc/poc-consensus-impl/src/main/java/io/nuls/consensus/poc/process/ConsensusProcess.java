@@ -25,7 +25,6 @@ package io.nuls.consensus.poc.process;
 
 import io.nuls.account.entity.Account;
 import io.nuls.account.entity.Address;
-import io.nuls.consensus.poc.cache.TxMemoryPool;
 import io.nuls.consensus.poc.constant.BlockContainerStatus;
 import io.nuls.consensus.poc.container.BlockContainer;
 import io.nuls.consensus.poc.manager.ChainManager;
@@ -47,15 +46,12 @@ import io.nuls.core.exception.NulsException;
 import io.nuls.core.utils.date.DateUtil;
 import io.nuls.core.utils.date.TimeService;
 import io.nuls.core.utils.log.Log;
-import io.nuls.core.validate.ValidateResult;
 import io.nuls.event.bus.service.intf.EventBroadcaster;
-import io.nuls.ledger.entity.tx.AbstractCoinTransaction;
 import io.nuls.ledger.entity.tx.CoinBaseTransaction;
 import io.nuls.ledger.service.intf.LedgerService;
 import io.nuls.network.service.NetworkService;
 import io.nuls.poc.constant.ConsensusStatus;
 import io.nuls.protocol.constant.ProtocolConstant;
-import io.nuls.protocol.constant.TransactionConstant;
 import io.nuls.protocol.context.NulsContext;
 import io.nuls.protocol.event.SmallBlockEvent;
 import io.nuls.protocol.model.*;
@@ -71,7 +67,7 @@ import java.util.List;
 public class ConsensusProcess {
 
     private ChainManager chainManager;
-    private TxMemoryPool txMemoryPool;
+    private BlockTemplateProcess blockTemplateProcess;
 
     private BlockQueueProvider blockQueueProvider;
     private NetworkService networkService = NulsContext.getServiceBean(NetworkService.class);
@@ -82,9 +78,9 @@ public class ConsensusProcess {
 
     private boolean hasPacking;
 
-    public ConsensusProcess(ChainManager chainManager, TxMemoryPool txMemoryPool, BlockQueueProvider blockQueueProvider) {
+    public ConsensusProcess(ChainManager chainManager, BlockTemplateProcess blockTemplateProcess, BlockQueueProvider blockQueueProvider) {
         this.chainManager = chainManager;
-        this.txMemoryPool = txMemoryPool;
+        this.blockTemplateProcess = blockTemplateProcess;
         this.blockQueueProvider = blockQueueProvider;
     }
 
@@ -145,9 +141,10 @@ public class ConsensusProcess {
                 Log.error(e);
             }
 
-            while (member.getPackEndTime() > TimeService.currentTimeMillis()) {
+            long sleepTime = member.getPackEndTime() - TimeService.currentTimeMillis();
+            if (sleepTime > 0L) {
                 try {
-                    Thread.sleep(500L);
+                    Thread.sleep(sleepTime);
                 } catch (InterruptedException e) {
                     Log.error(e);
                 }
@@ -164,20 +161,8 @@ public class ConsensusProcess {
         Block block = doPacking(self, round);
 
         if (needCheckAgain && hasReceiveNewestBlock(self, round)) {
-            Block realBestBlock = chainManager.getBestBlock();
-            if (null != realBestBlock) {
-                List<NulsDigestData> txHashList = realBestBlock.getTxHashList();
-                for (Transaction transaction : block.getTxs()) {
-                    if (transaction.getType() == TransactionConstant.TX_TYPE_COIN_BASE || transaction.getType() == TransactionConstant.TX_TYPE_YELLOW_PUNISH || transaction.getType() == TransactionConstant.TX_TYPE_RED_PUNISH) {
-                        continue;
-                    }
-                    if (txHashList.contains(transaction.getHash())) {
-                        continue;
-                    }
-                    txMemoryPool.add(transaction, false);
-                }
-                block = doPacking(self, round);
-            }
+            //the packed txs are still in the memory pool, the template is rebased on the newest block
+            block = doPacking(self, round);
         }
         if (null == block) {
             Log.error("make a null block");
@@ -287,57 +272,19 @@ public class ConsensusProcess {
 
         bd.setRoundData(roundData);
 
-        List<Transaction> packingTxList = new ArrayList<>();
-        List<NulsDigestData> outHashList = new ArrayList<>();
-
-        long totalSize = 0L;
-
-        while (true) {
-            if ((self.getPackEndTime() - TimeService.currentTimeMillis()) <= 500L) {
-                break;
-            }
-            Transaction tx = txMemoryPool.get();
-
-            if (tx == null) {
-                try {
-                    Thread.sleep(100L);
-                } catch (InterruptedException e) {
-                    Log.error("packaging error ", e);
-                }
-                continue;
-            }
-
-            if ((totalSize + tx.size()) > PocConsensusConstant.MAX_BLOCK_SIZE) {
-                txMemoryPool.add(tx, false);
-                break;
-            }
-            if (outHashList.contains(tx.getHash())) {
-                continue;
-            }
-            Transaction repeatTx = ledgerService.getTx(tx.getHash());
-            if (repeatTx != null) {
-                continue;
-            }
-            ValidateResult result = ledgerService.conflictDetectTx(tx, packingTxList);
-            if (result.isFailed()) {
-                Log.debug(result.getMessage());
-                continue;
-            }
-            result = this.ledgerService.verifyTx(tx,packingTxList);
-            if (result.isFailed()) {
-                Log.debug(result.getMessage());
-                continue;
-            }
-            outHashList.add(tx.getHash());
-
+        //the transactions were verified in the background, they are removed from the memory pool when the block is saved
+        List<Transaction> packingTxList = blockTemplateProcess.getSnapshot(bestBlock, self.getPackEndTime() - 500L);
+        for (Transaction tx : packingTxList) {
             tx.setBlockHeight(bd.getHeight());
-            packingTxList.add(tx);
-
-            totalSize += tx.size();
         }
 
-        addConsensusTx(bestBlock, packingTxList, self, round);
-        bd.setTxList(packingTxList);
+        List<Transaction> txList = createBlockTxList(bestBlock, packingTxList, self, round);
+        //the consensus txs are added at last, leave out the txs of the template tail until the block fits
+        while (getTxListSize(txList) >= PocConsensusConstant.MAX_BLOCK_SIZE && !packingTxList.isEmpty()) {
+            packingTxList.remove(packingTxList.size() - 1);
+            txList = createBlockTxList(bestBlock, packingTxList, self, round);
+        }
+        bd.setTxList(txList);
 
         Block newBlock = ConsensusTool.createBlock(bd, round.getLocalPacker());
 
@@ -347,6 +294,21 @@ public class ConsensusProcess {
         return newBlock;
     }
 
+    private List<Transaction> createBlockTxList(Block bestBlock, List<Transaction> packingTxList, MeetingMember self, MeetingRound round) throws NulsException, IOException {
+        List<Transaction> txList = new ArrayList<>(packingTxList.size() + 2);
+        txList.addAll(packingTxList);
+        addConsensusTx(bestBlock, txList, self, round);
+        return txList;
+    }
+
+    private long getTxListSize(List<Transaction> txList) {
+        long size = 0L;
+        for (Transaction tx : txList) {
+            size += tx.size();
+        }
+        return size;
+    }
+
     /**
      * CoinBase transaction & Punish transaction
      *
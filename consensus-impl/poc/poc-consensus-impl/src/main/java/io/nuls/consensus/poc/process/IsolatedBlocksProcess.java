@@ -28,6 +28,7 @@ import io.nuls.consensus.poc.constant.ConsensusConstant;
 import io.nuls.consensus.poc.container.BlockContainer;
 import io.nuls.consensus.poc.container.ChainContainer;
 import io.nuls.consensus.poc.manager.ChainManager;
+import io.nuls.consensus.poc.model.Chain;
 import io.nuls.consensus.poc.provider.DownloadBlockProvider;
 import io.nuls.core.utils.log.ChainLog;
 import io.nuls.protocol.model.Block;
@@ -35,7 +36,6 @@ import io.nuls.protocol.model.BlockHeader;
 import io.nuls.protocol.model.NulsDigestData;
 
 import java.io.IOException;
-import java.util.List;
 
 /**
  * Created by ln on 2018/4/14.
@@ -114,33 +114,30 @@ public class IsolatedBlocksProcess {
      * 从分叉链和孤立链中检查，是否存在该区块
      */
     private boolean checkHasExist(BlockContainer blockContainer) {
-        NulsDigestData hash = blockContainer.getBlock().getHeader().getHash();
+        BlockHeader blockHeader = blockContainer.getBlock().getHeader();
+        NulsDigestData hash = blockHeader.getHash();
+        long height = blockHeader.getHeight();
 
         for (ChainContainer chainContainer : chainManager.getIsolatedChains()) {
-            for (BlockHeader header : chainContainer.getChain().getBlockHeaderList()) {
-                if (header.getHash().equals(hash)) {
-                    return true;
-                }
+            if (chainContainer.getChain().containsBlockHeader(hash, height)) {
+                return true;
             }
         }
 
         for (ChainContainer chainContainer : chainManager.getChains()) {
-            for (BlockHeader header : chainContainer.getChain().getBlockHeaderList()) {
-                if (header.getHash().equals(hash)) {
-                    return true;
-                }
+            if (chainContainer.getChain().containsBlockHeader(hash, height)) {
+                return true;
             }
         }
 
-        List<BlockHeader> masterChainBlockHeaderList = chainManager.getMasterChain().getChain().getBlockHeaderList();
-        int size = (int) (masterChainBlockHeaderList.size() - ConsensusConstant.MAX_ISOLATED_BLOCK_COUNT * 1.1);
+        Chain masterChain = chainManager.getMasterChain().getChain();
+        int size = (int) (masterChain.getBlockHeaderList().size() - ConsensusConstant.MAX_ISOLATED_BLOCK_COUNT * 1.1);
         if(size < 0) {
             size = 0;
         }
-        for (int i = masterChainBlockHeaderList.size() - 1 ; i >= size ; i--) {
-            if(hash.equals(masterChainBlockHeaderList.get(i).getHash())) {
-                return true;
-            }
+        int index = masterChain.indexOfBlockHeader(height);
+        if(index >= size && hash.equals(masterChain.getBlockHeaderList().get(index).getHash())) {
+            return true;
         }
 
         return false;
@@ -47,6 +47,8 @@ public class BlockQueueProvider implements QueueProvider {
 
     private boolean downloadBlockQueueHasDestory;
 
+    private Runnable putListener;
+
     public BlockQueueProvider() {
         blockQueue = new QueueService<>();
         blockQueue.createQueue(QUEUE_NAME_RECEIVE, 2000l, false);
@@ -93,6 +95,9 @@ public class BlockQueueProvider implements QueueProvider {
         } finally {
             Lockers.OUTER_LOCK.unlock();
         }
+        if (null != putListener) {
+            putListener.run();
+        }
         return true;
     }
 
@@ -136,6 +141,11 @@ public class BlockQueueProvider implements QueueProvider {
         blockQueue.clear(QUEUE_NAME_RECEIVE);
     }
 
+    @Override
+    public void setPutListener(Runnable putListener) {
+        this.putListener = putListener;
+    }
+
     public void destory() {
         blockQueue.destroyQueue(QUEUE_NAME_DOWNLOAD);
         blockQueue.destroyQueue(QUEUE_NAME_RECEIVE);
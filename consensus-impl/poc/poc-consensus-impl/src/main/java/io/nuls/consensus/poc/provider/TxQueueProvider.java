@@ -36,6 +36,8 @@ public class TxQueueProvider implements QueueProvider {
 
     private QueueService<Transaction> txQueue;
 
+    private Runnable putListener;
+
     public TxQueueProvider() {
         txQueue = new QueueService<Transaction>();
         txQueue.createQueue(QUEUE_NAME, (long) Integer.MAX_VALUE, false);
@@ -47,6 +49,9 @@ public class TxQueueProvider implements QueueProvider {
             return false;
         }
         txQueue.offer(QUEUE_NAME, (Transaction) data);
+        if (null != putListener) {
+            putListener.run();
+        }
         return true;
     }
 
@@ -59,4 +64,9 @@ public class TxQueueProvider implements QueueProvider {
     public void clear() {
         txQueue.clear(QUEUE_NAME);
     }
+
+    @Override
+    public void setPutListener(Runnable putListener) {
+        this.putListener = putListener;
+    }
 }
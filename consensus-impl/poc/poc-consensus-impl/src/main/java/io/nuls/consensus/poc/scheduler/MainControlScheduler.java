@@ -57,6 +57,7 @@ public class MainControlScheduler {
     private ChainManager chainManager;
     private CacheManager cacheManager;
     private TxMemoryPool txMemoryPool;
+    private BlockTemplateProcess blockTemplateProcess;
 
     private MainControlScheduler() {
     }
@@ -79,7 +80,7 @@ public class MainControlScheduler {
         PocConsensusService pocConsensusService = NulsContext.getServiceBean(PocConsensusService.class);
         pocConsensusService.addProvider(blockQueueProvider, txQueueProvider);
 
-        threadPool = TaskManager.createScheduledThreadPool(6,
+        threadPool = TaskManager.createScheduledThreadPool(7,
                 new NulsThreadFactory(NulsConstant.MODULE_ID_CONSENSUS, "consensus-poll-control"));
 
         chainManager = new ChainManager();
@@ -90,17 +91,31 @@ public class MainControlScheduler {
         IsolatedBlocksProcess isolatedBlocksProcess = new IsolatedBlocksProcess(chainManager);
         threadPool.scheduleAtFixedRate(new IsolatedBlocksProcessTask(isolatedBlocksProcess, isolatedBlocksProvider), 1000L,1000L, TimeUnit.MILLISECONDS);
 
+        //The block and tx tasks are woken up as soon as data is queued, the fixed rate is only a fallback
+        //区块和交易任务在数据入队后立即唤醒，固定频率执行只作为兜底
         BlockProcess blockProcess = new BlockProcess(chainManager, isolatedBlocksProvider, txMemoryPool);
         isolatedBlocksProcess.setBlockProcess(blockProcess);
-        threadPool.scheduleAtFixedRate(new BlockProcessTask(blockProcess, blockQueueProvider, chainManager), 1000L,100L, TimeUnit.MILLISECONDS);
+        SignalDrivenTask blockProcessTask = new SignalDrivenTask(new BlockProcessTask(blockProcess, blockQueueProvider, chainManager), threadPool);
+        blockQueueProvider.setPutListener(blockProcessTask::signal);
+        threadPool.scheduleAtFixedRate(blockProcessTask, 1000L,100L, TimeUnit.MILLISECONDS);
 
         TxProcess txProcess = new TxProcess(txMemoryPool);
-        threadPool.scheduleAtFixedRate(new TxProcessTask(txProcess, txQueueProvider), 1000L,500L, TimeUnit.MILLISECONDS);
+        SignalDrivenTask txProcessTask = new SignalDrivenTask(new TxProcessTask(txProcess, txQueueProvider), threadPool);
+        txQueueProvider.setPutListener(txProcessTask::signal);
+        threadPool.scheduleAtFixedRate(txProcessTask, 1000L,500L, TimeUnit.MILLISECONDS);
 
         ChainProcess chainProcess = new ChainProcess(chainManager);
-        threadPool.scheduleAtFixedRate(new ChainProcessTask(chainProcess), 1000L,500L, TimeUnit.MILLISECONDS);
+        SignalDrivenTask chainProcessTask = new SignalDrivenTask(new ChainProcessTask(chainProcess), threadPool);
+        blockProcessTask.addNext(chainProcessTask);
+        threadPool.scheduleAtFixedRate(chainProcessTask, 1000L,500L, TimeUnit.MILLISECONDS);
 
-        ConsensusProcess consensusProcess = new ConsensusProcess(chainManager, txMemoryPool, blockQueueProvider);
+        blockTemplateProcess = new BlockTemplateProcess(txMemoryPool);
+        SignalDrivenTask blockTemplateProcessTask = new SignalDrivenTask(new BlockTemplateProcessTask(blockTemplateProcess), threadPool);
+        blockProcessTask.addNext(blockTemplateProcessTask);
+        txProcessTask.addNext(blockTemplateProcessTask);
+        threadPool.scheduleAtFixedRate(blockTemplateProcessTask, 1000L,500L, TimeUnit.MILLISECONDS);
+
+        ConsensusProcess consensusProcess = new ConsensusProcess(chainManager, blockTemplateProcess, blockQueueProvider);
         threadPool.scheduleAtFixedRate(new ConsensusProcessTask(consensusProcess), 1000L,1000L, TimeUnit.MILLISECONDS);
 
         DownloadBlockProcess downloadBlockProcess = new DownloadBlockProcess();
@@ -153,6 +168,7 @@ public class MainControlScheduler {
             cacheManager.clear();
             txQueueProvider.clear();
             blockQueueProvider.clear();
+            blockTemplateProcess.clear();
         } finally {
             Lockers.OUTER_LOCK.unlock();
         }
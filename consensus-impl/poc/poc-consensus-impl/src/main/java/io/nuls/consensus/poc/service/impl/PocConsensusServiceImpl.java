@@ -161,18 +161,18 @@ public class PocConsensusServiceImpl implements PocConsensusService {
         TxMemoryPool memoryPool = mainControlScheduler.getTxMemoryPool();
 
         list.addAll(memoryPool.getAll());
-        list.addAll(memoryPool.getAll());
+        list.addAll(memoryPool.getAllIsolated());
 
         return list;
     }
 
     @Override
-    public Transaction getAndRemoveOfMemoryTxs(String hash) {
+    public Transaction getAndRemoveOfMemoryTxs(NulsDigestData hash) {
         return mainControlScheduler.getTxMemoryPool().getAndRemove(hash);
     }
 
     @Override
-    public Transaction getTxFromMemory(String hash) {
+    public Transaction getTxFromMemory(NulsDigestData hash) {
         return mainControlScheduler.getTxMemoryPool().get(hash);
     }
 
@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.consensus.poc.task;
+
+import io.nuls.core.utils.log.Log;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Wraps a task so that it can be woken up by a signal: the task still runs at a fixed rate as a fallback, and runs
+ * once more as soon as possible after each signal, for example when data is put into its queue.
+ * Only one run is active at a time, the signals received during a run are merged into one more run after it.
+ *
+ * 把任务包装为可以被信号唤醒的任务：仍然按固定频率执行作为兜底，每次收到信号（例如有数据入队）后尽快再执行一次。
+ * 同一时刻只有一次执行，执行期间收到的信号合并为结束后的一次执行。
+ *
+ * Created by agent on 2026/10/18.
+ */
+public class SignalDrivenTask implements Runnable {
+
+    private final Runnable task;
+    private final Executor executor;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicBoolean signalled = new AtomicBoolean(false);
+
+    /**
+     * The tasks signalled after each run caused by a signal, they may have new work to do
+     * 每次由信号触发的执行之后通知的任务，它们可能有了新的工作
+     */
+    private final List<SignalDrivenTask> nextTaskList = new CopyOnWriteArrayList<>();
+
+    public SignalDrivenTask(Runnable task, Executor executor) {
+        this.task = task;
+        this.executor = executor;
+    }
+
+    public void addNext(SignalDrivenTask nextTask) {
+        nextTaskList.add(nextTask);
+    }
+
+    public void signal() {
+        signalled.set(true);
+        if (running.get()) {
+            return;
+        }
+        try {
+            executor.execute(this);
+        } catch (Exception e) {
+            //the executor is shut down, the fixed rate run is stopped too
+            Log.debug("signal task fail : " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void run() {
+        if (!running.compareAndSet(false, true)) {
+            //the active run will see the signal
+            return;
+        }
+        boolean bySignal = false;
+        try {
+            do {
+                bySignal |= signalled.getAndSet(false);
+                task.run();
+            } while (signalled.get());
+        } finally {
+            running.set(false);
+        }
+        //a signal may arrive between the last check and the reset of the running flag
+        if (signalled.get()) {
+            signal();
+        }
+        if (!bySignal) {
+            return;
+        }
+        for (SignalDrivenTask nextTask : nextTaskList) {
+            nextTask.signal();
+        }
+    }
+}
@@ -26,12 +26,14 @@ package io.nuls.consensus.poc;
 
 import io.nuls.consensus.poc.protocol.model.Agent;
 import io.nuls.consensus.poc.protocol.model.Deposit;
+import io.nuls.consensus.poc.protocol.model.block.BlockRoundData;
 import io.nuls.protocol.event.entity.Consensus;
 import io.nuls.protocol.model.Block;
 import io.nuls.protocol.model.BlockHeader;
 import io.nuls.protocol.model.NulsDigestData;
 import org.junit.Before;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -53,6 +55,17 @@ public class BaseTestCase {
         header.setTxCount(1);
         header.setTime(1523709576806l);
 
+        BlockRoundData roundData = new BlockRoundData();
+        roundData.setRoundIndex(1l);
+        roundData.setRoundStartTime(1523709566806l);
+        roundData.setConsensusMemberCount(1);
+        roundData.setPackingIndexOfRound(1);
+        try {
+            header.setExtend(roundData.serialize());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
         Block block = new Block();
         block.setHeader(header);
 
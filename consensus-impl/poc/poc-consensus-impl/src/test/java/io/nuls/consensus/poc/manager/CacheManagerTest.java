@@ -26,16 +26,20 @@ package io.nuls.consensus.poc.manager;
 
 import io.nuls.consensus.poc.BaseTestCase;
 import io.nuls.consensus.poc.cache.CacheLoader;
+import io.nuls.consensus.poc.cache.ConsensusSnapshotStorage;
 import io.nuls.consensus.poc.container.ChainContainer;
+import io.nuls.consensus.poc.model.Chain;
 import io.nuls.consensus.poc.protocol.model.Agent;
 import io.nuls.consensus.poc.protocol.model.Deposit;
 import io.nuls.core.exception.NulsException;
+import io.nuls.db.entity.PunishLogPo;
 import io.nuls.protocol.event.entity.Consensus;
 import io.nuls.protocol.model.Block;
 import io.nuls.protocol.model.BlockHeader;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -64,9 +68,23 @@ public class CacheManagerTest extends BaseTestCase {
             public List<Consensus<Deposit>> loadDepositList() {
                 return depositList;
             }
+            public List<PunishLogPo> loadYellowPunishList() {
+                return new ArrayList<>();
+            }
+            public List<PunishLogPo> loadRedPunishList() {
+                return new ArrayList<>();
+            }
         };
 
         cacheManager.setCacheLoader(cacheLoader);
+
+        ConsensusSnapshotStorage snapshotStorage = new ConsensusSnapshotStorage() {
+            public Chain load() {
+                return null;
+            }
+        };
+
+        cacheManager.setSnapshotStorage(snapshotStorage);
     }
 
     @Test
@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.consensus.poc.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Created by agent on 2026/10/18.
+ */
+public class ForkableListTest {
+
+    @Test
+    public void testFork() {
+        ForkableList<Integer> list = new ForkableList<>(Arrays.asList(1, 2, 3, 4, 5));
+        ForkableList<Integer> fork = list.fork();
+
+        fork.remove(fork.size() - 1);
+        fork.remove(fork.size() - 1);
+        fork.add(6);
+        fork.set(0, 7);
+        list.add(8);
+        list.remove(0);
+
+        assertEquals(Arrays.asList(2, 3, 4, 5, 8), list);
+        assertEquals(Arrays.asList(7, 2, 3, 6), fork);
+
+        ForkableList<Integer> forkOfFork = fork.fork();
+        forkOfFork.remove(1);
+        forkOfFork.add(0, 9);
+
+        assertEquals(Arrays.asList(9, 7, 3, 6), forkOfFork);
+        assertEquals(Arrays.asList(7, 2, 3, 6), fork);
+        assertEquals(Arrays.asList(2, 3, 4, 5, 8), list);
+    }
+
+    @Test
+    public void testRemoveSuffixAfterFork() {
+        ForkableList<Integer> list = new ForkableList<>(Arrays.asList(1, 2, 3, 4, 5));
+        ForkableList<Integer> fork = list.fork();
+
+        fork.set(3, 9);
+        fork.subList(2, fork.size()).clear();
+        fork.add(6);
+
+        assertEquals(Arrays.asList(1, 2, 6), fork);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), list);
+
+        list.add(7);
+        list.subList(1, list.size()).clear();
+
+        assertEquals(Arrays.asList(1), list);
+        assertEquals(Arrays.asList(1, 2, 6), fork);
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(0);
+        List<List<Integer>> expectedList = new ArrayList<>();
+        List<ForkableList<Integer>> actualList = new ArrayList<>();
+        expectedList.add(new ArrayList<>());
+        actualList.add(new ForkableList<>());
+
+        for (int i = 0; i < 20000; i++) {
+            int n = random.nextInt(expectedList.size());
+            List<Integer> expected = expectedList.get(n);
+            ForkableList<Integer> actual = actualList.get(n);
+            int op = random.nextInt(10);
+            if (op < 4 || expected.isEmpty()) {
+                expected.add(i);
+                actual.add(i);
+            } else if (op == 4) {
+                expected.remove(expected.size() - 1);
+                actual.remove(actual.size() - 1);
+            } else if (op == 5) {
+                expected.remove(0);
+                actual.remove(0);
+            } else if (op == 6) {
+                int index = random.nextInt(expected.size());
+                expected.set(index, -i);
+                actual.set(index, -i);
+            } else if (op == 7) {
+                int index = random.nextInt(expected.size());
+                expected.remove(index);
+                actual.remove(index);
+            } else if (op == 8 && random.nextBoolean()) {
+                int to = random.nextInt(expected.size() + 1);
+                expected.subList(0, to).clear();
+                actual.subList(0, to).clear();
+            } else if (op == 8) {
+                int from = random.nextInt(expected.size() + 1);
+                expected.subList(from, expected.size()).clear();
+                actual.subList(from, actual.size()).clear();
+            } else if (expectedList.size() < 8) {
+                expectedList.add(new ArrayList<>(expected));
+                actualList.add(actual.fork());
+            }
+            for (int j = 0; j < expectedList.size(); j++) {
+                assertEquals(expectedList.get(j), actualList.get(j));
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.consensus.poc.process;
+
+import io.nuls.consensus.poc.cache.TxMemoryPool;
+import io.nuls.core.constant.ErrorCode;
+import io.nuls.core.exception.NulsException;
+import io.nuls.core.validate.ValidateResult;
+import io.nuls.ledger.service.intf.LedgerService;
+import io.nuls.protocol.model.Block;
+import io.nuls.protocol.model.BlockHeader;
+import io.nuls.protocol.model.NulsDigestData;
+import io.nuls.protocol.model.Transaction;
+import io.nuls.protocol.utils.io.NulsByteBuffer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class BlockTemplateProcessTest {
+
+    private TxMemoryPool txMemoryPool;
+    private BlockTemplateProcess blockTemplateProcess;
+
+    /**
+     * The verification result of each tx, success when absent
+     */
+    private Map<NulsDigestData, ValidateResult> verifyResults = new HashMap<>();
+    private Map<NulsDigestData, Transaction> confirmedTxs = new HashMap<>();
+
+    private int blockHeight;
+
+    @Before
+    public void init() {
+        txMemoryPool = new TxMemoryPool(1L << 20, 1000);
+        LedgerService ledgerService = (LedgerService) Proxy.newProxyInstance(LedgerService.class.getClassLoader(),
+                new Class[]{LedgerService.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "conflictDetectTx":
+                            return ValidateResult.getSuccessResult();
+                        case "verifyTx":
+                            ValidateResult result = verifyResults.get(((Transaction) args[0]).getHash());
+                            return null == result ? ValidateResult.getSuccessResult() : result;
+                        case "getTx":
+                            return confirmedTxs.get(args[0]);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        blockTemplateProcess = new BlockTemplateProcess(txMemoryPool, ledgerService);
+    }
+
+    @Test
+    public void testOrphanPackedAfterParentConfirmed() throws NulsException {
+        Transaction parent = newTx(1);
+        Transaction orphan = newTx(2);
+        verifyResults.put(orphan.getHash(), ValidateResult.getFailedResult(ErrorCode.ORPHAN_TX));
+        txMemoryPool.add(parent, false);
+        txMemoryPool.add(orphan, true);
+
+        assertEquals(Collections.singletonList(parent), blockTemplateProcess.getSnapshot(nextBlock(), Long.MAX_VALUE));
+        assertEquals(1, txMemoryPool.getAllIsolated().size());
+
+        // the parent is confirmed, so the inputs of the orphan are found
+        txMemoryPool.remove(parent.getHash());
+        verifyResults.remove(orphan.getHash());
+
+        assertEquals(Collections.singletonList(orphan), blockTemplateProcess.getSnapshot(nextBlock(), Long.MAX_VALUE));
+        assertTrue(txMemoryPool.getAllIsolated().isEmpty());
+        assertEquals(Collections.singletonList(orphan), txMemoryPool.getAll());
+    }
+
+    @Test
+    public void testFailedTxsRemovedFromPool() throws NulsException {
+        Transaction valid = newTx(1);
+        Transaction invalid = newTx(2);
+        Transaction confirmed = newTx(3);
+        Transaction orphan = newTx(4);
+        verifyResults.put(invalid.getHash(), ValidateResult.getFailedResult(ErrorCode.VERIFICATION_FAILD));
+        verifyResults.put(orphan.getHash(), ValidateResult.getFailedResult(ErrorCode.ORPHAN_TX));
+        confirmedTxs.put(confirmed.getHash(), confirmed);
+        txMemoryPool.add(valid, false);
+        txMemoryPool.add(invalid, false);
+        txMemoryPool.add(confirmed, false);
+        txMemoryPool.add(orphan, true);
+
+        assertEquals(Collections.singletonList(valid), blockTemplateProcess.getSnapshot(nextBlock(), Long.MAX_VALUE));
+        assertTrue(txMemoryPool.exist(valid.getHash()));
+        assertFalse(txMemoryPool.exist(invalid.getHash()));
+        assertFalse(txMemoryPool.exist(confirmed.getHash()));
+        assertTrue(txMemoryPool.exist(orphan.getHash()));
+    }
+
+    @Test
+    public void testSnapshotStopsAtDeadline() throws NulsException {
+        Transaction first = newTx(1);
+        Transaction second = newTx(2);
+        txMemoryPool.add(first, false);
+        txMemoryPool.add(second, false);
+
+        assertTrue(blockTemplateProcess.getSnapshot(nextBlock(), 0L).isEmpty());
+        assertTrue(txMemoryPool.exist(first.getHash()));
+        assertTrue(txMemoryPool.exist(second.getHash()));
+
+        assertEquals(2, blockTemplateProcess.getSnapshot(nextBlock(), Long.MAX_VALUE).size());
+    }
+
+    private Block nextBlock() {
+        BlockHeader header = new BlockHeader();
+        header.setHash(NulsDigestData.calcDigestData(new byte[]{(byte) ++blockHeight}));
+        Block block = new Block();
+        block.setHeader(header);
+        return block;
+    }
+
+    private Transaction newTx(int id) {
+        TestTransaction tx = new TestTransaction();
+        tx.setTime(1525000000000L);
+        tx.setHash(NulsDigestData.calcDigestData(new byte[]{0, (byte) id}));
+        return tx;
+    }
+
+    private static class TestTransaction extends Transaction<NulsDigestData> {
+
+        private TestTransaction() {
+            super(1000);
+        }
+
+        @Override
+        public NulsDigestData parseTxData(NulsByteBuffer byteBuffer) throws NulsException {
+            return byteBuffer.readHash();
+        }
+    }
+}
@@ -23,20 +23,30 @@
  */
 package io.nuls.consensus.poc.block.validator;
 
+import io.nuls.consensus.poc.protocol.context.ConsensusContext;
 import io.nuls.core.constant.ErrorCode;
+import io.nuls.core.utils.log.Log;
 import io.nuls.core.validate.NulsDataValidator;
 import io.nuls.core.validate.ValidateResult;
-import io.nuls.ledger.entity.tx.AbstractCoinTransaction;
+import io.nuls.ledger.entity.BlockValidateContext;
 import io.nuls.ledger.service.intf.LedgerService;
 import io.nuls.protocol.constant.TransactionConstant;
 import io.nuls.protocol.context.NulsContext;
 import io.nuls.protocol.model.Block;
 import io.nuls.protocol.model.Transaction;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 
 /**
+ * Verify the transactions of a block in two stages:
+ * the stateless checks (fields, hash, signature) run in parallel on a ForkJoin pool,
+ * then the stateful checks (utxo) run in the order of the block.
+ *
+ * 分两个阶段验证区块中的交易：无状态的验证（字段、hash、签名）在ForkJoin线程池中并行执行，
+ * 然后按区块中的顺序执行有状态的验证（utxo）
+ *
  * @author Niels
  * @date 2017/11/17
  */
@@ -46,6 +56,8 @@ public class BlockTxValidator implements NulsDataValidator<Block> {
 
     private LedgerService ledgerService = NulsContext.getServiceBean(LedgerService.class);
 
+    private volatile ForkJoinPool verifyPool;
+
     private BlockTxValidator() {
     }
 
@@ -58,12 +70,17 @@ public class BlockTxValidator implements NulsDataValidator<Block> {
         if (block.getHeader().getTxCount() != block.getTxs().size()) {
             return ValidateResult.getFailedResult("txCount is wrong!");
         }
+        List<Transaction> txs = block.getTxs();
+        ValidateResult result = this.verifyStateless(txs);
+        if (null == result || result.isFailed()) {
+            return ValidateResult.getFailedResult("there is wrong transaction!msg:" + (null == result ? null : result.getMessage()));
+        }
         int count = 0;
-        List<Transaction> txList = new ArrayList<>();
-        for (Transaction tx : block.getTxs()) {
-            ValidateResult result = this.ledgerService.verifyTx(tx,txList);
+        List<Transaction> txList = new BlockValidateContext();
+        for (Transaction tx : txs) {
+            result = this.ledgerService.verifyTxStateful(tx, txList);
             if (null==result||result.isFailed()) {
-                return ValidateResult.getFailedResult("there is wrong transaction!msg:"+result.getMessage());
+                return ValidateResult.getFailedResult("there is wrong transaction!msg:"+(null == result ? null : result.getMessage()));
             }
             if (tx.getType() == TransactionConstant.TX_TYPE_COIN_BASE) {
                 count++;
@@ -75,4 +92,42 @@ public class BlockTxValidator implements NulsDataValidator<Block> {
         }
         return ValidateResult.getSuccessResult();
     }
+
+    private ValidateResult verifyStateless(List<Transaction> txs) {
+        ForkJoinPool pool = this.getVerifyPool();
+        if (txs.size() < 2 || pool.getParallelism() < 2) {
+            for (Transaction tx : txs) {
+                ValidateResult result = ledgerService.verifyTxStateless(tx);
+                if (null == result || result.isFailed()) {
+                    return result;
+                }
+            }
+            return ValidateResult.getSuccessResult();
+        }
+        try {
+            Optional<ValidateResult> failed = pool.submit(() -> txs.parallelStream()
+                    .map(tx -> ledgerService.verifyTxStateless(tx))
+                    .map(result -> null == result ? ValidateResult.getFailedResult(ErrorCode.VERIFICATION_FAILD) : result)
+                    .filter(result -> result.isFailed())
+                    .findAny()).get();
+            return failed.orElse(ValidateResult.getSuccessResult());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ValidateResult.getFailedResult(e.getMessage());
+        } catch (Exception e) {
+            Log.error(e);
+            return ValidateResult.getFailedResult(e.getMessage());
+        }
+    }
+
+    private ForkJoinPool getVerifyPool() {
+        if (null == verifyPool) {
+            synchronized (this) {
+                if (null == verifyPool) {
+                    verifyPool = new ForkJoinPool(ConsensusContext.getBlockVerifyParallelism());
+                }
+            }
+        }
+        return verifyPool;
+    }
 }
@@ -94,19 +94,19 @@ public class SmallBlockHandler extends AbstractEventHandler<SmallBlockEvent> {
             BlockLog.debug("discard a SmallBlock:" + smallBlock.getHeader().getHash() + ", from:" + fromId + " ,reason:" + result.getMessage());
             return;
         }
-        Map<String, Transaction> txMap = new HashMap<>();
+        Map<NulsDigestKey, Transaction> txMap = new HashMap<>();
         for (Transaction tx : smallBlock.getSubTxList()) {
-            txMap.put(tx.getHash().getDigestHex(), tx);
+            txMap.put(tx.getHash().getDigestKey(), tx);
         }
         List<NulsDigestData> needHashList = new ArrayList<>();
         for (NulsDigestData hash : smallBlock.getTxHashList()) {
-            String hashHex = hash.getDigestHex();
-            Transaction tx = txMap.get(hashHex);
+            NulsDigestKey key = hash.getDigestKey();
+            Transaction tx = txMap.get(key);
             if (null == tx) {
-                tx = temporaryCacheManager.getTx(hashHex);
+                tx = temporaryCacheManager.getTx(hash);
                 if(tx!=null){
                     smallBlock.getSubTxList().add(tx);
-                    txMap.put(hashHex, tx);
+                    txMap.put(key, tx);
                 }
             }
             if (null == tx) {
@@ -36,6 +36,26 @@ public interface PocConsensusConstant {
     String PROPERTY_PARTAKE_PACKING = "partake.packing";
     String PROPERTY_SEED_NODES = "seed.nodes";
     String SEED_NODES_DELIMITER = ",";
+    String PROPERTY_TX_POOL_MAX_SIZE = "tx.pool.max.size";
+    String PROPERTY_TX_POOL_MAX_COUNT = "tx.pool.max.count";
+    String PROPERTY_BLOCK_VERIFY_PARALLELISM = "block.verify.parallelism";
+    String PROPERTY_SNAPSHOT_INTERVAL = "snapshot.interval";
+
+    /**
+     * Memory budget of the transaction memory pool, unit:MB
+     */
+    int DEFAULT_TX_POOL_MAX_SIZE = 64;
+    int DEFAULT_TX_POOL_MAX_COUNT = 200000;
+
+    /**
+     * Threads used to verify the transaction signatures of a block, 0 means the number of processors
+     */
+    int DEFAULT_BLOCK_VERIFY_PARALLELISM = 0;
+
+    /**
+     * Blocks between two consensus state snapshots, 0 means no snapshot is saved
+     */
+    int DEFAULT_SNAPSHOT_INTERVAL = 1000;
 
     String GENESIS_BLOCK_FILE = "block/genesis-block.json";
 
@@ -45,7 +45,11 @@ import java.util.Set;
 public class ConsensusContext {
 
     private static boolean partakePacking = false;
-    private static List<String> seedNodeList;
+    private static List<String> seedNodeList = new ArrayList<>();
+    private static long txPoolMaxSize = PocConsensusConstant.DEFAULT_TX_POOL_MAX_SIZE * 1024L * 1024L;
+    private static int txPoolMaxCount = PocConsensusConstant.DEFAULT_TX_POOL_MAX_COUNT;
+    private static int blockVerifyParallelism = PocConsensusConstant.DEFAULT_BLOCK_VERIFY_PARALLELISM;
+    private static int snapshotInterval = PocConsensusConstant.DEFAULT_SNAPSHOT_INTERVAL;
 
     public static void initConfiguration() {
 
@@ -53,6 +57,11 @@ public class ConsensusContext {
         NulsContext.getInstance().setGenesisBlock(genesisBlock);
 
         partakePacking = NulsConfig.MODULES_CONFIG.getCfgValue(PocConsensusConstant.CFG_CONSENSUS_SECTION, PocConsensusConstant.PROPERTY_PARTAKE_PACKING, false);
+        int txPoolMaxMb = NulsConfig.MODULES_CONFIG.getCfgValue(PocConsensusConstant.CFG_CONSENSUS_SECTION, PocConsensusConstant.PROPERTY_TX_POOL_MAX_SIZE, PocConsensusConstant.DEFAULT_TX_POOL_MAX_SIZE);
+        txPoolMaxSize = txPoolMaxMb * 1024L * 1024L;
+        txPoolMaxCount = NulsConfig.MODULES_CONFIG.getCfgValue(PocConsensusConstant.CFG_CONSENSUS_SECTION, PocConsensusConstant.PROPERTY_TX_POOL_MAX_COUNT, PocConsensusConstant.DEFAULT_TX_POOL_MAX_COUNT);
+        blockVerifyParallelism = NulsConfig.MODULES_CONFIG.getCfgValue(PocConsensusConstant.CFG_CONSENSUS_SECTION, PocConsensusConstant.PROPERTY_BLOCK_VERIFY_PARALLELISM, PocConsensusConstant.DEFAULT_BLOCK_VERIFY_PARALLELISM);
+        snapshotInterval = NulsConfig.MODULES_CONFIG.getCfgValue(PocConsensusConstant.CFG_CONSENSUS_SECTION, PocConsensusConstant.PROPERTY_SNAPSHOT_INTERVAL, PocConsensusConstant.DEFAULT_SNAPSHOT_INTERVAL);
         seedNodeList = new ArrayList<>();
         Set<String> seedAddressSet = new HashSet<>();
         String addresses = NulsConfig.MODULES_CONFIG.getCfgValue(PocConsensusConstant.CFG_CONSENSUS_SECTION, PocConsensusConstant.PROPERTY_SEED_NODES, "");
@@ -76,4 +85,23 @@ public class ConsensusContext {
     public static List<String> getSeedNodeList() {
         return seedNodeList;
     }
+
+    public static long getTxPoolMaxSize() {
+        return txPoolMaxSize;
+    }
+
+    public static int getTxPoolMaxCount() {
+        return txPoolMaxCount;
+    }
+
+    public static int getBlockVerifyParallelism() {
+        if (blockVerifyParallelism <= 0) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        return blockVerifyParallelism;
+    }
+
+    public static int getSnapshotInterval() {
+        return snapshotInterval;
+    }
 }
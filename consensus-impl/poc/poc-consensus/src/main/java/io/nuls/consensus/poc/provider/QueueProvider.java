@@ -34,4 +34,10 @@ public interface QueueProvider {
     Object get();
 
     void clear();
+
+    /**
+     * The listener is called after data is put into the queue
+     * 数据入队之后调用该监听器
+     */
+    void setPutListener(Runnable putListener);
 }
@@ -82,7 +82,7 @@ public interface ConsensusService {
      *
      * @return BaseNulsData
      */
-    Transaction getAndRemoveOfMemoryTxs(String hash);
+    Transaction getAndRemoveOfMemoryTxs(NulsDigestData hash);
 
     /**
      * 回滚最新区块，同时回滚共识服务内存中链的状态
@@ -91,7 +91,7 @@ public interface ConsensusService {
     boolean rollbackBlock(Block block) throws NulsException;
 
 
-    Transaction getTxFromMemory(String hash);
+    Transaction getTxFromMemory(NulsDigestData hash);
 
     List<Transaction> getMemoryTxList();
 }
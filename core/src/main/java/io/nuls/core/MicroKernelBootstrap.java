@@ -32,6 +32,7 @@ import io.nuls.core.i18n.I18nUtils;
 import io.nuls.core.module.BaseModuleBootstrap;
 import io.nuls.core.module.manager.VersionManager;
 import io.nuls.core.utils.cfg.ConfigLoader;
+import io.nuls.core.utils.date.TimeService;
 import io.nuls.core.utils.log.Log;
 import io.nuls.core.utils.queue.manager.QueueManager;
 import io.nuls.core.utils.spring.lite.core.ModularServiceMethodInterceptor;
@@ -56,6 +57,7 @@ public class MicroKernelBootstrap extends BaseModuleBootstrap {
 
     @Override
     public void init() {
+        TimeService.getInstance();
         try {
             NulsConfig.NULS_CONFIG = ConfigLoader.loadIni(NulsConstant.USER_CONFIG_FILE);
             NulsConfig.MODULES_CONFIG = ConfigLoader.loadIni(NulsConstant.MODULES_CONFIG_FILE);
@@ -36,7 +36,12 @@ import java.util.Map;
  */
 public class TimeService implements Runnable {
 
-    private static TimeService INSTANCE = new TimeService();
+    /**
+     * 第一次调用getInstance时才同步网络时间并启动线程，读取时间不会触发
+     */
+    private static final class Holder {
+        private static final TimeService INSTANCE = new TimeService();
+    }
 
     private TimeService() {
         webTimeUrl = "http://time.inchain.org/now";
@@ -44,7 +49,7 @@ public class TimeService implements Runnable {
     }
 
     public static TimeService getInstance() {
-        return INSTANCE;
+        return Holder.INSTANCE;
     }
 
     private String webTimeUrl;
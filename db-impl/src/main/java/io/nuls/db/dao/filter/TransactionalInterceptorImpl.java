@@ -28,6 +28,7 @@ import io.nuls.core.utils.spring.lite.annotation.Interceptor;
 import io.nuls.core.utils.spring.lite.core.interceptor.BeanMethodInterceptorChain;
 import io.nuls.core.utils.str.StringUtils;
 import io.nuls.db.dao.impl.mybatis.session.SessionManager;
+import io.nuls.db.transactional.TransactionSynchronizer;
 import io.nuls.db.transactional.TransactionalInterceptor;
 import io.nuls.db.transactional.annotation.DbSession;
 import io.nuls.db.transactional.annotation.PROPAGATION;
@@ -72,15 +73,18 @@ public class TransactionalInterceptorImpl implements TransactionalInterceptor {
         try {
             if (isCommit) {
                 SessionManager.startTransaction(id);
+                TransactionSynchronizer.begin();
             }
             result = interceptorChain.execute(annotation, obj, method, args);
             if (isCommit) {
                 session.commit();
                 SessionManager.endTransaction(id);
+                TransactionSynchronizer.commit();
             }
         } catch (Exception e) {
             session.rollback();
             SessionManager.endTransaction(id);
+            TransactionSynchronizer.rollback(isCommit);
             throw e;
         } finally {
             if (isSessionBeginning) {
@@ -0,0 +1,102 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.db.manager;
+
+import io.nuls.core.constant.ErrorCode;
+import io.nuls.core.model.Result;
+import io.nuls.core.utils.log.Log;
+import io.nuls.db.service.intf.BatchOperation;
+import org.iq80.leveldb.DB;
+import org.iq80.leveldb.WriteBatch;
+
+import java.io.IOException;
+
+/**
+ * @Desription:
+ * @Author: agent
+ * @Date: 2026/10/18
+ */
+public class LevelDBBatchOperation implements BatchOperation {
+
+    private final DB db;
+    private WriteBatch batch;
+
+    public LevelDBBatchOperation(DB db) {
+        this.db = db;
+        this.batch = db.createWriteBatch();
+    }
+
+    @Override
+    public Result put(byte[] key, byte[] value) {
+        if (batch == null) {
+            return new Result(false, "KV_BATCH_CLOSED");
+        }
+        if (key == null || value == null) {
+            return Result.getFailed(ErrorCode.NULL_PARAMETER);
+        }
+        batch.put(key, value);
+        return Result.getSuccess();
+    }
+
+    @Override
+    public Result delete(byte[] key) {
+        if (batch == null) {
+            return new Result(false, "KV_BATCH_CLOSED");
+        }
+        if (key == null) {
+            return Result.getFailed(ErrorCode.NULL_PARAMETER);
+        }
+        batch.delete(key);
+        return Result.getSuccess();
+    }
+
+    @Override
+    public Result executeBatch() {
+        if (batch == null) {
+            return new Result(false, "KV_BATCH_CLOSED");
+        }
+        try {
+            db.write(batch);
+            return Result.getSuccess();
+        } catch (Exception e) {
+            Log.error(e);
+            return Result.getFailed(e.getMessage());
+        } finally {
+            close();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (batch == null) {
+            return;
+        }
+        try {
+            batch.close();
+        } catch (IOException e) {
+            Log.warn("close leveldb write batch error", e);
+        }
+        batch = null;
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.db.manager;
+
+import io.nuls.core.utils.log.Log;
+import io.nuls.db.service.intf.KVIterator;
+import org.iq80.leveldb.DBIterator;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * 在leveldb迭代器上按范围或前缀截断的迭代器
+ * Iterator over a leveldb iterator, bounded by a key range or a key prefix
+ *
+ * @Desription:
+ * @Author: agent
+ * @Date: 2026/10/18
+ */
+public class LevelDBIterator implements KVIterator {
+
+    private final DBIterator iterator;
+    private final byte[] toKey;
+    private final byte[] prefix;
+    private boolean closed;
+
+    private LevelDBIterator(DBIterator iterator, byte[] fromKey, byte[] toKey, byte[] prefix) {
+        this.iterator = iterator;
+        this.toKey = toKey;
+        this.prefix = prefix;
+        if (fromKey == null) {
+            iterator.seekToFirst();
+        } else {
+            iterator.seek(fromKey);
+        }
+    }
+
+    public static LevelDBIterator range(DBIterator iterator, byte[] fromKey, byte[] toKey) {
+        return new LevelDBIterator(iterator, fromKey, toKey, null);
+    }
+
+    public static LevelDBIterator prefix(DBIterator iterator, byte[] prefix) {
+        return new LevelDBIterator(iterator, prefix, null, prefix);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed || !iterator.hasNext()) {
+            return false;
+        }
+        byte[] key = iterator.peekNext().getKey();
+        if (toKey != null && compare(key, toKey) >= 0) {
+            return false;
+        }
+        return prefix == null || startsWith(key, prefix);
+    }
+
+    @Override
+    public Map.Entry<byte[], byte[]> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return iterator.next();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            iterator.close();
+        } catch (IOException e) {
+            Log.warn("close leveldb iterator error", e);
+        }
+    }
+
+    /**
+     * 与leveldb默认比较器一致的无符号字节序比较
+     * Unsigned byte order comparison, the same as the leveldb default comparator
+     */
+    static int compare(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            int result = (a[i] & 0xff) - (b[i] & 0xff);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    private static boolean startsWith(byte[] key, byte[] prefix) {
+        if (key.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (key[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -28,6 +28,10 @@ import io.nuls.core.constant.ErrorCode;
 import io.nuls.core.model.Result;
 import io.nuls.core.utils.log.Log;
 import io.nuls.core.utils.str.StringUtils;
+import io.nuls.db.service.intf.BatchOperation;
+import io.nuls.db.service.intf.KVIterator;
+import io.nuls.db.service.intf.KVSnapshot;
+import org.iq80.leveldb.CompressionType;
 import org.iq80.leveldb.DB;
 import org.iq80.leveldb.DBFactory;
 import org.iq80.leveldb.Options;
@@ -38,6 +42,7 @@ import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URL;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -55,6 +60,24 @@ public class LevelDBManager {
 
     private static final String BASE_DB_NAME = "leveldb";
 
+    private static final String CFG_DB_SECTION = "db";
+    private static final String CFG_LEVELDB_PREFIX = "leveldb.";
+    private static final String CFG_CACHE_SIZE = "cache.size";
+    private static final String CFG_WRITE_BUFFER_SIZE = "write.buffer.size";
+    private static final String CFG_BLOCK_SIZE = "block.size";
+    private static final String CFG_MAX_OPEN_FILES = "max.open.files";
+    private static final String CFG_COMPRESSION = "compression";
+
+    /**
+     * 块缓存和写缓冲区的单位为MB，数据块大小的单位为字节
+     * block cache and write buffer are in MB, the data block size is in bytes
+     */
+    private static final Integer DEFAULT_CACHE_SIZE = 8;
+    private static final Integer DEFAULT_WRITE_BUFFER_SIZE = 4;
+    private static final Integer DEFAULT_BLOCK_SIZE = 4096;
+    private static final Integer DEFAULT_MAX_OPEN_FILES = 1000;
+    private static final String DEFAULT_COMPRESSION = "snappy";
+
     private static volatile boolean isInit = false;
 
     private static String dataPath;
@@ -78,7 +101,7 @@ public class LevelDBManager {
                 if(!areaFile.isDirectory())
                     continue;
                 try {
-                    db = openDB(areaFile.getPath() + File.separator + BASE_DB_NAME, false);
+                    db = openDB(areaFile.getName(), areaFile.getPath() + File.separator + BASE_DB_NAME, false);
                     AREAS.put(areaFile.getName(), db);
                 } catch (Exception e) {
                     Log.warn("load area failed, areaName: " + areaFile.getName(), e);
@@ -109,7 +132,7 @@ public class LevelDBManager {
                 dir.mkdir();
             }
             String filePath = dataPath + File.separator + areaName + File.separator + BASE_DB_NAME;
-            DB db = openDB(filePath, true);
+            DB db = openDB(areaName, filePath, true);
             AREAS.put(areaName, db);
             result = Result.getSuccess();
         } catch (Exception e) {
@@ -131,13 +154,37 @@ public class LevelDBManager {
         }
     }
 
-    private static DB openDB(String dbPath, boolean createIfMissing) throws IOException {
+    private static DB openDB(String areaName, String dbPath, boolean createIfMissing) throws IOException {
         File file = new File(dbPath);
-        Options options = new Options().createIfMissing(createIfMissing);
+        Options options = createOptions(areaName).createIfMissing(createIfMissing);
         DBFactory factory = Iq80DBFactory.factory;
         return factory.open(file, options);
     }
 
+    /**
+     * 按区域读取leveldb参数，区域自己的配置（leveldb.区域名.参数）优先于公共配置（leveldb.参数）
+     * Read the leveldb options of an area, the area's own entry (leveldb.areaName.option) takes precedence over the
+     * common one (leveldb.option)
+     */
+    static Options createOptions(String areaName) {
+        Options options = new Options();
+        options.cacheSize(getOption(areaName, CFG_CACHE_SIZE, DEFAULT_CACHE_SIZE) * 1024L * 1024L);
+        options.writeBufferSize(getOption(areaName, CFG_WRITE_BUFFER_SIZE, DEFAULT_WRITE_BUFFER_SIZE) * 1024 * 1024);
+        options.blockSize(getOption(areaName, CFG_BLOCK_SIZE, DEFAULT_BLOCK_SIZE));
+        options.maxOpenFiles(getOption(areaName, CFG_MAX_OPEN_FILES, DEFAULT_MAX_OPEN_FILES));
+        String compression = getOption(areaName, CFG_COMPRESSION, DEFAULT_COMPRESSION);
+        options.compressionType("none".equalsIgnoreCase(compression) ? CompressionType.NONE : CompressionType.SNAPPY);
+        return options;
+    }
+
+    private static <T> T getOption(String areaName, String key, T defaultValue) {
+        if (NulsConfig.MODULES_CONFIG == null) {
+            return defaultValue;
+        }
+        T value = NulsConfig.MODULES_CONFIG.getCfgValue(CFG_DB_SECTION, CFG_LEVELDB_PREFIX + key, defaultValue);
+        return NulsConfig.MODULES_CONFIG.getCfgValue(CFG_DB_SECTION, CFG_LEVELDB_PREFIX + areaName + "." + key, value);
+    }
+
     private static boolean checkPathLegal(String areaName) {
         if(StringUtils.isBlank(areaName)) {
             return false;
@@ -257,4 +304,75 @@ public class LevelDBManager {
         }
     }
 
+    public static Result delete(String area, byte[] key) {
+        if(!baseCheckArea(area)) {
+            return new Result(true, "KV_AREA_NOT_EXISTS");
+        }
+        if(key == null) {
+            return Result.getFailed(ErrorCode.NULL_PARAMETER);
+        }
+        try {
+            DB db = AREAS.get(area);
+            db.delete(key);
+            return Result.getSuccess();
+        } catch (Exception e) {
+            return Result.getFailed(e.getMessage());
+        }
+    }
+
+    public static byte[] get(String area, byte[] key) {
+        if(!baseCheckArea(area)) {
+            return null;
+        }
+        if(key == null) {
+            return null;
+        }
+        try {
+            DB db = AREAS.get(area);
+            return db.get(key);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public static List<byte[]> multiGet(String area, List<byte[]> keys) {
+        if(!baseCheckArea(area) || keys == null) {
+            return null;
+        }
+        try (LevelDBSnapshot snapshot = new LevelDBSnapshot(AREAS.get(area))) {
+            return snapshot.multiGet(keys);
+        } catch (Exception e) {
+            Log.error(e);
+            return null;
+        }
+    }
+
+    public static BatchOperation createWriteBatch(String area) {
+        if(!baseCheckArea(area)) {
+            return null;
+        }
+        return new LevelDBBatchOperation(AREAS.get(area));
+    }
+
+    public static KVIterator iterator(String area, byte[] fromKey, byte[] toKey) {
+        if(!baseCheckArea(area)) {
+            return null;
+        }
+        return LevelDBIterator.range(AREAS.get(area).iterator(), fromKey, toKey);
+    }
+
+    public static KVIterator prefixIterator(String area, byte[] prefix) {
+        if(!baseCheckArea(area) || prefix == null) {
+            return null;
+        }
+        return LevelDBIterator.prefix(AREAS.get(area).iterator(), prefix);
+    }
+
+    public static KVSnapshot createSnapshot(String area) {
+        if(!baseCheckArea(area)) {
+            return null;
+        }
+        return new LevelDBSnapshot(AREAS.get(area));
+    }
+
 }
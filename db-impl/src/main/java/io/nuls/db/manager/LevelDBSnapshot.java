@@ -0,0 +1,104 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.db.manager;
+
+import io.nuls.core.utils.log.Log;
+import io.nuls.db.service.intf.KVIterator;
+import io.nuls.db.service.intf.KVSnapshot;
+import org.iq80.leveldb.DB;
+import org.iq80.leveldb.ReadOptions;
+import org.iq80.leveldb.Snapshot;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @Desription:
+ * @Author: agent
+ * @Date: 2026/10/18
+ */
+public class LevelDBSnapshot implements KVSnapshot {
+
+    private final DB db;
+    private final Snapshot snapshot;
+    private final ReadOptions readOptions;
+    private boolean closed;
+
+    public LevelDBSnapshot(DB db) {
+        this.db = db;
+        this.snapshot = db.getSnapshot();
+        this.readOptions = new ReadOptions().snapshot(snapshot);
+    }
+
+    @Override
+    public byte[] get(byte[] key) {
+        if (closed || key == null) {
+            return null;
+        }
+        try {
+            return db.get(key, readOptions);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Override
+    public List<byte[]> multiGet(List<byte[]> keys) {
+        List<byte[]> values = new ArrayList<>(keys.size());
+        for (byte[] key : keys) {
+            values.add(get(key));
+        }
+        return values;
+    }
+
+    @Override
+    public KVIterator iterator(byte[] fromKey, byte[] toKey) {
+        if (closed) {
+            return null;
+        }
+        return LevelDBIterator.range(db.iterator(readOptions), fromKey, toKey);
+    }
+
+    @Override
+    public KVIterator prefixIterator(byte[] prefix) {
+        if (closed || prefix == null) {
+            return null;
+        }
+        return LevelDBIterator.prefix(db.iterator(readOptions), prefix);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            snapshot.close();
+        } catch (IOException e) {
+            Log.warn("close leveldb snapshot error", e);
+        }
+    }
+}
@@ -25,8 +25,13 @@ package io.nuls.db.service.impl;
 
 import io.nuls.core.model.Result;
 import io.nuls.db.manager.LevelDBManager;
+import io.nuls.db.service.intf.BatchOperation;
+import io.nuls.db.service.intf.KVIterator;
+import io.nuls.db.service.intf.KVSnapshot;
 import io.nuls.db.service.intf.KVStorageService;
 
+import java.util.List;
+
 /**
  * @Desription:
  * @Author: PierreLuo
@@ -69,4 +74,39 @@ public class LevelDBStorageServiceImpl implements KVStorageService {
     public byte[] get(String area, String key) {
         return LevelDBManager.get(area, key);
     }
+
+    @Override
+    public Result delete(String area, byte[] key) {
+        return LevelDBManager.delete(area, key);
+    }
+
+    @Override
+    public byte[] get(String area, byte[] key) {
+        return LevelDBManager.get(area, key);
+    }
+
+    @Override
+    public List<byte[]> multiGet(String area, List<byte[]> keys) {
+        return LevelDBManager.multiGet(area, keys);
+    }
+
+    @Override
+    public BatchOperation createWriteBatch(String area) {
+        return LevelDBManager.createWriteBatch(area);
+    }
+
+    @Override
+    public KVIterator iterator(String area, byte[] fromKey, byte[] toKey) {
+        return LevelDBManager.iterator(area, fromKey, toKey);
+    }
+
+    @Override
+    public KVIterator prefixIterator(String area, byte[] prefix) {
+        return LevelDBManager.prefixIterator(area, prefix);
+    }
+
+    @Override
+    public KVSnapshot createSnapshot(String area) {
+        return LevelDBManager.createSnapshot(area);
+    }
 }
@@ -25,12 +25,19 @@ package io.nuls.db.manager;
 
 import io.nuls.core.cfg.NulsConfig;
 import io.nuls.core.constant.NulsConstant;
+import io.nuls.db.service.intf.BatchOperation;
+import io.nuls.db.service.intf.KVIterator;
+import io.nuls.db.service.intf.KVSnapshot;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 import static io.nuls.db.manager.LevelDBManager.*;
 
@@ -120,6 +127,80 @@ public class LevelDBManagerTest {
         }
     }
 
+    @Test
+    public void testWriteBatch() throws UnsupportedEncodingException {
+        put(area, "batch-delete", "value");
+        BatchOperation batch = createWriteBatch(area);
+        batch.put(bytes("batch-1"), bytes("value-1"));
+        batch.put(bytes("batch-2"), bytes("value-2"));
+        batch.delete(bytes("batch-delete"));
+        Assert.assertNull(get(area, "batch-1"));
+        Assert.assertTrue(batch.executeBatch().isSuccess());
+        Assert.assertEquals("value-1", new String(get(area, "batch-1"), NulsConfig.DEFAULT_ENCODING));
+        Assert.assertEquals("value-2", new String(get(area, bytes("batch-2")), NulsConfig.DEFAULT_ENCODING));
+        Assert.assertNull(get(area, "batch-delete"));
+        Assert.assertFalse(batch.put(bytes("batch-3"), bytes("value-3")).isSuccess());
+
+        List<byte[]> values = multiGet(area, Arrays.asList(bytes("batch-2"), bytes("batch-none"), bytes("batch-1")));
+        Assert.assertEquals(3, values.size());
+        Assert.assertEquals("value-2", new String(values.get(0), NulsConfig.DEFAULT_ENCODING));
+        Assert.assertNull(values.get(1));
+        Assert.assertEquals("value-1", new String(values.get(2), NulsConfig.DEFAULT_ENCODING));
+
+        delete(area, bytes("batch-1"));
+        delete(area, bytes("batch-2"));
+        Assert.assertNull(get(area, bytes("batch-1")));
+    }
+
+    @Test
+    public void testIterator() throws UnsupportedEncodingException {
+        BatchOperation batch = createWriteBatch(area);
+        for (int i = 0; i < 5; i++) {
+            batch.put(bytes("iter-a-" + i), bytes("a" + i));
+            batch.put(bytes("iter-b-" + i), bytes("b" + i));
+        }
+        batch.executeBatch();
+
+        try (KVIterator iterator = prefixIterator(area, bytes("iter-a-"))) {
+            int count = 0;
+            while (iterator.hasNext()) {
+                Map.Entry<byte[], byte[]> entry = iterator.next();
+                Assert.assertEquals("a" + count, new String(entry.getValue(), NulsConfig.DEFAULT_ENCODING));
+                count++;
+            }
+            Assert.assertEquals(5, count);
+        }
+
+        try (KVIterator iterator = iterator(area, bytes("iter-a-3"), bytes("iter-b-2"))) {
+            List<String> keys = new ArrayList<>();
+            while (iterator.hasNext()) {
+                keys.add(new String(iterator.next().getKey(), NulsConfig.DEFAULT_ENCODING));
+            }
+            Assert.assertEquals(Arrays.asList("iter-a-3", "iter-a-4", "iter-b-0", "iter-b-1"), keys);
+        }
+    }
+
+    @Test
+    public void testSnapshot() throws UnsupportedEncodingException {
+        put(area, "snapshot-key", "before");
+        try (KVSnapshot snapshot = createSnapshot(area)) {
+            put(area, "snapshot-key", "after");
+            put(area, "snapshot-new", "after");
+            Assert.assertEquals("before", new String(snapshot.get(bytes("snapshot-key")), NulsConfig.DEFAULT_ENCODING));
+            Assert.assertNull(snapshot.get(bytes("snapshot-new")));
+            try (KVIterator iterator = snapshot.prefixIterator(bytes("snapshot-"))) {
+                Assert.assertTrue(iterator.hasNext());
+                Assert.assertEquals("snapshot-key", new String(iterator.next().getKey(), NulsConfig.DEFAULT_ENCODING));
+                Assert.assertFalse(iterator.hasNext());
+            }
+        }
+        Assert.assertEquals("after", new String(get(area, "snapshot-key"), NulsConfig.DEFAULT_ENCODING));
+    }
+
+    private byte[] bytes(String str) throws UnsupportedEncodingException {
+        return str.getBytes(NulsConfig.DEFAULT_ENCODING);
+    }
+
     @After
     public void after() {
         close();
@@ -0,0 +1,90 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.db.transactional;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class TransactionSynchronizerTest {
+
+    @Test
+    public void testRunAtOnceWithoutTransaction() {
+        List<String> done = new ArrayList<>();
+        TransactionSynchronizer.afterCommit(record(done, "a"));
+        Assert.assertEquals(1, done.size());
+    }
+
+    @Test
+    public void testRunAfterCommit() {
+        List<String> done = new ArrayList<>();
+        TransactionSynchronizer.begin();
+        TransactionSynchronizer.afterCommit(record(done, "a"));
+        Assert.assertTrue(done.isEmpty());
+        TransactionSynchronizer.commit();
+        Assert.assertEquals(1, done.size());
+    }
+
+    @Test
+    public void testDropOnRollback() {
+        List<String> done = new ArrayList<>();
+        TransactionSynchronizer.begin();
+        TransactionSynchronizer.afterCommit(record(done, "a"));
+        TransactionSynchronizer.rollback(true);
+        Assert.assertTrue(done.isEmpty());
+
+        TransactionSynchronizer.afterCommit(record(done, "b"));
+        Assert.assertEquals(1, done.size());
+    }
+
+    @Test
+    public void testNestedTransaction() {
+        List<String> done = new ArrayList<>();
+        TransactionSynchronizer.begin();
+        TransactionSynchronizer.afterCommit(record(done, "outer"));
+        TransactionSynchronizer.begin();
+        TransactionSynchronizer.afterCommit(record(done, "inner"));
+        TransactionSynchronizer.commit();
+        Assert.assertEquals(1, done.size());
+        Assert.assertEquals("inner", done.get(0));
+
+        TransactionSynchronizer.rollback(true);
+        Assert.assertEquals(1, done.size());
+    }
+
+    private Runnable record(final List<String> done, final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                done.add(name);
+            }
+        };
+    }
+}
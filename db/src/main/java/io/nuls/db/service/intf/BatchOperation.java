@@ -0,0 +1,55 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.db.service.intf;
+
+import io.nuls.core.model.Result;
+
+/**
+ * 批量写操作，所有put和delete在executeBatch时原子地写入
+ * Batch write operation, all puts and deletes are written atomically on executeBatch
+ *
+ * @Desription:
+ * @Author: agent
+ * @Date: 2026/10/18
+ */
+public interface BatchOperation extends AutoCloseable {
+
+    Result put(byte[] key, byte[] value);
+
+    Result delete(byte[] key);
+
+    /**
+     * 原子地写入批次中的所有操作，之后批次被关闭
+     * Atomically write all operations of the batch, the batch is closed afterwards
+     */
+    Result executeBatch();
+
+    /**
+     * 放弃还没有写入的操作并释放资源
+     * Discard the operations not written yet and release the resources
+     */
+    @Override
+    void close();
+
+}
@@ -0,0 +1,49 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.db.service.intf;
+
+import java.util.List;
+
+/**
+ * 一个区域在某一时刻的只读快照，之后的写入对快照不可见，使用完必须关闭
+ * Read-only snapshot of an area at one moment, later writes are invisible to it, must be closed after use
+ *
+ * @Desription:
+ * @Author: agent
+ * @Date: 2026/10/18
+ */
+public interface KVSnapshot extends AutoCloseable {
+
+    byte[] get(byte[] key);
+
+    List<byte[]> multiGet(List<byte[]> keys);
+
+    KVIterator iterator(byte[] fromKey, byte[] toKey);
+
+    KVIterator prefixIterator(byte[] prefix);
+
+    @Override
+    void close();
+
+}
@@ -25,6 +25,8 @@ package io.nuls.db.service.intf;
 
 import io.nuls.core.model.Result;
 
+import java.util.List;
+
 /**
  * @Desription:
  * @Author: PierreLuo
@@ -46,4 +48,30 @@ public interface KVStorageService {
 
     byte[] get(String area, String key);
 
+    Result delete(String area, byte[] key);
+
+    byte[] get(String area, byte[] key);
+
+    /**
+     * 在同一个快照上读取多个key，返回的值与key的顺序一致，不存在的key对应null
+     * Read several keys on the same snapshot, the values are returned in key order and missing keys map to null
+     */
+    List<byte[]> multiGet(String area, List<byte[]> keys);
+
+    /**
+     * 创建批量写操作，区域不存在时返回null
+     * Create a batch write operation, returns null when the area does not exist
+     */
+    BatchOperation createWriteBatch(String area);
+
+    /**
+     * 遍历[fromKey, toKey)范围内的数据，fromKey或toKey为null表示不限
+     * Iterate over [fromKey, toKey), a null fromKey or toKey means unbounded
+     */
+    KVIterator iterator(String area, byte[] fromKey, byte[] toKey);
+
+    KVIterator prefixIterator(String area, byte[] prefix);
+
+    KVSnapshot createSnapshot(String area);
+
 }
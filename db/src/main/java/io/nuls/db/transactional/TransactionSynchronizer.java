@@ -0,0 +1,102 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.db.transactional;
+
+import io.nuls.core.utils.log.Log;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Runs in-memory changes only after the database transaction of the current thread is committed, so that a rollback
+ * can not leave the memory and the database disagreeing. The transactional interceptor marks the transaction
+ * boundaries, nested transactions keep their own actions.
+ * 在当前线程的数据库事务提交之后才执行内存中的修改，避免事务回滚后内存和数据库不一致。事务边界由事务拦截器标记，嵌套的独立事务各自保存自己的操作。
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class TransactionSynchronizer {
+
+    private static final ThreadLocal<LinkedList<List<Runnable>>> ACTIONS_HOLDER = new ThreadLocal<>();
+
+    /**
+     * Run the action after the current transaction is committed, or at once when there is no transaction.
+     * The action is dropped if the transaction is rolled back.
+     * 在当前事务提交后执行，没有事务时立即执行；事务回滚时丢弃。
+     */
+    public static void afterCommit(Runnable action) {
+        LinkedList<List<Runnable>> stack = ACTIONS_HOLDER.get();
+        if (null == stack || stack.isEmpty()) {
+            action.run();
+            return;
+        }
+        stack.peek().add(action);
+    }
+
+    public static void begin() {
+        LinkedList<List<Runnable>> stack = ACTIONS_HOLDER.get();
+        if (null == stack) {
+            stack = new LinkedList<>();
+            ACTIONS_HOLDER.set(stack);
+        }
+        stack.push(new ArrayList<>());
+    }
+
+    /**
+     * The transaction begun last is committed, run its actions
+     * 最近开始的事务已提交，执行它的操作
+     */
+    public static void commit() {
+        LinkedList<List<Runnable>> stack = ACTIONS_HOLDER.get();
+        if (null == stack || stack.isEmpty()) {
+            return;
+        }
+        List<Runnable> actions = stack.pop();
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (Exception e) {
+                Log.error(e);
+            }
+        }
+    }
+
+    /**
+     * The session of the transaction begun last is rolled back, drop the actions registered so far
+     * 最近开始的事务的会话已回滚，丢弃已登记的操作
+     */
+    public static void rollback(boolean end) {
+        LinkedList<List<Runnable>> stack = ACTIONS_HOLDER.get();
+        if (null == stack || stack.isEmpty()) {
+            return;
+        }
+        if (end) {
+            stack.pop();
+        } else {
+            stack.peek().clear();
+        }
+    }
+}
@@ -10,6 +10,7 @@ import io.nuls.event.bus.service.impl.EventCacheService;
 import io.nuls.event.bus.utils.disruptor.DisruptorEvent;
 import io.nuls.protocol.constant.ProtocolEventType;
 import io.nuls.protocol.event.base.BaseEvent;
+import io.nuls.protocol.model.NulsDigestData;
 
 /**
  * @author: Niels Wang
@@ -26,7 +27,7 @@ public class EventCheckingProcessor<E extends BaseEvent> implements EventHandler
             if (null == event || event.getHeader() == null) {
                 return;
             }
-            String eventHash = event.getHash().getDigestHex();
+            NulsDigestData eventHash = event.getHash();
 
             boolean commonDigestTx = event.getHeader().getEventType() == EventConstant.EVENT_TYPE_COMMON_EVENT_HASH_EVENT &&
                     event.getHeader().getModuleId() == NulsConstant.MODULE_ID_EVENT_BUS;
@@ -38,12 +39,10 @@ public class EventCheckingProcessor<E extends BaseEvent> implements EventHandler
                 eventCacheService.cacheRecievedEventHash(eventHash);
                 return;
             }
-            if (commonDigestTx && eventCacheService.kownTheEvent(((CommonDigestEvent) event).getEventBody().getDigestHex())) {
+            if (commonDigestTx && eventCacheService.kownTheEvent(((CommonDigestEvent) event).getEventBody())) {
                 processDataDisruptorEvent.setStoped(true);
-            } else if (eventCacheService.kownTheEvent(eventHash)) {
+            } else if (!eventCacheService.cacheRecievedEventHash(eventHash)) {
                 processDataDisruptorEvent.setStoped(true);
-            } else {
-                eventCacheService.cacheRecievedEventHash(eventHash);
             }
         } catch (Exception e) {
             Log.error(e);
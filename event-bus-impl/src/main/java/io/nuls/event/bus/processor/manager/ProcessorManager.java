@@ -23,18 +23,22 @@
  */
 package io.nuls.event.bus.processor.manager;
 
-import com.lmax.disruptor.WorkHandler;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.dsl.ProducerType;
 import io.nuls.core.constant.ErrorCode;
 import io.nuls.core.constant.NulsConstant;
 import io.nuls.core.exception.NulsRuntimeException;
 import io.nuls.core.thread.manager.NulsThreadFactory;
 import io.nuls.core.thread.manager.TaskManager;
+import io.nuls.core.utils.log.Log;
 import io.nuls.core.utils.param.AssertUtil;
 import io.nuls.core.utils.str.StringUtils;
 import io.nuls.event.bus.constant.EventBusConstant;
+import io.nuls.event.bus.handler.intf.NulsEventBatchHandler;
 import io.nuls.event.bus.handler.intf.NulsEventHandler;
 import io.nuls.event.bus.processor.EventCheckingProcessor;
 import io.nuls.event.bus.processor.thread.EventDispatchThread;
+import io.nuls.event.bus.processor.thread.NulsEventBatchCall;
 import io.nuls.event.bus.processor.thread.NulsEventCall;
 import io.nuls.event.bus.utils.disruptor.DisruptorEvent;
 import io.nuls.event.bus.utils.disruptor.DisruptorUtil;
@@ -42,57 +46,131 @@ import io.nuls.protocol.event.base.BaseEvent;
 import io.nuls.protocol.event.manager.EventManager;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Niels
  * @date 2017/11/6
  */
 public class ProcessorManager<E extends io.nuls.protocol.event.base.BaseEvent, H extends NulsEventHandler<? extends BaseEvent>> {
+    private static final long LANE_KEEP_ALIVE_SECONDS = 60L;
+    private static final NulsEventHandler[] EMPTY_HANDLERS = new NulsEventHandler[0];
+
     private final Map<String, H> handlerMap = new HashMap<>();
     private final Map<Class, Set<String>> eventHandlerMapping = new HashMap<>();
+
+    /**
+     * Event class to all of its handlers, immutable and replaced as a whole when the handlers change, the dispatch
+     * threads read it without locking
+     * 事件类型到其全部处理器的映射，不可变，处理器变化时整体替换，分发线程无锁读取
+     */
+    private volatile Map<Class, NulsEventHandler[]> dispatchTable = Collections.emptyMap();
     private DisruptorUtil<DisruptorEvent<ProcessData<E>>> disruptorService = DisruptorUtil.getInstance();
-    private ExecutorService pool;
     private String disruptorName;
+    private boolean eventChecking;
+    private String waitStrategy;
+    private int laneRingBufferSize;
+
+    /**
+     * Every event type has its own lane: a ring buffer and a handler pool, so a burst of one type never queues
+     * in front of the others. The lanes are created when the type is offered for the first time.
+     * 每种事件有自己的通道：一个环形队列和一个处理线程池，某种事件的突发不会排在其它事件前面。通道在该类型第一次提交时创建。
+     */
+    private final Map<Class, EventLane> laneMap = new ConcurrentHashMap<>();
+
+    /**
+     * Set once by shutdown, no lane is created and no event is accepted afterwards
+     * 由shutdown设置，之后不再创建通道也不再接收事件
+     */
+    private volatile boolean shutdown;
 
     public ProcessorManager(String disruptorName, boolean eventChecking) {
+        this(disruptorName, eventChecking, EventBusConstant.DEFAULT_WAIT_STRATEGY, EventBusConstant.DEFAULT_LANE_RING_BUFFER_SIZE);
+    }
+
+    public ProcessorManager(String disruptorName, boolean eventChecking, String waitStrategy, int laneRingBufferSize) {
         this.disruptorName = disruptorName;
-        this.init(eventChecking);
+        this.eventChecking = eventChecking;
+        // every lane has its own consumer threads, a spinning strategy would keep a core busy per event type
+        // 每个通道有自己的消费线程，自旋等待策略会让每种事件占用一个cpu核心
+        if (DisruptorUtil.isSpinningWaitStrategy(waitStrategy)) {
+            Log.warn("the wait strategy " + waitStrategy + " spins on every event type, use " + EventBusConstant.LANE_SPIN_FALLBACK_WAIT_STRATEGY);
+            waitStrategy = EventBusConstant.LANE_SPIN_FALLBACK_WAIT_STRATEGY;
+        }
+        this.waitStrategy = waitStrategy;
+        if (laneRingBufferSize <= 0 || Integer.bitCount(laneRingBufferSize) != 1) {
+            Log.warn("the ring buffer size must be a power of 2 : " + laneRingBufferSize + ", use " + EventBusConstant.DEFAULT_LANE_RING_BUFFER_SIZE);
+            laneRingBufferSize = EventBusConstant.DEFAULT_LANE_RING_BUFFER_SIZE;
+        }
+        this.laneRingBufferSize = laneRingBufferSize;
     }
 
-    public final void init(boolean eventChecking) {
+    private EventLane getLane(Class eventClass) {
+        EventLane lane = laneMap.get(eventClass);
+        if (null != lane) {
+            return lane;
+        }
+        synchronized (laneMap) {
+            if (shutdown) {
+                return null;
+            }
+            lane = laneMap.get(eventClass);
+            if (null == lane) {
+                lane = createLane(eventClass);
+                laneMap.put(eventClass, lane);
+            }
+            return lane;
+        }
+    }
 
-        pool = TaskManager.createThreadPool(EventBusConstant.THREAD_COUNT, 0,
-                new NulsThreadFactory(NulsConstant.MODULE_ID_EVENT_BUS, EventBusConstant.THREAD_POOL_NAME));
-        disruptorService.createDisruptor(disruptorName, EventBusConstant.DEFAULT_RING_BUFFER_SIZE);
+    private EventLane createLane(Class eventClass) {
+        String name = disruptorName + "-" + eventClass.getName();
+        ThreadPoolExecutor pool = TaskManager.createThreadPool(EventBusConstant.THREAD_COUNT, 0,
+                new NulsThreadFactory(NulsConstant.MODULE_ID_EVENT_BUS, EventBusConstant.THREAD_POOL_NAME + "-" + eventClass.getSimpleName()));
+        // the lanes of the rare event types should not keep their threads
+        // 不常见事件的通道不需要一直保留线程
+        pool.setKeepAliveTime(LANE_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        pool.allowCoreThreadTimeOut(true);
 
-        List<EventDispatchThread> handlerList = new ArrayList<>();
-        for (int i = 0; i < EventBusConstant.THREAD_COUNT; i++) {
-            EventDispatchThread handler = new EventDispatchThread(this);
-            handlerList.add(handler);
-        }
-        WorkHandler[] arrayHandler = handlerList.toArray(new EventDispatchThread[handlerList.size()]);
+        disruptorService.createDisruptor(name, laneRingBufferSize, ProducerType.MULTI, DisruptorUtil.createWaitStrategy(waitStrategy));
+        EventHandler dispatchThread = new EventDispatchThread(this, pool);
         if (eventChecking) {
-            disruptorService.handleEventWith(disruptorName, new EventCheckingProcessor()).thenHandleEventsWithWorkerPool(arrayHandler);
+            disruptorService.handleEventWith(name, new EventCheckingProcessor()).then(dispatchThread);
         } else {
-            disruptorService.handleEventsWithWorkerPool(disruptorName, arrayHandler);
+            disruptorService.handleEventWith(name, dispatchThread);
         }
-
-
-        disruptorService.start(disruptorName);
+        disruptorService.start(name);
+        return new EventLane(name, pool);
     }
 
-
+    /**
+     * Stop accepting events, let every lane handle the events in its ring buffer, then stop the handler pools
+     * 停止接收事件，每个通道处理完环形队列中的事件后关闭处理线程池
+     */
     public void shutdown() {
-        disruptorService.shutdown(disruptorName);
+        synchronized (laneMap) {
+            shutdown = true;
+        }
+        for (EventLane lane : laneMap.values()) {
+            disruptorService.shutdown(lane.name);
+            lane.pool.shutdown();
+        }
     }
 
     public void offer(ProcessData<E> data) {
+        EventLane lane = shutdown ? null : getLane(data.getData().getClass());
+        if (null == lane) {
+            Log.warn("the event bus " + disruptorName + " is shut down, drop the event : " + data.getData().getClass().getName());
+            return;
+        }
         EventManager.care(data.getData().getClass());
-        disruptorService.offer(disruptorName, data);
+        disruptorService.offer(lane.name, data);
     }
 
-    public String registerEventHandler(String handlerId, Class<E> eventClass, H handler) {
+    public synchronized String registerEventHandler(String handlerId, Class<E> eventClass, H handler) {
         EventManager.putEvent(eventClass);
         AssertUtil.canNotEmpty(eventClass, "registerEventHandler faild");
         AssertUtil.canNotEmpty(handler, "registerEventHandler faild");
@@ -101,6 +179,7 @@ public class ProcessorManager<E extends io.nuls.protocol.event.base.BaseEvent, H
         }
         handlerMap.put(handlerId, handler);
         cacheHandlerMapping(eventClass, handlerId);
+        compileDispatchTable(eventClass);
         return handlerId;
     }
 
@@ -119,13 +198,54 @@ public class ProcessorManager<E extends io.nuls.protocol.event.base.BaseEvent, H
 //        cacheHandlerMapping((Class<E>) eventClass.getSuperclass(), handlerId);
     }
 
-    public void removeEventHandler(String handlerId) {
-        handlerMap.remove(handlerId);
+    public synchronized void removeEventHandler(String handlerId) {
+        if (null != handlerMap.remove(handlerId)) {
+            compileDispatchTable(null);
+        }
+    }
+
+    /**
+     * Compile the handlers of every known event class, including the handlers of its super classes, into a new
+     * table and publish it in one write. The registries are only read here and in the register methods, under the
+     * lock of this manager.
+     * 把每个已知事件类型的处理器（包括父类型的处理器）编译成新的分发表并一次性发布。注册信息只在持有本对象锁时读写。
+     *
+     * @param newClass the event class which is not in the table yet, or null
+     */
+    private void compileDispatchTable(Class newClass) {
+        Set<Class> classSet = new HashSet<>(dispatchTable.keySet());
+        classSet.addAll(eventHandlerMapping.keySet());
+        if (null != newClass) {
+            classSet.add(newClass);
+        }
+        Map<Class, NulsEventHandler[]> table = new HashMap<>();
+        for (Class clazz : classSet) {
+            Set<NulsEventHandler> handlerSet = getHandlerList(clazz);
+            table.put(clazz, handlerSet.toArray(EMPTY_HANDLERS));
+        }
+        dispatchTable = Collections.unmodifiableMap(table);
+    }
+
+    private NulsEventHandler[] getHandlers(Class clazz) {
+        NulsEventHandler[] handlers = dispatchTable.get(clazz);
+        if (null != handlers) {
+            return handlers;
+        }
+        // an event class without its own handler, compiled once on its first dispatch
+        // 没有直接注册处理器的事件类型，在第一次分发时编译一次
+        synchronized (this) {
+            handlers = dispatchTable.get(clazz);
+            if (null == handlers) {
+                compileDispatchTable(clazz);
+                handlers = dispatchTable.get(clazz);
+            }
+        }
+        return handlers;
     }
 
     private Set<NulsEventHandler> getHandlerList(Class<E> clazz) {
         Set<String> ids = eventHandlerMapping.get(clazz);
-        Set<NulsEventHandler> set = new HashSet<>();
+        Set<NulsEventHandler> set = new LinkedHashSet<>();
         do {
             if (null == ids || ids.isEmpty()) {
                 break;
@@ -148,13 +268,49 @@ public class ProcessorManager<E extends io.nuls.protocol.event.base.BaseEvent, H
     }
 
 
-    public void executeHandlers(ProcessData<E> data) throws InterruptedException {
+    /**
+     * Execute the handlers of the event, except the batch handlers
+     * 执行事件的处理器，批量处理器除外
+     *
+     * @return true if the event has batch handlers, it is then passed to {@link #executeBatchHandlers} later
+     */
+    public boolean executeHandlers(ProcessData<E> data, ExecutorService pool) throws InterruptedException {
         if (null == data) {
             throw new NulsRuntimeException(ErrorCode.FAILED, "execute event handler faild,the event is null!");
         }
-        Set<NulsEventHandler> handlerSet = this.getHandlerList((Class<E>) data.getData().getClass());
-        for (NulsEventHandler handler : handlerSet) {
+        boolean batched = false;
+        for (NulsEventHandler handler : this.getHandlers(data.getData().getClass())) {
+            if (handler instanceof NulsEventBatchHandler) {
+                batched = true;
+                continue;
+            }
             pool.execute(new NulsEventCall(data, handler));
         }
+        return batched;
+    }
+
+    /**
+     * Execute the batch handlers, the events of one batch are of the same type
+     * 执行批量处理器，同一批的事件类型相同
+     */
+    public void executeBatchHandlers(List<ProcessData<E>> dataList, ExecutorService pool) throws InterruptedException {
+        if (null == dataList || dataList.isEmpty()) {
+            return;
+        }
+        for (NulsEventHandler handler : this.getHandlers(dataList.get(0).getData().getClass())) {
+            if (handler instanceof NulsEventBatchHandler) {
+                pool.execute(new NulsEventBatchCall(dataList, (NulsEventBatchHandler) handler));
+            }
+        }
+    }
+
+    private static final class EventLane {
+        private final String name;
+        private final ExecutorService pool;
+
+        private EventLane(String name, ExecutorService pool) {
+            this.name = name;
+            this.pool = pool;
+        }
     }
 }
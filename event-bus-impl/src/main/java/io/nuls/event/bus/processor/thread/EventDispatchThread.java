@@ -23,36 +23,71 @@
  */
 package io.nuls.event.bus.processor.thread;
 
-import com.lmax.disruptor.WorkHandler;
+import com.lmax.disruptor.EventHandler;
 import io.nuls.core.thread.BaseThread;
 import io.nuls.core.utils.log.Log;
+import io.nuls.event.bus.constant.EventBusConstant;
 import io.nuls.event.bus.processor.manager.ProcessData;
 import io.nuls.event.bus.processor.manager.ProcessorManager;
 import io.nuls.event.bus.utils.disruptor.DisruptorEvent;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
 /**
+ * Dispatcher of one event type. The events for the batch handlers are collected until the end of the batch which
+ * the ring buffer delivered, the other handlers get every event at once.
+ * 一种事件的分发线程。批量处理器的事件收集到环形队列本次交付的批次结束为止，其它处理器逐个接收事件。
+ *
  * @author Niels
  * @date 2017/11/6
  */
-public class EventDispatchThread extends BaseThread implements WorkHandler<DisruptorEvent<ProcessData>> {
+public class EventDispatchThread extends BaseThread implements EventHandler<DisruptorEvent<ProcessData>> {
 
     private final ProcessorManager processorManager;
+    private final ExecutorService pool;
+
+    /**
+     * Only used by the thread of the ring buffer
+     * 只由环形队列的线程访问
+     */
+    private List<ProcessData> batch = new ArrayList<>();
 
-    public EventDispatchThread(ProcessorManager processorManager) {
+    public EventDispatchThread(ProcessorManager processorManager, ExecutorService pool) {
         this.processorManager = processorManager;
+        this.pool = pool;
     }
 
     @Override
-    public void onEvent(DisruptorEvent<ProcessData> event) throws Exception {
+    public void onEvent(DisruptorEvent<ProcessData> event, long sequence, boolean endOfBatch) throws Exception {
+        if (dispatch(event)) {
+            batch.add(event.getData());
+        }
+        if (batch.isEmpty() || (!endOfBatch && batch.size() < EventBusConstant.MAX_EVENT_BATCH_SIZE)) {
+            return;
+        }
+        try {
+            processorManager.executeBatchHandlers(batch, pool);
+        } catch (Exception e) {
+            Log.error(e);
+        }
+        batch = new ArrayList<>();
+    }
 
+    /**
+     * @return true if the event should be delivered to the batch handlers too
+     */
+    private boolean dispatch(DisruptorEvent<ProcessData> event) {
         if (null == event || event.getData() == null || event.isStoped()) {
             Log.debug("did sth ....");
-            return;
+            return false;
         }
         try {
-            processorManager.executeHandlers(event.getData());
+            return processorManager.executeHandlers(event.getData(), pool);
         } catch (Exception e) {
             Log.error(e);
         }
+        return false;
     }
 }
@@ -0,0 +1,75 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.event.bus.processor.thread;
+
+import io.nuls.core.utils.log.Log;
+import io.nuls.event.bus.handler.intf.NulsEventBatchHandler;
+import io.nuls.event.bus.processor.manager.ProcessData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class NulsEventBatchCall<T extends io.nuls.protocol.event.base.BaseEvent> implements Runnable {
+    private final List<ProcessData<T>> dataList;
+    private final NulsEventBatchHandler<T> handler;
+
+    public NulsEventBatchCall(List<ProcessData<T>> dataList, NulsEventBatchHandler<T> handler) {
+        this.dataList = dataList;
+        this.handler = handler;
+    }
+
+    @Override
+    public void run() {
+        if (null == dataList || null == handler) {
+            return;
+        }
+        List<T> events = new ArrayList<>(dataList.size());
+        List<String> fromIds = new ArrayList<>(dataList.size());
+        for (ProcessData<T> data : dataList) {
+            try {
+                //filter&handler is the same level
+                if (handler.getFilterChain().startDoFilter(data.getData())) {
+                    events.add(data.getData());
+                    fromIds.add(data.getNodeId());
+                }
+            } catch (Exception e) {
+                Log.error(e);
+            }
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            handler.onEvents(events, fromIds);
+            Log.debug(handler.getClass() + ",events:" + events.size() + ",use:" + (System.currentTimeMillis() - start));
+        } catch (Exception e) {
+            Log.error(e);
+        }
+    }
+}
@@ -24,19 +24,30 @@
 package io.nuls.event.bus.service.impl;
 
 import io.nuls.cache.service.intf.CacheService;
+import io.nuls.core.cfg.NulsConfig;
+import io.nuls.event.bus.constant.EventBusConstant;
+import io.nuls.event.bus.utils.DigestFilter;
 import io.nuls.protocol.context.NulsContext;
 import io.nuls.protocol.event.base.BaseEvent;
+import io.nuls.protocol.model.NulsDigestData;
+import io.nuls.protocol.model.NulsDigestKey;
 
 /**
+ * 已发送的事件保存在缓存中以便应答事件体请求，收到的事件摘要记录在固定内存的摘要过滤器中用于去重。
+ * 发送的事件只在缓存中时才算已知，广播失败后移除缓存即可让该事件重新变为未知
+ * The sent events are cached to answer the body requests, the digests of the received events are kept in a fixed
+ * size digest filter for the deduplication.
+ * A sent event is known only while it is cached, so removing it after a failed broadcast makes it unknown again
+ *
  * @author Niels
  * @date 2017/12/10
  */
 public class EventCacheService {
     private static EventCacheService INSTANCE = new EventCacheService();
     private static final String CACHE_OF_SENDED = "event-cache-sended";
-    private static final String CACHE_OF_RECIEVED = "event-cache-recieved";
     private static final int TIME_OF_IDLE_SECONDS = 120;
     private CacheService cacheService;
+    private DigestFilter digestFilter;
 
     private EventCacheService() {
         init();
@@ -44,8 +55,10 @@ public class EventCacheService {
 
     private void init() {
         this.cacheService = NulsContext.getServiceBean(CacheService.class);
-        this.cacheService.createCache(CACHE_OF_SENDED, 32, 0, TIME_OF_IDLE_SECONDS);
-        this.cacheService.createCache(CACHE_OF_RECIEVED, 8, 0, TIME_OF_IDLE_SECONDS);
+        this.cacheService.createCache(CACHE_OF_SENDED, NulsDigestKey.class, 32, 0, TIME_OF_IDLE_SECONDS, null);
+        int capacity = NulsConfig.MODULES_CONFIG.getCfgValue(EventBusConstant.CFG_EVENT_BUS_SECTION, EventBusConstant.PROPERTY_DEDUP_CAPACITY, EventBusConstant.DEFAULT_DEDUP_CAPACITY);
+        int rotateSeconds = NulsConfig.MODULES_CONFIG.getCfgValue(EventBusConstant.CFG_EVENT_BUS_SECTION, EventBusConstant.PROPERTY_DEDUP_ROTATE_SECONDS, EventBusConstant.DEFAULT_DEDUP_ROTATE_SECONDS);
+        this.digestFilter = new DigestFilter(capacity, EventBusConstant.DEDUP_GENERATION_COUNT, rotateSeconds * 1000L);
     }
 
     public static EventCacheService getInstance() {
@@ -53,29 +66,33 @@ public class EventCacheService {
     }
 
     public void cacheSendedEvent(BaseEvent event) {
-        this.cacheService.putElement(CACHE_OF_SENDED, event.getHash().getDigestHex(), event);
+        this.cacheService.putElement(CACHE_OF_SENDED, event.getHash().getDigestKey(), event);
     }
 
     public void removeSendedEvent(BaseEvent event) {
-        this.cacheService.removeElement(CACHE_OF_SENDED, event.getHash().getDigestHex());
+        this.cacheService.removeElement(CACHE_OF_SENDED, event.getHash().getDigestKey());
     }
 
-    public void cacheRecievedEventHash(String hashHex) {
-        this.cacheService.putElement(CACHE_OF_RECIEVED, hashHex, 1);
+    /**
+     * @return false if the event was received or sent already
+     */
+    public boolean cacheRecievedEventHash(NulsDigestData hash) {
+        if (this.cacheService.containsKey(CACHE_OF_SENDED, hash.getDigestKey())) {
+            return false;
+        }
+        return this.digestFilter.add(hash);
     }
 
-    public boolean kownTheEvent(String hashHex) {
-        boolean b = this.cacheService.containsKey(CACHE_OF_RECIEVED, hashHex) ||
-                this.cacheService.containsKey(CACHE_OF_SENDED, hashHex);
-        return b;
+    public boolean kownTheEvent(NulsDigestData hash) {
+        return this.digestFilter.contains(hash) || this.cacheService.containsKey(CACHE_OF_SENDED, hash.getDigestKey());
     }
 
-    public BaseEvent getSendEvent(String hashHex) {
-        return (BaseEvent) this.cacheService.getElement(CACHE_OF_SENDED, hashHex);
+    public BaseEvent getSendEvent(NulsDigestData hash) {
+        return (BaseEvent) this.cacheService.getElement(CACHE_OF_SENDED, hash.getDigestKey());
     }
 
     public void destroy() {
         this.cacheService.removeCache(CACHE_OF_SENDED);
-        this.cacheService.removeCache(CACHE_OF_RECIEVED);
+        this.digestFilter.clear();
     }
 }
@@ -24,6 +24,7 @@
 package io.nuls.event.bus.service.impl;
 
 import io.nuls.protocol.event.base.BaseEvent;
+import io.nuls.core.cfg.NulsConfig;
 import io.nuls.core.utils.log.Log;
 import io.nuls.event.bus.constant.EventBusConstant;
 import io.nuls.event.bus.handler.AbstractEventHandler;
@@ -40,7 +41,9 @@ public class LocalEventService {
     private final ProcessorManager processorManager;
 
     private LocalEventService() {
-        this.processorManager = new ProcessorManager(EventBusConstant.DISRUPTOR_NAME_LOCAL,false);
+        this.processorManager = new ProcessorManager(EventBusConstant.DISRUPTOR_NAME_LOCAL, false,
+                NulsConfig.MODULES_CONFIG.getCfgValue(EventBusConstant.CFG_EVENT_BUS_SECTION, EventBusConstant.PROPERTY_LOCAL_WAIT_STRATEGY, EventBusConstant.DEFAULT_WAIT_STRATEGY),
+                NulsConfig.MODULES_CONFIG.getCfgValue(EventBusConstant.CFG_EVENT_BUS_SECTION, EventBusConstant.PROPERTY_LANE_RING_BUFFER_SIZE, EventBusConstant.DEFAULT_LANE_RING_BUFFER_SIZE));
     }
 
     public static LocalEventService getInstance() {
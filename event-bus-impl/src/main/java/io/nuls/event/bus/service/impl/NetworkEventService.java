@@ -25,6 +25,7 @@ package io.nuls.event.bus.service.impl;
 
 import io.nuls.protocol.event.base.BaseEvent;
 import io.nuls.core.exception.NulsException;
+import io.nuls.core.cfg.NulsConfig;
 import io.nuls.core.utils.log.Log;
 import io.nuls.event.bus.constant.EventBusConstant;
 import io.nuls.event.bus.handler.AbstractEventHandler;
@@ -42,7 +43,9 @@ public class NetworkEventService {
     private final ProcessorManager processorManager;
 
     private NetworkEventService() {
-        this.processorManager = new ProcessorManager(EventBusConstant.DISRUPTOR_NAME_NETWORK,true);
+        this.processorManager = new ProcessorManager(EventBusConstant.DISRUPTOR_NAME_NETWORK, true,
+                NulsConfig.MODULES_CONFIG.getCfgValue(EventBusConstant.CFG_EVENT_BUS_SECTION, EventBusConstant.PROPERTY_NETWORK_WAIT_STRATEGY, EventBusConstant.DEFAULT_WAIT_STRATEGY),
+                NulsConfig.MODULES_CONFIG.getCfgValue(EventBusConstant.CFG_EVENT_BUS_SECTION, EventBusConstant.PROPERTY_LANE_RING_BUFFER_SIZE, EventBusConstant.DEFAULT_LANE_RING_BUFFER_SIZE));
     }
 
     public static NetworkEventService getInstance() {
@@ -0,0 +1,253 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2017-2018 nuls.io
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.event.bus.utils;
+
+import io.nuls.protocol.model.NulsDigestData;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Set of recently seen digests with a fixed memory bound, used to drop the events which were already received or
+ * sent. A digest is stored as a 64 bit fingerprint in an open addressing table. Adding and lookup use no lock and
+ * allocate nothing.
+ * The digests are kept in rotating generations instead of expiring one by one: when the newest generation is half
+ * full or older than the rotation interval, a new empty one is put in front and the oldest one is dropped.
+ * A digest is therefore remembered for at least (generationCount - 1) rotation intervals, unless the traffic fills
+ * the generations sooner.
+ * <p>
+ * 固定内存上限的最近摘要集合，用来丢弃已经收到或发送过的事件。摘要以64位指纹保存在开放寻址表中，添加和查询都不加锁也不分配对象。
+ * 摘要按代轮换而不是逐条过期：最新一代达到半满或超过轮换间隔时，在最前面放入新的空表并丢弃最旧的一代。
+ * 因此一个摘要至少会被记住(代数 - 1)个轮换间隔，除非流量更早地填满了各代。
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class DigestFilter {
+
+    private static final long EMPTY = 0L;
+
+    /**
+     * Longest probe sequence, a full neighbourhood triggers a rotation
+     * 最长探测距离，超过时触发轮换
+     */
+    static final int MAX_PROBE = 32;
+
+    /**
+     * Results of adding a fingerprint to one generation
+     * 向某一代添加指纹的结果
+     */
+    private static final int ADDED = 0;
+    private static final int PRESENT = 1;
+    private static final int FULL = 2;
+
+    private final int capacity;
+    private final int mask;
+    private final int maxCount;
+    private final int generationCount;
+    private final long rotateMillis;
+
+    /**
+     * The newest generation first, replaced as a whole on rotation
+     * 最新的一代在最前面，轮换时整体替换
+     */
+    private volatile Generation[] generations;
+
+    /**
+     * @param capacity        slots of each generation, rounded up to a power of 2
+     * @param generationCount generations kept, at least 2
+     * @param rotateMillis    the newest generation is rotated out after this time
+     */
+    public DigestFilter(int capacity, int generationCount, long rotateMillis) {
+        int size = Integer.highestOneBit(Math.max(capacity, MAX_PROBE * 2) - 1) << 1;
+        this.capacity = size;
+        this.mask = size - 1;
+        this.maxCount = size / 2;
+        this.generationCount = Math.max(generationCount, 2);
+        this.rotateMillis = rotateMillis;
+        Generation[] array = new Generation[this.generationCount];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = new Generation(size, System.currentTimeMillis());
+        }
+        this.generations = array;
+    }
+
+    /**
+     * Remember the digest. Of several threads adding the same digest at once at least one gets true, and exactly one
+     * unless a rotation happens meanwhile: inside a generation the slot is claimed by compare and set, and a thread
+     * which wrote a newer generation loses to one which wrote an older generation before it was checked. A thread
+     * which writes the older generation after the check also gets true, so around a rotation the event may be
+     * delivered twice, never dropped.
+     * 记住该摘要。多个线程同时添加同一个摘要时至少有一个返回true，没有发生轮换时只有一个：同一代中由CAS抢占槽位，
+     * 写入较新一代的线程会让给在它检查之前写入较旧一代的线程。在检查之后才写入较旧一代的线程也会返回true，
+     * 因此轮换前后事件可能被处理两次，但不会被丢弃。
+     *
+     * @return false if it was known already
+     */
+    public boolean add(NulsDigestData digest) {
+        long fingerprint = fingerprint(digest);
+        if (contains(fingerprint)) {
+            return false;
+        }
+        Generation target = currentGeneration();
+        int result = target.add(fingerprint, mask);
+        if (result == FULL) {
+            rotate(target);
+            target = currentGeneration();
+            result = target.add(fingerprint, mask);
+        }
+        if (result == PRESENT) {
+            return false;
+        }
+        boolean older = false;
+        for (Generation generation : generations) {
+            if (older && generation.contains(fingerprint, mask)) {
+                return false;
+            }
+            older = older || generation == target;
+        }
+        return true;
+    }
+
+    public boolean contains(NulsDigestData digest) {
+        return contains(fingerprint(digest));
+    }
+
+    public void clear() {
+        synchronized (this) {
+            Generation[] array = new Generation[generationCount];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = new Generation(capacity, System.currentTimeMillis());
+            }
+            generations = array;
+        }
+    }
+
+    private boolean contains(long fingerprint) {
+        for (Generation generation : generations) {
+            if (generation.contains(fingerprint, mask)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Generation currentGeneration() {
+        Generation current = generations[0];
+        if (current.count.get() >= maxCount || System.currentTimeMillis() - current.createTime >= rotateMillis) {
+            rotate(current);
+            current = generations[0];
+        }
+        return current;
+    }
+
+    /**
+     * Put a new generation in front unless another thread rotated the expected one out already.
+     * A digest added to the oldest generation while it is dropped is lost, the event is then handled once more.
+     * 在最前面放入新的一代，如果其它线程已经完成了轮换则不再处理。
+     * 在最旧一代被丢弃时加入其中的摘要会丢失，对应的事件会被多处理一次。
+     */
+    private void rotate(Generation expected) {
+        synchronized (this) {
+            Generation[] array = generations;
+            if (array[0] != expected) {
+                return;
+            }
+            Generation[] newArray = new Generation[generationCount];
+            newArray[0] = new Generation(capacity, System.currentTimeMillis());
+            System.arraycopy(array, 0, newArray, 1, generationCount - 1);
+            generations = newArray;
+        }
+    }
+
+    /**
+     * The first 8 bytes of the digest, which is a hash already; 0 marks an empty slot so it is never used
+     * 摘要的前8个字节，摘要本身已经是散列值；0表示空槽，所以不会被使用
+     */
+    private static long fingerprint(NulsDigestData digest) {
+        byte[] bytes = digest.getDigestBytes();
+        long value = 0L;
+        for (int i = 0; i < bytes.length; i++) {
+            if (i < 8) {
+                value = (value << 8) | (bytes[i] & 0xff);
+            } else {
+                value ^= (bytes[i] & 0xffL) << ((i % 8) * 8);
+            }
+        }
+        return value == EMPTY ? 1L : value;
+    }
+
+    private static final class Generation {
+        private final AtomicLongArray table;
+        private final AtomicInteger count = new AtomicInteger();
+        private final long createTime;
+
+        private Generation(int capacity, long createTime) {
+            this.table = new AtomicLongArray(capacity);
+            this.createTime = createTime;
+        }
+
+        /**
+         * @return ADDED if this call stored the fingerprint, PRESENT if it was stored already, FULL if no slot is free
+         */
+        private int add(long fingerprint, int mask) {
+            int index = spread(fingerprint) & mask;
+            for (int i = 0; i < MAX_PROBE; i++) {
+                int slot = (index + i) & mask;
+                long value = table.get(slot);
+                if (value == fingerprint) {
+                    return PRESENT;
+                }
+                if (value == EMPTY) {
+                    if (table.compareAndSet(slot, EMPTY, fingerprint)) {
+                        count.incrementAndGet();
+                        return ADDED;
+                    }
+                    if (table.get(slot) == fingerprint) {
+                        return PRESENT;
+                    }
+                }
+            }
+            return FULL;
+        }
+
+        private boolean contains(long fingerprint, int mask) {
+            int index = spread(fingerprint) & mask;
+            for (int i = 0; i < MAX_PROBE; i++) {
+                long value = table.get((index + i) & mask);
+                if (value == fingerprint) {
+                    return true;
+                }
+                if (value == EMPTY) {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        private static int spread(long fingerprint) {
+            return (int) (fingerprint ^ (fingerprint >>> 32));
+        }
+    }
+}
@@ -36,8 +36,9 @@ import io.nuls.core.utils.param.AssertUtil;
 import io.nuls.event.bus.module.impl.EventBusModuleBootstrap;
 import io.nuls.event.bus.processor.manager.ProcessData;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Niels
@@ -45,7 +46,7 @@ import java.util.Map;
  */
 public class DisruptorUtil<T extends DisruptorEvent> {
     private static final DisruptorUtil INSTANCE = new DisruptorUtil();
-    private static final Map<String, Disruptor<DisruptorEvent>> DISRUPTOR_MAP = new HashMap<>();
+    private static final Map<String, Disruptor<DisruptorEvent>> DISRUPTOR_MAP = new ConcurrentHashMap<>();
 
     public static DisruptorUtil getInstance() {
         return INSTANCE;
@@ -68,21 +69,67 @@ public class DisruptorUtil<T extends DisruptorEvent> {
      * @param ringBufferSize The size of ringBuffer
      */
     public void createDisruptor(String name, int ringBufferSize) {
-        if (DISRUPTOR_MAP.keySet().contains(name)) {
+        createDisruptor(name, ringBufferSize, ProducerType.MULTI, new BlockingWaitStrategy());
+    }
+
+    /**
+     * create a disruptor
+     * 创建一个disruptor，被多个线程同时发布时必须使用ProducerType.MULTI
+     *
+     * @param name           The title of the disruptor
+     * @param ringBufferSize The size of ringBuffer, must be a power of 2
+     * @param producerType   ProducerType.MULTI when several threads publish to it
+     * @param waitStrategy   How the consumers wait for new events
+     */
+    public void createDisruptor(String name, int ringBufferSize, ProducerType producerType, WaitStrategy waitStrategy) {
+        Disruptor<DisruptorEvent> disruptor = new Disruptor<DisruptorEvent>(EVENT_FACTORY,
+                ringBufferSize, new NulsThreadFactory(ModuleService.getInstance().getModuleId(EventBusModuleBootstrap.class), name), producerType,
+                waitStrategy);
+        if (null != DISRUPTOR_MAP.putIfAbsent(name, disruptor)) {
             throw new NulsRuntimeException(ErrorCode.FAILED, "create disruptor faild,the name is repetitive!");
         }
+    }
 
-        Disruptor<DisruptorEvent> disruptor = new Disruptor<DisruptorEvent>(EVENT_FACTORY,
-                ringBufferSize, new NulsThreadFactory(ModuleService.getInstance().getModuleId(EventBusModuleBootstrap.class), name), ProducerType.SINGLE,
-                new BlockingWaitStrategy());
-        //SleepingWaitStrategy
-//        disruptor.handleEventsWith(new EventHandler<DisruptorEvent>() {
-//            @Override
-//            public void onEvent(DisruptorEvent disruptorEvent, long l, boolean b) throws Exception {
-//                Log.debug(disruptorEvent.getData() + "");
-//            }
-//        });
-        DISRUPTOR_MAP.put(name, disruptor);
+    /**
+     * Create the wait strategy by its name in the configuration, the unknown names fall back to blocking.
+     * busy-spin and yielding keep a core busy for every consumer thread, they are for latency sensitive
+     * nodes with spare cores.
+     * 根据配置中的名称创建等待策略，无法识别的名称使用blocking。
+     * busy-spin和yielding会让每个消费线程占用一个cpu核心，只适合有空闲核心且对延迟敏感的节点。
+     *
+     * @param name blocking, sleeping, yielding, busy-spin or phased-backoff
+     */
+    public static WaitStrategy createWaitStrategy(String name) {
+        if (null == name) {
+            return new BlockingWaitStrategy();
+        }
+        switch (name.trim().toLowerCase()) {
+            case "blocking":
+                return new BlockingWaitStrategy();
+            case "sleeping":
+                return new SleepingWaitStrategy();
+            case "yielding":
+                return new YieldingWaitStrategy();
+            case "busy-spin":
+                return new BusySpinWaitStrategy();
+            case "phased-backoff":
+                return PhasedBackoffWaitStrategy.withLock(1, 1, TimeUnit.MILLISECONDS);
+            default:
+                Log.warn("unknown disruptor wait strategy : " + name + ", use blocking");
+                return new BlockingWaitStrategy();
+        }
+    }
+
+    /**
+     * busy-spin and yielding never park the consumer thread
+     * busy-spin和yielding从不让消费线程休眠
+     */
+    public static boolean isSpinningWaitStrategy(String name) {
+        if (null == name) {
+            return false;
+        }
+        String value = name.trim().toLowerCase();
+        return "busy-spin".equals(value) || "yielding".equals(value);
     }
 
     /**
@@ -0,0 +1,192 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2017-2018 nuls.io
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.event.bus.utils;
+
+import io.nuls.protocol.model.NulsDigestData;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by agent on 2026/10/18.
+ */
+public class DigestFilterTest {
+
+    @Test
+    public void testAddAndContains() {
+        DigestFilter filter = new DigestFilter(1024, 3, Long.MAX_VALUE);
+        assertFalse(filter.contains(digest(1)));
+        assertTrue(filter.add(digest(1)));
+        assertTrue(filter.contains(digest(1)));
+        assertFalse(filter.contains(digest(2)));
+
+        filter.clear();
+        assertFalse(filter.contains(digest(1)));
+    }
+
+    @Test
+    public void testDuplicate() {
+        DigestFilter filter = new DigestFilter(1024, 3, Long.MAX_VALUE);
+        assertTrue(filter.add(digest(1)));
+        assertFalse(filter.add(digest(1)));
+        assertTrue(filter.add(digest(2)));
+        assertFalse(filter.add(digest(2)));
+    }
+
+    @Test
+    public void testConcurrentDuplicate() throws InterruptedException {
+        final DigestFilter filter = new DigestFilter(1 << 16, 3, Long.MAX_VALUE);
+        final int count = 5000;
+        final int threads = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicInteger added = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 1; i <= count; i++) {
+                        if (filter.add(digest(i))) {
+                            added.incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(count, added.get());
+    }
+
+    @Test
+    public void testConcurrentDuplicateWhileRotating() throws InterruptedException {
+        // every add rotates, the same digest is added by all threads at once
+        final DigestFilter filter = new DigestFilter(1024, 64, 0L);
+        final int count = 2000;
+        final int threads = 4;
+        final CyclicBarrier barrier = new CyclicBarrier(threads);
+        final AtomicIntegerArray added = new AtomicIntegerArray(count + 1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 1; i <= count; i++) {
+                        try {
+                            barrier.await();
+                        } catch (Exception e) {
+                            return;
+                        }
+                        if (filter.add(digest(i))) {
+                            added.incrementAndGet(i);
+                        }
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+        for (int i = 1; i <= count; i++) {
+            assertTrue(added.get(i) >= 1);
+            assertTrue(added.get(i) <= threads);
+        }
+    }
+
+    @Test
+    public void testRotateByFill() {
+        // 64 slots, a generation is rotated out once it holds 32 digests
+        DigestFilter filter = new DigestFilter(64, 2, Long.MAX_VALUE);
+        for (int i = 1; i <= 100; i++) {
+            assertTrue(filter.add(digest(i)));
+        }
+        assertFalse(filter.contains(digest(1)));
+        assertFalse(filter.contains(digest(64)));
+        assertTrue(filter.contains(digest(65)));
+        assertTrue(filter.contains(digest(100)));
+        assertTrue(filter.add(digest(1)));
+    }
+
+    @Test
+    public void testRotateByTime() throws InterruptedException {
+        DigestFilter filter = new DigestFilter(1024, 2, 100L);
+        assertTrue(filter.add(digest(1)));
+
+        Thread.sleep(150L);
+        assertTrue(filter.add(digest(2)));
+        assertTrue(filter.contains(digest(1)));
+
+        Thread.sleep(150L);
+        assertTrue(filter.add(digest(3)));
+        assertFalse(filter.contains(digest(1)));
+        assertTrue(filter.contains(digest(2)));
+        assertTrue(filter.contains(digest(3)));
+    }
+
+    @Test
+    public void testProbeOverflow() {
+        // all fingerprints are multiples of the table size and start probing at slot 0
+        DigestFilter filter = new DigestFilter(1024, 2, Long.MAX_VALUE);
+        for (int i = 1; i <= DigestFilter.MAX_PROBE; i++) {
+            assertTrue(filter.add(digest(i << 10)));
+        }
+        int overflow = DigestFilter.MAX_PROBE + 1;
+        assertTrue(filter.add(digest(overflow << 10)));
+        for (int i = 1; i <= overflow; i++) {
+            assertTrue(filter.contains(digest(i << 10)));
+        }
+
+        // the new generation overflows as well and the first one is dropped
+        for (int i = overflow + 1; i <= overflow + DigestFilter.MAX_PROBE; i++) {
+            assertTrue(filter.add(digest(i << 10)));
+        }
+        assertFalse(filter.contains(digest(1 << 10)));
+        assertTrue(filter.contains(digest(overflow << 10)));
+        assertTrue(filter.contains(digest((overflow + DigestFilter.MAX_PROBE) << 10)));
+    }
+
+    private static NulsDigestData digest(long fingerprint) {
+        byte[] bytes = new byte[8];
+        for (int i = 7; i >= 0; i--) {
+            bytes[i] = (byte) fingerprint;
+            fingerprint >>>= 8;
+        }
+        return new NulsDigestData(NulsDigestData.DIGEST_ALG_SHA256, bytes);
+    }
+}
@@ -36,5 +36,41 @@ public interface EventBusConstant {
     String THREAD_POOL_NAME = "nuls-process-dispatcher";
     int DEFAULT_RING_BUFFER_SIZE = 1 << 20;
 
+    String CFG_EVENT_BUS_SECTION = "event-bus";
+    String PROPERTY_LOCAL_WAIT_STRATEGY = "local.wait.strategy";
+    String PROPERTY_NETWORK_WAIT_STRATEGY = "network.wait.strategy";
+    String PROPERTY_LANE_RING_BUFFER_SIZE = "lane.ring.buffer.size";
+
+    /**
+     * blocking, sleeping or phased-backoff.
+     * Every event type has its own consumer threads, so busy-spin and yielding are replaced by sleeping.
+     */
+    String DEFAULT_WAIT_STRATEGY = "blocking";
+    String LANE_SPIN_FALLBACK_WAIT_STRATEGY = "sleeping";
+
+    /**
+     * Size of the ring buffer of each event type, must be a power of 2
+     */
+    int DEFAULT_LANE_RING_BUFFER_SIZE = 1 << 14;
+
+    String PROPERTY_DEDUP_CAPACITY = "dedup.capacity";
+    String PROPERTY_DEDUP_ROTATE_SECONDS = "dedup.rotate.seconds";
+
+    /**
+     * Slots of each generation of the event digest filter, 8 bytes per slot
+     */
+    int DEFAULT_DEDUP_CAPACITY = 1 << 18;
+
+    /**
+     * A known digest is kept for 2 to 3 rotations
+     */
+    int DEDUP_GENERATION_COUNT = 3;
+    int DEFAULT_DEDUP_ROTATE_SECONDS = 60;
+
+    /**
+     * Most events delivered to a batch handler at once
+     */
+    int MAX_EVENT_BATCH_SIZE = 1024;
+
 
 }
@@ -0,0 +1,51 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.event.bus.handler.intf;
+
+import io.nuls.core.exception.NulsException;
+import io.nuls.protocol.event.base.BaseEvent;
+
+import java.util.List;
+
+/**
+ * Handler which receives the queued events of its type together, in the order of arrival, so the work shared by the
+ * events is done once per batch. A batch is what the dispatcher of the event type drained from the queue in one
+ * round, so a single event is delivered alone when the queue is idle.
+ * The filters are applied to every event before the batch is delivered.
+ * <p>
+ * 批量接收同类事件的处理器，事件按到达顺序一起交付，事件之间共用的工作每批只做一次。
+ * 一批事件就是该类型的分发线程一次从队列中取出的全部事件，队列空闲时单个事件也会单独交付。
+ * 交付前对每个事件执行过滤器。
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public interface NulsEventBatchHandler<T extends BaseEvent> extends NulsEventHandler<T> {
+
+    /**
+     * @param events  the events of one batch, in the order of arrival
+     * @param fromIds the node which sent each event, same index as the event
+     */
+    void onEvents(List<T> events, List<String> fromIds) throws NulsException;
+}
@@ -25,9 +25,7 @@ package io.nuls.ledger.entity;
 
 import io.nuls.protocol.model.Na;
 
-import java.util.List;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
@@ -38,18 +36,32 @@ public class UtxoBalance extends Balance {
 
     private List<UtxoOutput> unSpends;
 
-    private Set<String> utxoKeys;
+    /**
+     * 已确认的未花费输出的金额，按key索引，用于增量维护余额
+     * values of the confirmed unspent outputs by key, used to maintain the balance incrementally
+     */
+    private final Map<String, Long> utxoValueMap = new HashMap<>();
+
+    private final Set<String> consensusLockKeys = new HashSet<>();
+
+    /**
+     * 带时间锁定的输出的锁定时间，读取时判断是否已解锁
+     * lock times of the time locked outputs, whether they are unlocked is decided on read
+     */
+    private final Map<String, Long> lockTimeMap = new HashMap<>();
+
+    private long totalValue;
+
+    private long consensusLockedValue;
 
     public UtxoBalance() {
         super();
         this.unSpends = new CopyOnWriteArrayList<>();
-        this.utxoKeys = ConcurrentHashMap.newKeySet();
     }
 
     public UtxoBalance(Na usable, Na locked) {
         super(usable, locked);
         this.unSpends = new CopyOnWriteArrayList<>();
-        this.utxoKeys = ConcurrentHashMap.newKeySet();
     }
 
     public UtxoBalance(Na usable, Na locked, List<UtxoOutput> unSpends) {
@@ -69,33 +81,59 @@ public class UtxoBalance extends Balance {
         this.unSpends.add(unSpend);
     }
 
-    public boolean removeUtxo(String key) {
-        return utxoKeys.remove(key);
-
-//        if (utxoKeys.contains(key)) {
-//            for (int i = 0; i < unSpends.size(); i++) {
-//                UtxoOutput output = unSpends.get(i);
-//                if (key.equals(output.getKey())) {
-//                    unSpends.remove(output);
-//                    return output;
-//                }
-//            }
-//        }
+    /**
+     * 加入或替换一个未花费输出，同一个key再次加入时先扣除原来的金额
+     * Add or replace an unspent output, adding the same key again first deducts its previous value
+     */
+    public synchronized void addUtxo(UtxoOutput output) {
+        String key = output.getKey();
+        removeUtxo(key);
+        utxoValueMap.put(key, output.getValue());
+        totalValue += output.getValue();
+        if (output.getStatus() == OutPutStatusEnum.UTXO_CONSENSUS_LOCK) {
+            consensusLockKeys.add(key);
+            consensusLockedValue += output.getValue();
+        } else if (UtxoOutput.isTimeLocked(output.getLockTime())) {
+            lockTimeMap.put(key, output.getLockTime());
+        }
     }
 
-    public void addUtxo(String key) {
-        utxoKeys.add(key);
+    public synchronized boolean removeUtxo(String key) {
+        Long value = utxoValueMap.remove(key);
+        if (value == null) {
+            return false;
+        }
+        totalValue -= value;
+        if (consensusLockKeys.remove(key)) {
+            consensusLockedValue -= value;
+        }
+        lockTimeMap.remove(key);
+        return true;
     }
 
-    public boolean containsUtxo(String key) {
-        return utxoKeys.contains(key);
+    public synchronized boolean containsUtxo(String key) {
+        return utxoValueMap.containsKey(key);
     }
 
-    public Set<String> getUtxoKeys() {
-        return utxoKeys;
+    public synchronized long getTotalValue() {
+        return totalValue;
     }
 
-    public void setUtxoKeys(Set<String> utxoKeys) {
-        this.utxoKeys = utxoKeys;
+    /**
+     * 共识锁定的金额加上仍在时间锁定中的金额，已经解锁的时间锁定输出在这里被移除
+     * The consensus locked value plus the value still time locked, time locks that have expired are dropped here
+     */
+    public synchronized long getLockedValue() {
+        long locked = consensusLockedValue;
+        Iterator<Map.Entry<String, Long>> iterator = lockTimeMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            if (UtxoOutput.isTimeLocked(entry.getValue())) {
+                locked += utxoValueMap.get(entry.getKey());
+            } else {
+                iterator.remove();
+            }
+        }
+        return locked;
     }
 }
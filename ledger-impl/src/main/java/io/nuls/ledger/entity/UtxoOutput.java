@@ -206,11 +206,7 @@ public class UtxoOutput extends BaseNulsData {
         if (OutPutStatusEnum.UTXO_CONSENSUS_LOCK == status) {
             return true;
         }
-        long currentTime = TimeService.currentTimeMillis();
-        if (lockTime <= NulsConstant.BlOCKHEIGHT_TIME_DIVIDE && lockTime >= NulsContext.getInstance().getBestHeight()) {
-            status = OutPutStatusEnum.UTXO_TIME_LOCK;
-            return true;
-        } else if (lockTime > NulsConstant.BlOCKHEIGHT_TIME_DIVIDE && lockTime >= currentTime) {
+        if (isTimeLocked(lockTime)) {
             status = OutPutStatusEnum.UTXO_TIME_LOCK;
             return true;
         }
@@ -218,6 +214,17 @@ public class UtxoOutput extends BaseNulsData {
         return false;
     }
 
+    /**
+     * 锁定时间小于分界值时按高度锁定，否则按时间锁定
+     * A lock time below the divide locks by height, otherwise by time
+     */
+    public static boolean isTimeLocked(long lockTime) {
+        if (lockTime <= NulsConstant.BlOCKHEIGHT_TIME_DIVIDE) {
+            return lockTime >= NulsContext.getInstance().getBestHeight();
+        }
+        return lockTime >= TimeService.currentTimeMillis();
+    }
+
     public byte[] getOwner() {
         return this.getP2PKHScript().getPublicKeyDigest().getDigestBytes();
     }
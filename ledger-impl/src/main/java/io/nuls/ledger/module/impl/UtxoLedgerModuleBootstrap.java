@@ -33,6 +33,7 @@ import io.nuls.ledger.entity.tx.UnlockNulsTransaction;
 import io.nuls.ledger.entity.validator.CoinTransactionValidatorManager;
 import io.nuls.ledger.event.notice.BalanceChangeNotice;
 import io.nuls.ledger.module.AbstractLedgerModule;
+import io.nuls.ledger.service.impl.LedgerCacheService;
 import io.nuls.ledger.service.impl.UtxoCoinDataProvider;
 import io.nuls.ledger.service.impl.UtxoCoinManager;
 import io.nuls.ledger.service.impl.UtxoLedgerServiceImpl;
@@ -100,14 +101,15 @@ public class UtxoLedgerModuleBootstrap extends AbstractLedgerModule {
 
     @Override
     public void start() {
-        //cache the wallet's all accounts unSpend output
-        coinManager.cacheAllUnSpendUtxo();
+        //open the unSpend output store, rebuild it from the database after an unclean exit
+        coinManager.initUnSpendUtxo();
         TaskManager.createAndRunThread(this.getModuleId(), SmallChangeThread.class.getSimpleName(), SmallChangeThread.getInstance());
         TaskManager.createAndRunThread(this.getModuleId(), ReSendTxThread.class.getSimpleName(), ReSendTxThread.getInstance());
     }
 
     @Override
     public void shutdown() {
+        LedgerCacheService.getInstance().closeUtxoStore();
     }
 
     @Override
@@ -34,6 +34,7 @@ import io.nuls.protocol.context.NulsContext;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 
 /**
@@ -43,15 +44,16 @@ import java.util.List;
 public class LedgerCacheService {
     private static LedgerCacheService instance = new LedgerCacheService();
     private CacheService<String, Balance> cacheService;
-    private CacheService<String, UtxoOutput> utxoCacheService;
+    private UtxoStorageService utxoStorageService;
 
     private boolean initCache = true;
 
+    private final Object balanceLock = new Object();
+
     private LedgerCacheService() {
         cacheService = NulsContext.getServiceBean(CacheService.class);
         cacheService.createCache(LedgerConstant.LEDGER_BOOK, 1024);
-        utxoCacheService = NulsContext.getServiceBean(CacheService.class);
-        utxoCacheService.createCache(LedgerConstant.UTXO, 1024);
+        utxoStorageService = UtxoStorageService.getInstance();
     }
 
     public static LedgerCacheService getInstance() {
@@ -60,12 +62,12 @@ public class LedgerCacheService {
 
     public void clear() {
         this.cacheService.clearCache(LedgerConstant.LEDGER_BOOK);
-        this.utxoCacheService.clearCache(LedgerConstant.UTXO);
+        this.utxoStorageService.clear();
     }
 
     public void destroy() {
         this.cacheService.removeCache(LedgerConstant.LEDGER_BOOK);
-        this.utxoCacheService.removeCache(LedgerConstant.UTXO);
+        this.utxoStorageService.destroy();
     }
 
     public void putBalance(String address, Balance balance) {
@@ -79,35 +81,58 @@ public class LedgerCacheService {
         cacheService.removeElement(LedgerConstant.LEDGER_BOOK, address);
     }
 
+    /**
+     * 余额在第一次访问时从utxo存储加载，之后随utxo的变更增量维护；没有未花费输出的地址返回null
+     * The balance is loaded from the utxo store on first access and maintained incrementally with the utxo changes
+     * afterwards; returns null for an address without unspent outputs
+     */
     public Balance getBalance(String address) {
-        return cacheService.getElement(LedgerConstant.LEDGER_BOOK, address);
+        Balance balance = cacheService.getElement(LedgerConstant.LEDGER_BOOK, address);
+        if (balance != null || StringUtils.isBlank(address)) {
+            return balance;
+        }
+        synchronized (balanceLock) {
+            balance = cacheService.getElement(LedgerConstant.LEDGER_BOOK, address);
+            if (balance != null) {
+                return balance;
+            }
+            List<UtxoOutput> unSpends = getUnSpends(address);
+            if (unSpends.isEmpty()) {
+                return null;
+            }
+            UtxoBalance utxoBalance = new UtxoBalance();
+            for (UtxoOutput output : unSpends) {
+                utxoBalance.addUtxo(output);
+            }
+            putBalance(address, utxoBalance);
+            return utxoBalance;
+        }
     }
 
     public void putUtxo(String key, UtxoOutput output, boolean cacheBalance) {
-        utxoCacheService.putElement(LedgerConstant.UTXO, key, output);
+        utxoStorageService.put(output);
         if (!cacheBalance) {
             return;
         }
-        String address = output.getAddress();
-        UtxoBalance balance = (UtxoBalance) getBalance(address);
-        if (balance == null) {
-            balance = new UtxoBalance();
+        synchronized (balanceLock) {
+            Balance balance = cacheService.getElement(LedgerConstant.LEDGER_BOOK, output.getAddress());
+            if (balance != null) {
+                ((UtxoBalance) balance).addUtxo(output);
+            }
         }
-        balance.addUtxo(key);
-        putBalance(address, balance);
     }
 
     public List<UtxoOutput> getUnSpends(String address) {
         List<UtxoOutput> unSpends = new ArrayList<>();
-        UtxoBalance balance = (UtxoBalance) getBalance(address);
-        if (balance == null) {
+        if (StringUtils.isBlank(address)) {
             return unSpends;
         }
-
-        for (String key : balance.getUtxoKeys()) {
+        for (String key : utxoStorageService.getKeys(address)) {
             UtxoOutput output = getUtxo(key);
             if (output != null) {
                 unSpends.add(output);
+            } else {
+                utxoStorageService.removeStaleIndex(address, key);
             }
         }
         return unSpends;
@@ -121,24 +146,37 @@ public class LedgerCacheService {
                 Log.error(e);
             }
         }
-        return utxoCacheService.getElement(LedgerConstant.UTXO, key);
+        return utxoStorageService.get(key);
     }
 
     public void removeUtxo(String key) {
         UtxoOutput output = getUtxo(key);
-        utxoCacheService.removeElement(LedgerConstant.UTXO, key);
-        if (output != null) {
-            UtxoBalance balance = (UtxoBalance) getBalance(output.getAddress());
+        utxoStorageService.remove(key, output);
+        if (output == null) {
+            return;
+        }
+        synchronized (balanceLock) {
+            Balance balance = cacheService.getElement(LedgerConstant.LEDGER_BOOK, output.getAddress());
             if (balance != null) {
-                balance.getUtxoKeys().remove(output);
+                ((UtxoBalance) balance).removeUtxo(key);
             }
         }
     }
 
-    public void putUtxoList(List<UtxoOutput> outputList) {
-        for (UtxoOutput output : outputList) {
-            this.putUtxo(output.getKey(), output, true);
+    /**
+     * 打开utxo存储，只有在上次没有正常关闭时才从数据库加载全部未花费输出重建
+     * Open the utxo store, all unspent outputs are loaded from the database to rebuild it only when it was not closed
+     * cleanly last time
+     */
+    public void initUtxoStore(Supplier<List<UtxoOutput>> allUnSpendSupplier) {
+        if (!utxoStorageService.open()) {
+            Log.info("the utxo store was not closed cleanly, rebuild it from the database");
+            utxoStorageService.rebuild(allUnSpendSupplier.get());
         }
         initCache = false;
     }
+
+    public void closeUtxoStore() {
+        utxoStorageService.close();
+    }
 }
@@ -0,0 +1,86 @@
+/**
+ * MIT License
+ * *
+ * Copyright (c) 2017-2018 nuls.io
+ * *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.ledger.service.impl;
+
+import io.nuls.cache.service.intf.CacheService;
+import io.nuls.core.cfg.NulsConfig;
+import io.nuls.core.crypto.Sha256Hash;
+import io.nuls.ledger.constant.LedgerConstant;
+import io.nuls.protocol.context.NulsContext;
+import io.nuls.protocol.model.NulsDigestData;
+import io.nuls.protocol.model.NulsDigestKey;
+
+/**
+ * Bounded cache of the signatures that have been verified successfully.
+ * The key is calculated from the transaction hash and the script sig (public key and signature),
+ * so a transaction verified when it entered the memory pool is not verified again when its block arrives.
+ *
+ * 已验证通过的签名缓存，key由交易hash和签名脚本（公钥和签名）计算得到，
+ * 交易进入内存池时验证过的签名，在收到包含它的区块时不再重复验证
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class SignatureCacheService {
+
+    private static final String CACHE_OF_SIGNATURE = "verified-signature-cache";
+
+    private static SignatureCacheService instance = new SignatureCacheService();
+
+    private CacheService<NulsDigestKey, Boolean> cacheService;
+
+    private SignatureCacheService() {
+        int heapMb = NulsConfig.MODULES_CONFIG.getCfgValue(LedgerConstant.CFG_LEDGER_SECTION, LedgerConstant.PROPERTY_SIGN_CACHE_SIZE, LedgerConstant.DEFAULT_SIGN_CACHE_SIZE);
+        cacheService = NulsContext.getServiceBean(CacheService.class);
+        cacheService.createCache(CACHE_OF_SIGNATURE, NulsDigestKey.class, heapMb, 0, 0, null);
+    }
+
+    public static SignatureCacheService getInstance() {
+        return instance;
+    }
+
+    public boolean isVerified(NulsDigestData txHash, byte[] scriptSig) {
+        return cacheService.containsKey(CACHE_OF_SIGNATURE, getKey(txHash, scriptSig));
+    }
+
+    public void putVerified(NulsDigestData txHash, byte[] scriptSig) {
+        cacheService.putElement(CACHE_OF_SIGNATURE, getKey(txHash, scriptSig), Boolean.TRUE);
+    }
+
+    public void clear() {
+        cacheService.clearCache(CACHE_OF_SIGNATURE);
+    }
+
+    public void destroy() {
+        cacheService.removeCache(CACHE_OF_SIGNATURE);
+    }
+
+    private NulsDigestKey getKey(NulsDigestData txHash, byte[] scriptSig) {
+        byte[] hashBytes = txHash.getDigestBytes();
+        byte[] bytes = new byte[hashBytes.length + scriptSig.length];
+        System.arraycopy(hashBytes, 0, bytes, 0, hashBytes.length);
+        System.arraycopy(scriptSig, 0, bytes, hashBytes.length, scriptSig.length);
+        return new NulsDigestKey(NulsDigestData.DIGEST_ALG_SHA256, Sha256Hash.hash(bytes));
+    }
+}
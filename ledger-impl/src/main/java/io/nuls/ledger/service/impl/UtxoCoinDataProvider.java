@@ -533,23 +533,11 @@ public class UtxoCoinDataProvider implements CoinDataProvider {
         if (txUtxoData.getInputs() == null || txUtxoData.getInputs().isEmpty()) {
             return ValidateResult.getSuccessResult();
         }
-        Set<String> outputSet = new HashSet<>();
-        for (Transaction transaction : txList) {
-            if (!(transaction instanceof AbstractCoinTransaction)) {
-                continue;
-            }
-            AbstractCoinTransaction coinTransaction = (AbstractCoinTransaction) transaction;
-            UtxoData utxoData = (UtxoData) coinTransaction.getCoinData();
-            if (null == utxoData.getInputs() || utxoData.getInputs().isEmpty()) {
-                continue;
-            }
-            for (UtxoInput input : utxoData.getInputs()) {
-                outputSet.add(input.getKey());
-            }
-        }
+        BlockValidateContext context = BlockValidateContext.of(txList);
+        Set<String> inputKeySet = new HashSet<>();
         for (UtxoInput input : txUtxoData.getInputs()) {
-            boolean result = outputSet.add(input.getKey());
-            if (!result) {
+            String key = input.getKey();
+            if (context.isSpent(key) || !inputKeySet.add(key)) {
                 return ValidateResult.getFailedResult(ErrorCode.FAILED, "input conflict!");
             }
         }
@@ -566,8 +554,7 @@ public class UtxoCoinDataProvider implements CoinDataProvider {
 
         UtxoData data = (UtxoData) tx.getCoinData();
 
-
-        Map<String, UtxoOutput> outputMap = getAllOutputMap(txList);
+        BlockValidateContext context = BlockValidateContext.of(txList);
 
 
         for (int i = 0; i < data.getInputs().size(); i++) {
@@ -575,7 +562,7 @@ public class UtxoCoinDataProvider implements CoinDataProvider {
             UtxoOutput output = ledgerCacheService.getUtxo(input.getKey());
 
             if (output == null && tx.getStatus() == TxStatusEnum.UNCONFIRM) {
-                output = outputMap.get(input.getKey());
+                output = context.getOutput(input.getKey());
                 if (null == output) {
                     return ValidateResult.getFailedResult(ErrorCode.ORPHAN_TX);
                 }
@@ -615,35 +602,37 @@ public class UtxoCoinDataProvider implements CoinDataProvider {
         return ValidateResult.getSuccessResult();
     }
 
-    private Map<String, UtxoOutput> getAllOutputMap(List<Transaction> txList) {
-        Map<String, UtxoOutput> map = new HashMap<>();
-        for (Transaction tx : txList) {
-            if (!(tx instanceof AbstractCoinTransaction)) {
-                continue;
-            }
-            List<UtxoOutput> outputs = ((UtxoData) ((AbstractCoinTransaction) tx).getCoinData()).getOutputs();
-            if (null == outputs) {
-                continue;
+    @Override
+    public List<String> getInputKeys(CoinData coinData) {
+        UtxoData utxoData = (UtxoData) coinData;
+        if (null == utxoData || null == utxoData.getInputs() || utxoData.getInputs().isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> keyList = new ArrayList<>(utxoData.getInputs().size());
+        for (UtxoInput input : utxoData.getInputs()) {
+            keyList.add(input.getKey());
+        }
+        return keyList;
+    }
+
+    @Override
+    public void register(BlockValidateContext context, AbstractCoinTransaction tx) {
+        UtxoData utxoData = (UtxoData) tx.getCoinData();
+        if (null == utxoData) {
+            return;
+        }
+        if (null != utxoData.getInputs()) {
+            for (UtxoInput input : utxoData.getInputs()) {
+                context.addSpent(input.getKey());
             }
-            for (UtxoOutput output : outputs) {
+        }
+        if (null != utxoData.getOutputs()) {
+            for (UtxoOutput output : utxoData.getOutputs()) {
                 if (output.getTxHash() == null) {
                     output.setTxHash(tx.getHash());
                 }
-                map.put(output.getKey(), output);
-            }
-        }
-        for (Transaction tx : txList) {
-            if (!(tx instanceof AbstractCoinTransaction)) {
-                continue;
-            }
-            List<UtxoInput> inputs = ((UtxoData) ((AbstractCoinTransaction) tx).getCoinData()).getInputs();
-            if (null == inputs) {
-                continue;
-            }
-            for (UtxoInput input : inputs) {
-                map.remove(input.getKey());
+                context.addOutput(output.getKey(), output);
             }
         }
-        return map;
     }
 }
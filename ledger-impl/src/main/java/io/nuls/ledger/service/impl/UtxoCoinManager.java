@@ -35,8 +35,11 @@ import io.nuls.ledger.util.UtxoTransactionTool;
 import io.nuls.ledger.util.UtxoTransferTool;
 import io.nuls.protocol.context.NulsContext;
 import io.nuls.protocol.model.Na;
+import io.nuls.protocol.model.Transaction;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -63,20 +66,32 @@ public class UtxoCoinManager {
 
     private Lock lock = new ReentrantLock();
 
-    public void cacheAllUnSpendUtxo() {
+    private final Map<String, AbstractCoinTransaction> localUnConfirmTxMap = new ConcurrentHashMap<>();
+
+    private volatile boolean localTxLoaded;
+
+    private volatile LocalTxView localTxView;
+
+    /**
+     * 每次本地未确认交易变化时增加，用来判断缓存的验证上下文是否过期
+     * incremented whenever the local unconfirmed txs change, tells whether the cached validate context is stale
+     */
+    private final AtomicLong localTxVersion = new AtomicLong();
+
+    private volatile LocalTxContext localTxContext;
+
+    public void initUnSpendUtxo() {
+        ledgerCacheService.initUtxoStore(this::loadAllUnSpendUtxo);
+        Runtime.getRuntime().addShutdownHook(new Thread(ledgerCacheService::closeUtxoStore, "utxo-store-close"));
+    }
+
+    private List<UtxoOutput> loadAllUnSpendUtxo() {
         List<UtxoOutputPo> utxoOutputPos = outputDataService.getAllUnSpend();
-        Set<String> addressSet = new HashSet<>();
-        List<UtxoOutput> outputList = new ArrayList<>();
+        List<UtxoOutput> outputList = new ArrayList<>(utxoOutputPos.size());
         for (int i = 0; i < utxoOutputPos.size(); i++) {
-            UtxoOutputPo po = utxoOutputPos.get(i);
-            UtxoOutput output = UtxoTransferTool.toOutput(po);
-            outputList.add(output);
-            addressSet.add(po.getAddress());
+            outputList.add(UtxoTransferTool.toOutput(utxoOutputPos.get(i)));
         }
-        ledgerCacheService.putUtxoList(outputList);
-//        for (String str : addressSet) {
-//            UtxoTransactionTool.getInstance().calcBalance(str, false);
-//        }
+        return outputList;
     }
 
     /**
@@ -154,20 +169,173 @@ public class UtxoCoinManager {
         return unSpends;
     }
 
+    /**
+     * 本地未确认交易，首次访问时从数据库加载，之后随交易的保存、确认和回滚维护，按创建时间排序
+     * Local unconfirmed txs, loaded from the database on first access and maintained as txs are saved, confirmed and
+     * rolled back afterwards, ordered by create time
+     */
     public List<AbstractCoinTransaction> getLocalUnConfirmTxs() {
-        List<AbstractCoinTransaction> localTxs = new ArrayList<>();
-        try {
-            List<TransactionLocalPo> poList = localDataService.getUnConfirmTxs();
-            for (TransactionLocalPo localPo : poList) {
-                AbstractCoinTransaction tx = (AbstractCoinTransaction) UtxoTransferTool.toTransaction(localPo);
-                localTxs.add(tx);
+        loadLocalUnConfirmTxs();
+        List<AbstractCoinTransaction> localTxs = new ArrayList<>(localUnConfirmTxMap.values());
+        localTxs.sort(Comparator.comparingLong(AbstractCoinTransaction::getTime));
+        return localTxs;
+    }
+
+    public void addLocalUnConfirmTx(Transaction tx) {
+        if (!(tx instanceof AbstractCoinTransaction)) {
+            return;
+        }
+        loadLocalUnConfirmTxs();
+        localUnConfirmTxMap.put(tx.getHash().getDigestHex(), (AbstractCoinTransaction) tx);
+        localTxVersion.incrementAndGet();
+        localTxView = null;
+    }
+
+    public void removeLocalUnConfirmTx(String txHash) {
+        if (localUnConfirmTxMap.remove(txHash) != null) {
+            localTxVersion.incrementAndGet();
+            localTxView = null;
+        }
+    }
+
+    public boolean containsLocalUnConfirmTx(String txHash) {
+        loadLocalUnConfirmTxs();
+        return localUnConfirmTxMap.containsKey(txHash);
+    }
+
+    /**
+     * 本地未确认交易的验证上下文，按花费的输出建立索引，冲突检测只需查找而不用遍历交易列表
+     * 上下文在交易变化后的下次访问时重建，调用方只能读取，不能修改
+     * Validate context of the local unconfirmed txs, indexed by the spent outputs so conflict detection is a lookup
+     * instead of a walk over the tx list.
+     * It is rebuilt on the next access after the txs change, callers must only read it.
+     */
+    public BlockValidateContext getLocalUnConfirmContext() {
+        long version = localTxVersion.get();
+        LocalTxContext cached = localTxContext;
+        if (cached != null && cached.version == version) {
+            return cached.context;
+        }
+        BlockValidateContext context = new BlockValidateContext(getLocalUnConfirmTxs());
+        localTxContext = new LocalTxContext(version, context);
+        return context;
+    }
+
+    private void loadLocalUnConfirmTxs() {
+        if (localTxLoaded) {
+            return;
+        }
+        synchronized (localUnConfirmTxMap) {
+            if (localTxLoaded) {
+                return;
+            }
+            try {
+                List<TransactionLocalPo> poList = localDataService.getUnConfirmTxs();
+                for (TransactionLocalPo localPo : poList) {
+                    AbstractCoinTransaction tx = (AbstractCoinTransaction) UtxoTransferTool.toTransaction(localPo);
+                    localUnConfirmTxMap.putIfAbsent(localPo.getHash(), tx);
+                }
+                localTxLoaded = true;
+            } catch (Exception e) {
+                Log.error(e);
             }
-        } catch (Exception e) {
-            Log.error(e);
         }
-        return localTxs;
     }
 
+    /**
+     * 本地未确认交易对一个地址余额的影响{可用, 锁定}，与filterUtxoByLocalTxs的过滤规则一致
+     * Change of the local unconfirmed txs to the balance of an address as {usable, locked}, following the same rules
+     * as filterUtxoByLocalTxs
+     */
+    public long[] calcLocalTxChange(String address) {
+        long[] change = new long[2];
+        LocalTxView view = getLocalTxView();
+        view.resolveSpends();
+        List<UtxoOutput> receives = view.receiveMap.get(address);
+        if (receives != null) {
+            for (UtxoOutput output : receives) {
+                if (!output.isLocked()) {
+                    change[0] += output.getValue();
+                }
+            }
+        }
+        Set<String> spendKeys = view.spendMap.get(address);
+        if (spendKeys != null) {
+            for (String key : spendKeys) {
+                UtxoOutput output = ledgerCacheService.getUtxo(key);
+                if (output == null) {
+                    continue;
+                }
+                if (output.isLocked()) {
+                    change[1] -= output.getValue();
+                } else {
+                    change[0] -= output.getValue();
+                }
+            }
+        }
+        return change;
+    }
+
+    private LocalTxView getLocalTxView() {
+        LocalTxView view = localTxView;
+        if (view != null) {
+            return view;
+        }
+        view = new LocalTxView();
+        List<AbstractCoinTransaction> localTxs = getLocalUnConfirmTxs();
+        Set<String> inputKeySet = new HashSet<>();
+        for (AbstractCoinTransaction tx : localTxs) {
+            for (UtxoInput input : ((UtxoData) tx.getCoinData()).getInputs()) {
+                inputKeySet.add(input.getKey());
+            }
+        }
+        for (AbstractCoinTransaction tx : localTxs) {
+            for (UtxoOutput output : ((UtxoData) tx.getCoinData()).getOutputs()) {
+                if (!inputKeySet.contains(output.getKey())) {
+                    view.receiveMap.computeIfAbsent(output.getAddress(), k -> new ArrayList<>()).add(output);
+                }
+            }
+        }
+        view.unresolvedKeys.addAll(inputKeySet);
+        localTxView = view;
+        return view;
+    }
+
+    private static class LocalTxContext {
+        private final long version;
+        private final BlockValidateContext context;
+
+        private LocalTxContext(long version, BlockValidateContext context) {
+            this.version = version;
+            this.context = context;
+        }
+    }
+
+    /**
+     * 按地址整理的本地未确认交易：收到的输出和花费的已确认输出
+     * Local unconfirmed txs arranged by address: the outputs received and the confirmed outputs spent
+     */
+    private class LocalTxView {
+        private final Map<String, List<UtxoOutput>> receiveMap = new HashMap<>();
+        private final Map<String, Set<String>> spendMap = new ConcurrentHashMap<>();
+        private final Set<String> unresolvedKeys = new HashSet<>();
+
+        /**
+         * 花费的输出可能还未进入账本，每次读取时重试
+         * The spent output may not be in the ledger yet, retry on each read
+         */
+        private synchronized void resolveSpends() {
+            Iterator<String> iterator = unresolvedKeys.iterator();
+            while (iterator.hasNext()) {
+                String key = iterator.next();
+                UtxoOutput output = ledgerCacheService.getUtxo(key);
+                if (output != null) {
+                    spendMap.computeIfAbsent(output.getAddress(), k -> ConcurrentHashMap.newKeySet()).add(key);
+                    iterator.remove();
+                }
+            }
+        }
+    }
 
     public void filterUtxoByLocalTxs(String address, List<UtxoOutput> unSpends) {
         Collections.sort(unSpends, UtxoComparator.getInstance());
@@ -37,6 +37,7 @@ import io.nuls.core.utils.str.StringUtils;
 import io.nuls.core.validate.ValidateResult;
 import io.nuls.db.dao.*;
 import io.nuls.db.entity.*;
+import io.nuls.db.transactional.TransactionSynchronizer;
 import io.nuls.db.transactional.annotation.DbSession;
 import io.nuls.event.bus.service.intf.EventBroadcaster;
 import io.nuls.ledger.constant.LedgerConstant;
@@ -50,6 +51,8 @@ import io.nuls.ledger.entity.tx.TransferTransaction;
 import io.nuls.ledger.service.intf.LedgerService;
 import io.nuls.ledger.util.UtxoTransactionTool;
 import io.nuls.ledger.util.UtxoTransferTool;
+import io.nuls.ledger.validator.TxFieldValidator;
+import io.nuls.ledger.validator.TxSignValidator;
 import io.nuls.protocol.constant.TransactionConstant;
 import io.nuls.protocol.constant.TxStatusEnum;
 import io.nuls.protocol.context.NulsContext;
@@ -262,25 +265,14 @@ public class UtxoLedgerServiceImpl implements LedgerService {
         if (balance == null) {
             return null;
         }
+        UtxoBalance utxoBalance = (UtxoBalance) balance;
+        long locked = utxoBalance.getLockedValue();
+        long usable = utxoBalance.getTotalValue() - locked;
 
-        long usable = 0;
-        long locked = 0;
-
-        List<UtxoOutput> unSpends = ledgerCacheService.getUnSpends(address);
-        UtxoCoinManager.getInstance().filterUtxoByLocalTxs(address, unSpends);
-
-        for (UtxoOutput output : unSpends) {
-            if (output.isLocked()) {
-                locked += output.getValue();
-            } else {
-                usable += output.getValue();
-            }
-        }
-
-        balance.setUsable(Na.valueOf(usable));
-        balance.setLocked(Na.valueOf(locked));
-        balance.setBalance(Na.valueOf(usable + locked));
-        return balance;
+        long[] localChange = UtxoCoinManager.getInstance().calcLocalTxChange(address);
+        usable += localChange[0];
+        locked += localChange[1];
+        return new Balance(Na.valueOf(usable), Na.valueOf(locked));
     }
 
     @Override
@@ -437,6 +429,14 @@ public class UtxoLedgerServiceImpl implements LedgerService {
                     localTxDao.save(localPo);
                 }
             }
+            TransactionSynchronizer.afterCommit(new Runnable() {
+                @Override
+                public void run() {
+                    for (Transaction tx : txList) {
+                        UtxoCoinManager.getInstance().removeLocalUnConfirmTx(tx.getHash().getDigestHex());
+                    }
+                }
+            });
         } catch (Exception e) {
             Log.error(e);
             throw e;
@@ -448,7 +448,7 @@ public class UtxoLedgerServiceImpl implements LedgerService {
     @Override
     public boolean saveLocalTx(Transaction tx) throws IOException {
         try {
-            ValidateResult validateResult = this.conflictDetectTx(tx, this.getWaitingTxList());
+            ValidateResult validateResult = this.conflictDetectTx(tx, UtxoCoinManager.getInstance().getLocalUnConfirmContext());
             if (validateResult.isFailed()) {
                 return false;
             }
@@ -459,6 +459,7 @@ public class UtxoLedgerServiceImpl implements LedgerService {
         TransactionLocalPo localPo = UtxoTransferTool.toLocalTransactionPojo(tx);
         localPo.setTxStatus(TransactionLocalPo.UNCONFIRM);
         localTxDao.save(localPo);
+        UtxoCoinManager.getInstance().addLocalUnConfirmTx(tx);
         // save relation
         if (tx instanceof AbstractCoinTransaction) {
             AbstractCoinTransaction abstractTx = (AbstractCoinTransaction) tx;
@@ -613,17 +614,32 @@ public class UtxoLedgerServiceImpl implements LedgerService {
     @DbSession
     public void deleteTx(long blockHeight) {
         List<TransactionPo> txList = txDao.getTxs(blockHeight);
+        final List<Transaction> unConfirmList = new ArrayList<>();
         for (TransactionPo tx : txList) {
             txDao.delete(tx.getHash());
             TransactionLocalPo localPo = localTxDao.get(tx.getHash());
             if (localPo != null) {
                 if (localPo.getType() == TransactionConstant.TX_TYPE_COIN_BASE) {
                     localTxDao.delete(localPo.getHash());
+                    continue;
                 }
                 localPo.setTxStatus(TransactionLocalPo.UNCONFIRM);
                 localTxDao.update(localPo);
+                try {
+                    unConfirmList.add(UtxoTransferTool.toTransaction(localPo));
+                } catch (Exception e) {
+                    Log.error(e);
+                }
             }
         }
+        TransactionSynchronizer.afterCommit(new Runnable() {
+            @Override
+            public void run() {
+                for (Transaction tx : unConfirmList) {
+                    UtxoCoinManager.getInstance().addLocalUnConfirmTx(tx);
+                }
+            }
+        });
     }
 
     @Override
@@ -770,13 +786,23 @@ public class UtxoLedgerServiceImpl implements LedgerService {
 
     @Override
     public List<Transaction> getWaitingTxList() throws NulsException {
-        List<TransactionLocalPo> poList = localTxDao.getUnConfirmTxs();
-        List<Transaction> txList = new ArrayList<>();
-        for (TransactionLocalPo po : poList) {
-            Transaction tx = UtxoTransferTool.toTransaction(po);
-            txList.add(tx);
+        return new ArrayList<>(UtxoCoinManager.getInstance().getLocalUnConfirmTxs());
+    }
+
+    @Override
+    public ValidateResult conflictDetectWaitingTx(Transaction tx) throws NulsException {
+        UtxoCoinManager coinManager = UtxoCoinManager.getInstance();
+        if (!coinManager.containsLocalUnConfirmTx(tx.getHash().getDigestHex())) {
+            return this.conflictDetectTx(tx, coinManager.getLocalUnConfirmContext());
         }
-        return txList;
+        List<Transaction> waitingList = this.getWaitingTxList();
+        for (int i = waitingList.size() - 1; i >= 0; i--) {
+            if (waitingList.get(i).getHash().equals(tx.getHash())) {
+                waitingList.remove(i);
+                break;
+            }
+        }
+        return this.conflictDetectTx(tx, waitingList);
     }
 
     @Override
@@ -800,6 +826,25 @@ public class UtxoLedgerServiceImpl implements LedgerService {
         return result;
     }
 
+    @Override
+    public ValidateResult verifyTxStateless(Transaction tx) {
+        ValidateResult result = TxFieldValidator.getInstance().validate(tx);
+        if (result.isFailed()) {
+            return result;
+        }
+        return TxSignValidator.getInstance().validate(tx);
+    }
+
+    @Override
+    public ValidateResult verifyTxStateful(Transaction tx, List<Transaction> txList) {
+        TxSignValidator.setSkipped(true);
+        try {
+            return this.verifyTx(tx, txList);
+        } finally {
+            TxSignValidator.setSkipped(false);
+        }
+    }
+
     @Override
     public void verifyTxWithException(Transaction tx, List<Transaction> txList) {
         ValidateResult result = this.verifyTx(tx, txList);
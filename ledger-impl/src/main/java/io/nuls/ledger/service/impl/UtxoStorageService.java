@@ -0,0 +1,460 @@
+/**
+ * MIT License
+ * *
+ * Copyright (c) 2017-2018 nuls.io
+ * *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.ledger.service.impl;
+
+import io.nuls.cache.service.intf.CacheService;
+import io.nuls.core.cfg.NulsConfig;
+import io.nuls.core.exception.NulsException;
+import io.nuls.core.utils.crypto.Base58;
+import io.nuls.core.utils.crypto.Hex;
+import io.nuls.core.utils.log.Log;
+import io.nuls.db.service.intf.BatchOperation;
+import io.nuls.db.service.intf.KVIterator;
+import io.nuls.db.service.intf.KVStorageService;
+import io.nuls.ledger.constant.LedgerConstant;
+import io.nuls.ledger.entity.OutPutStatusEnum;
+import io.nuls.ledger.entity.UtxoOutput;
+import io.nuls.protocol.context.NulsContext;
+import io.nuls.protocol.model.NulsDigestData;
+import io.nuls.protocol.utils.io.NulsByteBuffer;
+import io.nuls.protocol.utils.io.NulsOutputStreamBuffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Unspent outputs kept in the key-value store, with a bounded cache of hot outputs in front of it.
+ * Changed outputs are buffered in memory and written back in one batch once there are enough of them.
+ * The store is marked clean when it is closed; after an unclean exit it is rebuilt from the database.
+ *
+ * 保存在键值数据库中的未花费输出，前面是一个有容量上限的热点缓存。
+ * 变更的输出先缓存在内存中，积累到一定数量后批量写回。数据库关闭时标记为干净，非正常退出后会从数据库重建。
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class UtxoStorageService {
+
+    private static final String AREA_UTXO = "ledger_utxo";
+    private static final String AREA_ADDRESS_UTXO = "ledger_utxo_address";
+
+    /**
+     * 干净标记，与utxo的key长度不同，不会冲突
+     * clean marker, its length differs from the utxo keys so they never collide
+     */
+    private static final byte[] CLEAN_MARKER_KEY = {'c', 'l', 'e', 'a', 'n'};
+    private static final byte[] EMPTY_VALUE = new byte[0];
+    private static final int NULL_STATUS = 0xFF;
+
+    private static UtxoStorageService instance = new UtxoStorageService();
+
+    private KVStorageService storageService;
+    private CacheService<String, UtxoOutput> cacheService;
+    private int flushSize;
+
+    private final Map<String, UtxoOutput> dirtyPuts = new ConcurrentHashMap<>();
+    private final Map<String, UtxoOutput> dirtyRemoves = new ConcurrentHashMap<>();
+
+    /**
+     * dirtyPuts的key按地址索引，读取地址的未花费输出时不必扫描全部变更；只在持有写锁时修改
+     * keys of dirtyPuts indexed by address, so reading the unspent outputs of an address does not scan all the changes;
+     * only changed while holding the write lock
+     */
+    private final Map<String, Set<String>> dirtyKeysByAddress = new ConcurrentHashMap<>();
+
+    /**
+     * 每次删除都会增加，读线程用它判断从数据库读到的值是否还能放入缓存
+     * incremented on every removal, readers use it to tell whether a value read from the store may still be cached
+     */
+    private volatile long removeVersion;
+
+    private final Object writeLock = new Object();
+
+    private UtxoStorageService() {
+        int heapMb = NulsConfig.MODULES_CONFIG.getCfgValue(LedgerConstant.CFG_LEDGER_SECTION, LedgerConstant.PROPERTY_UTXO_CACHE_SIZE, LedgerConstant.DEFAULT_UTXO_CACHE_SIZE);
+        flushSize = NulsConfig.MODULES_CONFIG.getCfgValue(LedgerConstant.CFG_LEDGER_SECTION, LedgerConstant.PROPERTY_UTXO_FLUSH_SIZE, LedgerConstant.DEFAULT_UTXO_FLUSH_SIZE);
+        cacheService = NulsContext.getServiceBean(CacheService.class);
+        cacheService.createCache(LedgerConstant.UTXO, heapMb);
+        storageService = NulsContext.getServiceBean(KVStorageService.class);
+    }
+
+    public static UtxoStorageService getInstance() {
+        return instance;
+    }
+
+    /**
+     * 打开存储，返回存储是否在上次关闭时是干净的；打开后清除干净标记，直到下次正常关闭
+     * Open the store and return whether it was closed cleanly last time; the clean marker is removed until the next close
+     */
+    public boolean open() {
+        storageService.createArea(AREA_UTXO);
+        storageService.createArea(AREA_ADDRESS_UTXO);
+        boolean clean = storageService.get(AREA_UTXO, CLEAN_MARKER_KEY) != null;
+        storageService.delete(AREA_UTXO, CLEAN_MARKER_KEY);
+        return clean;
+    }
+
+    /**
+     * 写回所有变更并标记为干净
+     * Write back all changes and mark the store clean
+     */
+    public void close() {
+        synchronized (writeLock) {
+            flush();
+            storageService.put(AREA_UTXO, CLEAN_MARKER_KEY, EMPTY_VALUE);
+        }
+    }
+
+    /**
+     * 清空存储后写入全部未花费输出
+     * Clear the store and write all the unspent outputs
+     */
+    public void rebuild(List<UtxoOutput> outputList) {
+        synchronized (writeLock) {
+            dirtyPuts.clear();
+            dirtyKeysByAddress.clear();
+            dirtyRemoves.clear();
+            removeVersion++;
+            cacheService.clearCache(LedgerConstant.UTXO);
+            clearArea(AREA_UTXO);
+            clearArea(AREA_ADDRESS_UTXO);
+            for (UtxoOutput output : outputList) {
+                putDirty(output.getKey(), output);
+                if (dirtyPuts.size() >= flushSize) {
+                    flush();
+                }
+            }
+            flush();
+        }
+    }
+
+    public UtxoOutput get(String key) {
+        if (dirtyRemoves.containsKey(key)) {
+            return null;
+        }
+        UtxoOutput output = dirtyPuts.get(key);
+        if (output != null) {
+            return output;
+        }
+        output = cacheService.getElement(LedgerConstant.UTXO, key);
+        if (output != null) {
+            return output;
+        }
+        long version = removeVersion;
+        byte[] value = storageService.get(AREA_UTXO, toStoreKey(key));
+        if (value == null) {
+            return null;
+        }
+        output = decode(key, value);
+        if (output == null) {
+            return null;
+        }
+        synchronized (writeLock) {
+            if (version == removeVersion && !dirtyPuts.containsKey(key)) {
+                cacheService.putElement(LedgerConstant.UTXO, key, output);
+            }
+        }
+        return output;
+    }
+
+    public void put(UtxoOutput output) {
+        String key = output.getKey();
+        synchronized (writeLock) {
+            dirtyRemoves.remove(key);
+            putDirty(key, output);
+            cacheService.putElement(LedgerConstant.UTXO, key, output);
+            flushIfFull();
+        }
+    }
+
+    public void remove(String key, UtxoOutput output) {
+        synchronized (writeLock) {
+            removeVersion++;
+            removeDirty(key);
+            if (output != null) {
+                dirtyRemoves.put(key, output);
+            } else {
+                storageService.delete(AREA_UTXO, toStoreKey(key));
+            }
+            cacheService.removeElement(LedgerConstant.UTXO, key);
+            flushIfFull();
+        }
+    }
+
+    /**
+     * 一个地址的所有未花费输出的key，包括还没有写回的变更
+     * Keys of all unspent outputs of an address, including the changes not written back yet
+     */
+    public Set<String> getKeys(String address) {
+        Set<String> keySet = new LinkedHashSet<>();
+        byte[] prefix = toAddressBytes(address);
+        if (prefix == null) {
+            return keySet;
+        }
+        try (KVIterator iterator = storageService.prefixIterator(AREA_ADDRESS_UTXO, prefix)) {
+            while (iterator != null && iterator.hasNext()) {
+                byte[] indexKey = iterator.next().getKey();
+                keySet.add(toKey(Arrays.copyOfRange(indexKey, prefix.length, indexKey.length)));
+            }
+        }
+        Set<String> dirtyKeys = dirtyKeysByAddress.get(address);
+        if (dirtyKeys != null) {
+            keySet.addAll(dirtyKeys);
+        }
+        if (!dirtyRemoves.isEmpty()) {
+            Iterator<String> iterator = keySet.iterator();
+            while (iterator.hasNext()) {
+                if (dirtyRemoves.containsKey(iterator.next())) {
+                    iterator.remove();
+                }
+            }
+        }
+        return keySet;
+    }
+
+    /**
+     * 删除一个已经不存在的输出在地址索引中的残留记录。删除输出时如果无法读到它（不在存储中或无法解析），就不知道它的地址，
+     * 索引记录会留下来，由读取地址的未花费输出时发现并调用本方法清除
+     * Drop the address index entry of an output which no longer exists. An output removed while it could not be read
+     * (missing from the store or not decodable) leaves its index entry behind because its address is unknown, such
+     * entries are found when the unspent outputs of the address are read and purged here
+     */
+    public void removeStaleIndex(String address, String key) {
+        synchronized (writeLock) {
+            if (dirtyPuts.containsKey(key)) {
+                return;
+            }
+            byte[] storeKey = toStoreKey(key);
+            byte[] value = storageService.get(AREA_UTXO, storeKey);
+            if (value != null && decode(key, value) != null) {
+                return;
+            }
+            byte[] indexKey = toAddressIndexKey(address, storeKey);
+            if (indexKey != null) {
+                storageService.delete(AREA_ADDRESS_UTXO, indexKey);
+            }
+        }
+    }
+
+    public boolean hasUtxo(String address) {
+        return !getKeys(address).isEmpty();
+    }
+
+    public void clear() {
+        cacheService.clearCache(LedgerConstant.UTXO);
+    }
+
+    public void destroy() {
+        cacheService.removeCache(LedgerConstant.UTXO);
+    }
+
+    /**
+     * 调用方必须持有写锁
+     * the caller must hold the write lock
+     */
+    private void putDirty(String key, UtxoOutput output) {
+        UtxoOutput old = dirtyPuts.put(key, output);
+        if (old != null && old.getAddress() != null && !old.getAddress().equals(output.getAddress())) {
+            removeDirtyKey(old.getAddress(), key);
+        }
+        if (output.getAddress() == null) {
+            return;
+        }
+        Set<String> keys = dirtyKeysByAddress.get(output.getAddress());
+        if (keys == null) {
+            keys = ConcurrentHashMap.newKeySet();
+            dirtyKeysByAddress.put(output.getAddress(), keys);
+        }
+        keys.add(key);
+    }
+
+    /**
+     * 调用方必须持有写锁
+     * the caller must hold the write lock
+     */
+    private void removeDirty(String key) {
+        UtxoOutput old = dirtyPuts.remove(key);
+        if (old != null && old.getAddress() != null) {
+            removeDirtyKey(old.getAddress(), key);
+        }
+    }
+
+    private void removeDirtyKey(String address, String key) {
+        Set<String> keys = dirtyKeysByAddress.get(address);
+        if (keys == null) {
+            return;
+        }
+        keys.remove(key);
+        if (keys.isEmpty()) {
+            dirtyKeysByAddress.remove(address);
+        }
+    }
+
+    private void flushIfFull() {
+        if (dirtyPuts.size() + dirtyRemoves.size() >= flushSize) {
+            flush();
+        }
+    }
+
+    /**
+     * 把内存中的变更在一个批次中原子地写回，调用方必须持有写锁
+     * Atomically write back the buffered changes in one batch, the caller must hold the write lock
+     */
+    private void flush() {
+        if (dirtyPuts.isEmpty() && dirtyRemoves.isEmpty()) {
+            return;
+        }
+        BatchOperation utxoBatch = storageService.createWriteBatch(AREA_UTXO);
+        BatchOperation addressBatch = storageService.createWriteBatch(AREA_ADDRESS_UTXO);
+        try {
+            for (Map.Entry<String, UtxoOutput> entry : dirtyRemoves.entrySet()) {
+                byte[] storeKey = toStoreKey(entry.getKey());
+                utxoBatch.delete(storeKey);
+                byte[] indexKey = toAddressIndexKey(entry.getValue().getAddress(), storeKey);
+                if (indexKey != null) {
+                    addressBatch.delete(indexKey);
+                }
+            }
+            for (Map.Entry<String, UtxoOutput> entry : dirtyPuts.entrySet()) {
+                byte[] storeKey = toStoreKey(entry.getKey());
+                byte[] value = encode(entry.getValue());
+                if (value == null) {
+                    continue;
+                }
+                utxoBatch.put(storeKey, value);
+                byte[] indexKey = toAddressIndexKey(entry.getValue().getAddress(), storeKey);
+                if (indexKey != null) {
+                    addressBatch.put(indexKey, EMPTY_VALUE);
+                }
+            }
+            if (utxoBatch.executeBatch().isFailed() || addressBatch.executeBatch().isFailed()) {
+                Log.error("write back utxo failed, the changes are kept in memory");
+                return;
+            }
+            dirtyPuts.clear();
+            dirtyKeysByAddress.clear();
+            dirtyRemoves.clear();
+        } finally {
+            utxoBatch.close();
+            addressBatch.close();
+        }
+    }
+
+    private void clearArea(String area) {
+        BatchOperation batch = storageService.createWriteBatch(area);
+        int count = 0;
+        try (KVIterator iterator = storageService.iterator(area, null, null)) {
+            while (iterator.hasNext()) {
+                batch.delete(iterator.next().getKey());
+                if (++count >= flushSize) {
+                    batch.executeBatch();
+                    batch = storageService.createWriteBatch(area);
+                    count = 0;
+                }
+            }
+        }
+        batch.executeBatch();
+    }
+
+    /**
+     * 存储key：交易hash的序列化字节 + 4字节大端序的输出序号
+     * store key: serialized bytes of the tx hash + the output index as 4 bytes big-endian
+     */
+    private static byte[] toStoreKey(String key) {
+        int split = key.lastIndexOf('-');
+        byte[] hashBytes = Hex.decode(key.substring(0, split));
+        int index = Integer.parseInt(key.substring(split + 1));
+        byte[] storeKey = Arrays.copyOf(hashBytes, hashBytes.length + 4);
+        storeKey[hashBytes.length] = (byte) (index >>> 24);
+        storeKey[hashBytes.length + 1] = (byte) (index >>> 16);
+        storeKey[hashBytes.length + 2] = (byte) (index >>> 8);
+        storeKey[hashBytes.length + 3] = (byte) index;
+        return storeKey;
+    }
+
+    private static String toKey(byte[] storeKey) {
+        int length = storeKey.length - 4;
+        int index = ((storeKey[length] & 0xff) << 24) | ((storeKey[length + 1] & 0xff) << 16) |
+                ((storeKey[length + 2] & 0xff) << 8) | (storeKey[length + 3] & 0xff);
+        return Hex.encode(Arrays.copyOf(storeKey, length)) + "-" + index;
+    }
+
+    private static byte[] toAddressBytes(String address) {
+        if (address == null) {
+            return null;
+        }
+        try {
+            return Base58.decode(address);
+        } catch (NulsException e) {
+            Log.error(e);
+            return null;
+        }
+    }
+
+    private static byte[] toAddressIndexKey(String address, byte[] storeKey) {
+        byte[] addressBytes = toAddressBytes(address);
+        if (addressBytes == null) {
+            return null;
+        }
+        byte[] indexKey = Arrays.copyOf(addressBytes, addressBytes.length + storeKey.length);
+        System.arraycopy(storeKey, 0, indexKey, addressBytes.length, storeKey.length);
+        return indexKey;
+    }
+
+    private static byte[] encode(UtxoOutput output) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(output.size() + 16);
+        NulsOutputStreamBuffer buffer = new NulsOutputStreamBuffer(bos);
+        try {
+            buffer.writeNulsData(output);
+            buffer.write(output.getStatus() == null ? NULL_STATUS : output.getStatus().ordinal());
+            buffer.writeInt48(output.getCreateTime());
+            buffer.writeVarInt(output.getTxType());
+        } catch (IOException e) {
+            Log.error(e);
+            return null;
+        }
+        return bos.toByteArray();
+    }
+
+    private static UtxoOutput decode(String key, byte[] value) {
+        try {
+            NulsByteBuffer buffer = new NulsByteBuffer(value);
+            UtxoOutput output = buffer.readNulsData(new UtxoOutput());
+            int status = buffer.readByte() & 0xff;
+            if (status != NULL_STATUS) {
+                output.setStatus(OutPutStatusEnum.values()[status]);
+            }
+            output.setCreateTime(buffer.readInt48());
+            output.setTxType((int) buffer.readVarInt());
+            output.setTxHash(NulsDigestData.fromDigestHex(key.substring(0, key.lastIndexOf('-'))));
+            output.setKey(key);
+            return output;
+        } catch (Exception e) {
+            Log.error(e);
+            return null;
+        }
+    }
+}
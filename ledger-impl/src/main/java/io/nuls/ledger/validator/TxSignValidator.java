@@ -27,6 +27,7 @@ import io.nuls.core.constant.ErrorCode;
 import io.nuls.core.exception.NulsException;
 import io.nuls.core.validate.NulsDataValidator;
 import io.nuls.core.validate.ValidateResult;
+import io.nuls.ledger.service.impl.SignatureCacheService;
 import io.nuls.protocol.constant.TransactionConstant;
 import io.nuls.protocol.model.NulsDigestData;
 import io.nuls.protocol.model.Transaction;
@@ -42,9 +43,24 @@ import java.util.Arrays;
 public class TxSignValidator implements NulsDataValidator<Transaction> {
     private static final TxSignValidator INSTANCE = new TxSignValidator();
 
+    /**
+     * Set while the current thread verifies transactions whose signatures were checked already, it does not touch
+     * the transaction objects which other threads may be verifying at the same time
+     * 当前线程验证已经检查过签名的交易时设置，不修改其它线程可能同时在验证的交易对象
+     */
+    private static final ThreadLocal<Boolean> SKIPPED = new ThreadLocal<>();
+
     private TxSignValidator() {
     }
 
+    public static void setSkipped(boolean skipped) {
+        if (skipped) {
+            SKIPPED.set(Boolean.TRUE);
+        } else {
+            SKIPPED.remove();
+        }
+    }
+
     public static TxSignValidator getInstance() {
         return INSTANCE;
     }
@@ -55,6 +71,9 @@ public class TxSignValidator implements NulsDataValidator<Transaction> {
         if (tx.getType() == TransactionConstant.TX_TYPE_COIN_BASE || tx.getType() == TransactionConstant.TX_TYPE_YELLOW_PUNISH) {
             return ValidateResult.getSuccessResult();
         }
+        if (Boolean.TRUE.equals(SKIPPED.get())) {
+            return ValidateResult.getSuccessResult();
+        }
 
         byte[] scriptSig = tx.getScriptSig();
         tx.setScriptSig(null);
@@ -70,12 +89,24 @@ public class TxSignValidator implements NulsDataValidator<Transaction> {
             return ValidateResult.getFailedResult(ErrorCode.DATA_ERROR);
         }
 
+        if (null == scriptSig) {
+            return ValidateResult.getFailedResult(ErrorCode.SIGNATURE_ERROR);
+        }
+        SignatureCacheService signatureCache = SignatureCacheService.getInstance();
+        if (signatureCache.isVerified(tx.getHash(), scriptSig)) {
+            return ValidateResult.getSuccessResult();
+        }
+
         P2PKHScriptSig p2PKHScriptSig = null;
         try {
             p2PKHScriptSig = new NulsByteBuffer(scriptSig).readNulsData(new P2PKHScriptSig());
         } catch (NulsException e) {
             return ValidateResult.getFailedResult(ErrorCode.SIGNATURE_ERROR);
         }
-        return p2PKHScriptSig.verifySign(tx.getHash());
+        ValidateResult result = p2PKHScriptSig.verifySign(tx.getHash());
+        if (result.isSuccess()) {
+            signatureCache.putVerified(tx.getHash(), scriptSig);
+        }
+        return result;
     }
 }
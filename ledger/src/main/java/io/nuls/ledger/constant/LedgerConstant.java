@@ -37,6 +37,26 @@ public interface LedgerConstant {
 
     String UTXO = "UTXO";
 
+    String CFG_LEDGER_SECTION = "ledger";
+    String PROPERTY_SIGN_CACHE_SIZE = "sign.cache.size";
+
+    /**
+     * Memory budget of the verified signature cache, unit:MB
+     */
+    int DEFAULT_SIGN_CACHE_SIZE = 8;
+    String PROPERTY_UTXO_CACHE_SIZE = "utxo.cache.size";
+    String PROPERTY_UTXO_FLUSH_SIZE = "utxo.flush.size";
+
+    /**
+     * Memory budget of the hot utxo cache in front of the utxo store, unit:MB
+     */
+    int DEFAULT_UTXO_CACHE_SIZE = 64;
+
+    /**
+     * Number of changed utxo kept in memory before they are written back to the utxo store in one batch
+     */
+    int DEFAULT_UTXO_FLUSH_SIZE = 2000;
+
     short EVENT_TYPE_TRANSACTION = 1;
     short NOTICE_BALANCE_CHANGE = 2;
 
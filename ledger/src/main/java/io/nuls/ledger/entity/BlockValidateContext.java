@@ -0,0 +1,167 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.ledger.entity;
+
+import io.nuls.ledger.entity.tx.AbstractCoinTransaction;
+import io.nuls.protocol.model.Transaction;
+
+import java.util.*;
+
+/**
+ * 区块交易验证上下文：交易加入列表时登记其花费的输出和产生的输出，冲突检测和coinData验证不再需要遍历整个列表
+ * 打包、区块验证和交易处理共用该上下文，可以直接作为交易列表传递
+ * 插入时增量维护，替换或移除交易后在下次查询时重建，非线程安全
+ * <p>
+ * Validate context of the txs of a block: the outputs spent and created by a tx are registered when it is appended,
+ * so conflict detection and coin data verification no longer walk the whole list.
+ * Packing, block validation and tx handling share it, and it can be passed wherever a tx list is expected.
+ * Appends are incremental, a replace or remove rebuilds the state on the next query. Not thread safe.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class BlockValidateContext extends AbstractList<Transaction> implements RandomAccess {
+
+    private final List<Transaction> txList;
+
+    /**
+     * 列表中交易花费的输出
+     * The outputs spent by the txs of the list
+     */
+    private final Set<String> spentKeySet = new HashSet<>();
+
+    /**
+     * 列表中交易产生且未被列表中交易花费的输出
+     * The outputs created by the txs of the list and not spent by them
+     */
+    private final Map<String, Object> outputMap = new HashMap<>();
+
+    private boolean dirty;
+
+    public BlockValidateContext() {
+        this.txList = new ArrayList<>();
+    }
+
+    public BlockValidateContext(Collection<? extends Transaction> txs) {
+        this.txList = new ArrayList<>(txs.size());
+        this.addAll(txs);
+    }
+
+    /**
+     * 已经是上下文的列表直接返回，否则复制为新的上下文
+     * Returns the list itself if it is a context already, otherwise copies it into a new one
+     */
+    public static BlockValidateContext of(List<Transaction> txList) {
+        if (txList instanceof BlockValidateContext) {
+            return (BlockValidateContext) txList;
+        }
+        if (null == txList) {
+            return new BlockValidateContext();
+        }
+        return new BlockValidateContext(txList);
+    }
+
+    @Override
+    public Transaction get(int index) {
+        return txList.get(index);
+    }
+
+    @Override
+    public int size() {
+        return txList.size();
+    }
+
+    @Override
+    public void add(int index, Transaction tx) {
+        txList.add(index, tx);
+        modCount++;
+        if (!dirty) {
+            register(tx);
+        }
+    }
+
+    @Override
+    public Transaction set(int index, Transaction tx) {
+        Transaction old = txList.set(index, tx);
+        dirty = true;
+        return old;
+    }
+
+    @Override
+    public Transaction remove(int index) {
+        Transaction old = txList.remove(index);
+        modCount++;
+        dirty = true;
+        return old;
+    }
+
+    public boolean isSpent(String key) {
+        checkState();
+        return spentKeySet.contains(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T getOutput(String key) {
+        checkState();
+        return (T) outputMap.get(key);
+    }
+
+    /**
+     * 由CoinDataProvider在登记交易时调用
+     * Called by the CoinDataProvider when a tx is registered
+     */
+    public void addSpent(String key) {
+        spentKeySet.add(key);
+        outputMap.remove(key);
+    }
+
+    /**
+     * 由CoinDataProvider在登记交易时调用
+     * Called by the CoinDataProvider when a tx is registered
+     */
+    public void addOutput(String key, Object output) {
+        if (!spentKeySet.contains(key)) {
+            outputMap.put(key, output);
+        }
+    }
+
+    private void register(Transaction tx) {
+        if (tx instanceof AbstractCoinTransaction) {
+            AbstractCoinTransaction coinTx = (AbstractCoinTransaction) tx;
+            coinTx.getCoinDataProvider().register(this, coinTx);
+        }
+    }
+
+    private void checkState() {
+        if (!dirty) {
+            return;
+        }
+        spentKeySet.clear();
+        outputMap.clear();
+        dirty = false;
+        for (Transaction tx : txList) {
+            register(tx);
+        }
+    }
+}
@@ -29,7 +29,6 @@ import io.nuls.core.exception.NulsException;
 import io.nuls.core.exception.NulsRuntimeException;
 import io.nuls.core.utils.crypto.Utils;
 import io.nuls.core.utils.date.TimeService;
-import io.nuls.core.utils.log.Log;
 import io.nuls.core.validate.NulsDataValidator;
 import io.nuls.ledger.entity.CoinData;
 import io.nuls.ledger.entity.params.CoinTransferData;
@@ -38,7 +37,6 @@ import io.nuls.ledger.entity.validator.CoinTransactionValidatorManager;
 import io.nuls.ledger.service.intf.CoinDataProvider;
 import io.nuls.protocol.context.NulsContext;
 import io.nuls.protocol.model.BaseNulsData;
-import io.nuls.protocol.model.NulsDigestData;
 import io.nuls.protocol.model.Transaction;
 import io.nuls.protocol.utils.io.NulsByteBuffer;
 import io.nuls.protocol.utils.io.NulsOutputStreamBuffer;
@@ -99,21 +97,14 @@ public abstract class AbstractCoinTransaction<T extends BaseNulsData> extends Tr
     @Override
     protected void parse(NulsByteBuffer byteBuffer) throws NulsException {
         super.parse(byteBuffer);
-        this.coinData = coinDataProvider.parse(byteBuffer);
-        byte[] scriptsigCache = this.getScriptSig();
-        this.setScriptSig(null);
-        //NulsSignData cache = this.sign;
-        //this.sign = null;
-        try {
-            hash = NulsDigestData.calcDigestData(this.serialize());
-        } catch (IOException e) {
-            Log.error(e);
-        }
-        this.setScriptSig(scriptsigCache);
-        //sign = cache;
         coinDataProvider.afterParse(coinData, this);
     }
 
+    @Override
+    protected void parseAfterSign(NulsByteBuffer byteBuffer) throws NulsException {
+        this.coinData = coinDataProvider.parse(byteBuffer);
+    }
+
     public void parseCoinData(NulsByteBuffer byteBuffer) throws NulsException {
         this.coinData = coinDataProvider.parse(byteBuffer);
     }
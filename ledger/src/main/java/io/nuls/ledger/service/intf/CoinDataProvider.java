@@ -25,6 +25,7 @@ package io.nuls.ledger.service.intf;
 
 import io.nuls.core.exception.NulsException;
 import io.nuls.core.validate.ValidateResult;
+import io.nuls.ledger.entity.BlockValidateContext;
 import io.nuls.ledger.entity.CoinData;
 import io.nuls.ledger.entity.params.CoinTransferData;
 import io.nuls.ledger.entity.tx.AbstractCoinTransaction;
@@ -52,4 +53,16 @@ public interface CoinDataProvider {
     ValidateResult conflictDetect( Transaction tx, List<Transaction> txList);
 
     ValidateResult verifyCoinData(AbstractCoinTransaction coinTx, List<Transaction> packingTxList);
+
+    /**
+     * The keys of the outputs spent by the coin data, in the same format as the utxo cache keys
+     * 获取该交易所花费的输出的key列表
+     */
+    List<String> getInputKeys(CoinData coinData);
+
+    /**
+     * 交易加入验证上下文时，登记其花费和产生的输出
+     * Registers the outputs spent and created by the tx when it is appended to a validate context
+     */
+    void register(BlockValidateContext context, AbstractCoinTransaction tx);
 }
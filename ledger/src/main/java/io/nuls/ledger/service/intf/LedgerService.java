@@ -100,6 +100,13 @@ public interface LedgerService {
 
     List<Transaction> getWaitingTxList() throws NulsException;
 
+    /**
+     * 检测交易与本地未确认交易的冲突，交易本身已经是未确认交易时不与自己比较
+     * Detect the conflicts between the tx and the local unconfirmed txs, the tx is not compared with itself when it
+     * is one of them
+     */
+    ValidateResult conflictDetectWaitingTx(Transaction tx) throws NulsException;
+
     void deleteTx(Transaction tx);
 
     void deleteTx(long blockHeight);
@@ -131,5 +138,21 @@ public interface LedgerService {
 
     ValidateResult verifyTx(Transaction tx,List<Transaction> txList);
 
+    /**
+     * Verify the fields, hash and signature of a transaction, which do not depend on the ledger state.
+     * It does not modify any shared state, so different transactions can be verified in parallel.
+     *
+     * 验证交易的字段、hash和签名，这些验证不依赖账本状态，不同交易可以并行验证
+     */
+    ValidateResult verifyTxStateless(Transaction tx);
+
+    /**
+     * Verify a transaction which passed verifyTxStateless already, the same as verifyTx except that the signature is
+     * not verified again
+     *
+     * 验证一笔已经通过verifyTxStateless的交易，与verifyTx相同，只是不再重复验证签名
+     */
+    ValidateResult verifyTxStateful(Transaction tx, List<Transaction> txList);
+
     void verifyTxWithException(Transaction tx, List<Transaction> txList);
 }
@@ -23,12 +23,15 @@
  */
 package io.nuls.network.service.impl;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.socket.SocketChannel;
 import io.nuls.protocol.event.base.BaseEvent;
 import io.nuls.protocol.mesasge.NulsMessage;
 import io.nuls.core.utils.log.Log;
+import io.nuls.network.constant.NetworkConstant;
 import io.nuls.network.entity.BroadcastResult;
 import io.nuls.network.entity.Node;
 import io.nuls.network.entity.NodeGroup;
@@ -38,7 +41,10 @@ import io.nuls.network.service.impl.netty.NioChannelMap;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author vivi
@@ -60,17 +66,19 @@ public class BroadcastHandler {
     }
 
     public BroadcastResult broadcast(BaseEvent event, boolean asyn) {
-        if (nodesManager.getAvailableNodes().isEmpty()) {
+        Collection<Node> nodeList = nodesManager.getAvailableNodes();
+        if (nodeList.isEmpty()) {
             return new BroadcastResult(false, "no node can be broadcast");
         }
-        return broadcastToList(nodesManager.getAvailableNodes(), event, null, asyn);
+        return broadcastToList(nodeList, event, null, asyn);
     }
 
     public BroadcastResult broadcast(BaseEvent event, String excludeNodeId, boolean asyn) {
-        if (nodesManager.getAvailableNodes().isEmpty()) {
+        Collection<Node> nodeList = nodesManager.getAvailableNodes();
+        if (nodeList.isEmpty()) {
             return new BroadcastResult(false, "no node can be broadcast");
         }
-        return broadcastToList(nodesManager.getAvailableNodes(), event, excludeNodeId, asyn);
+        return broadcastToList(nodeList, event, excludeNodeId, asyn);
     }
 
     public BroadcastResult broadcastToGroup(BaseEvent event, String groupName, boolean asyn) {
@@ -99,25 +107,15 @@ public class BroadcastHandler {
     }
 
     public BroadcastResult broadcastToNode(BaseEvent event, String nodeId, boolean asyn) {
-        try {
-            NulsMessage message = new NulsMessage(network.getPacketMagic(), event.serialize());
-            Node node = nodesManager.getNode(nodeId);
-            if (node == null) {
-                return new BroadcastResult(false, "node not found");
-            }
-            return broadcast(message, node, asyn);
-        } catch (IOException e) {
-            return new BroadcastResult(false, "event.serialize() error");
+        Node node = nodesManager.getNode(nodeId);
+        if (node == null) {
+            return new BroadcastResult(false, "node not found");
         }
+        return broadcast(event, node, asyn);
     }
 
     public BroadcastResult broadcastToNode(BaseEvent event, Node node, boolean asyn) {
-        try {
-            NulsMessage message = new NulsMessage(network.getPacketMagic(), event.serialize());
-            return broadcast(message, node, asyn);
-        } catch (IOException e) {
-            return new BroadcastResult(false, "event.serialize() error");
-        }
+        return broadcast(event, node, asyn);
     }
 
 //
@@ -335,56 +333,130 @@ public class BroadcastHandler {
 //    }
 
     private BroadcastResult broadcastToList(Collection<Node> nodeList, BaseEvent event, String excludeNodeId, boolean asyn) {
-        NulsMessage message;
-        BroadcastResult result = new BroadcastResult();
+        ByteBuf buffer;
         try {
-            message = new NulsMessage(network.getPacketMagic(), event.serialize());
-            int successCount = 0;
+            buffer = serializeMessage(event);
+        } catch (IOException e) {
+            return new BroadcastResult(false, "event.serialize() error");
+        }
+        try {
+            List<Node> sentNodes = new ArrayList<>();
+            List<ChannelFuture> futures = new ArrayList<>();
             for (Node node : nodeList) {
                 if (excludeNodeId != null && node.getId().equals(excludeNodeId)) {
                     continue;
                 }
-                BroadcastResult br = broadcast(message, node, asyn);
-                if (br.isSuccess()) {
-                    successCount++;
-                    result.getBroadcastNodes().add(node);
+                ChannelFuture future = write(buffer, node);
+                if (future != null) {
+                    sentNodes.add(node);
+                    futures.add(future);
                 }
             }
-            if (successCount == 0) {
-                return new BroadcastResult(false, "send message failed");
-            }
+            return collectResult(sentNodes, futures, asyn);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    private BroadcastResult broadcast(BaseEvent event, Node node, boolean asyn) {
+        ByteBuf buffer;
+        try {
+            buffer = serializeMessage(event);
         } catch (IOException e) {
             return new BroadcastResult(false, "event.serialize() error");
         }
-        result.setSuccess(true);
-        result.setMessage("OK");
-        return result;
+        try {
+            ChannelFuture future = write(buffer, node);
+            if (future == null) {
+                return new BroadcastResult(false, "node not found");
+            }
+            return collectResult(Collections.singletonList(node), Collections.singletonList(future), asyn);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * 把事件序列化为一个共享的消息缓冲区，每次广播只序列化一次
+     * Serialize the event into one shared message buffer, only once per broadcast
+     */
+    private ByteBuf serializeMessage(BaseEvent event) throws IOException {
+        NulsMessage message = new NulsMessage(network.getPacketMagic(), event.serialize());
+        return Unpooled.wrappedBuffer(message.serialize());
     }
 
-    private BroadcastResult broadcast(NulsMessage message, Node node, boolean asyn) throws IOException {
+    /**
+     * 向节点的通道写入共享缓冲区的一个retain的副本，节点不可用时返回null
+     * Write a retained duplicate of the shared buffer to the node's channel, returns null when the node is unavailable
+     */
+    private ChannelFuture write(ByteBuf buffer, Node node) {
+        if (!node.isAlive() && node.getChannelId() == null) {
+            return null;
+        }
+        SocketChannel channel = NioChannelMap.get(node.getChannelId());
+        if (channel == null) {
+            return null;
+        }
+        ByteBuf duplicate = buffer.retainedDuplicate();
         try {
-            if (!node.isAlive() && node.getChannelId() == null) {
-                return new BroadcastResult(false, "node not found");
+            return channel.writeAndFlush(duplicate);
+        } catch (Exception e) {
+            if (duplicate.refCnt() > 0) {
+                duplicate.release();
             }
-            SocketChannel channel = NioChannelMap.get(node.getChannelId());
-            if (channel == null) {
-                return new BroadcastResult(false, "node not found");
+            Log.error(e);
+            return null;
+        }
+    }
+
+    /**
+     * 同步广播时，等待所有写操作合并完成后再统计成功的节点，而不是逐个节点等待
+     * 在通道的IO线程中调用时，写操作只能在当前线程完成，不能等待，按异步广播处理；等待时间也有上限，超时未完成的节点不计入成功
+     * For a synchronous broadcast, wait on all writes as one combined future before counting the successful nodes,
+     * instead of waiting node by node.
+     * When called on the IO thread of a channel, the writes can only complete on this thread, so it does not wait and
+     * the broadcast is handled as an asynchronous one. The wait is bounded, the writes not done in time do not count.
+     */
+    private BroadcastResult collectResult(List<Node> sentNodes, List<ChannelFuture> futures, boolean asyn) {
+        if (sentNodes.isEmpty()) {
+            return new BroadcastResult(false, "send message failed");
+        }
+        BroadcastResult result = new BroadcastResult(true, "OK");
+        if (asyn || isInEventLoop(futures)) {
+            result.getBroadcastNodes().addAll(sentNodes);
+            return result;
+        }
+        CountDownLatch latch = new CountDownLatch(futures.size());
+        ChannelFutureListener listener = future -> latch.countDown();
+        for (ChannelFuture future : futures) {
+            future.addListener(listener);
+        }
+        try {
+            if (!latch.await(NetworkConstant.BROADCAST_WRITE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                Log.warn("broadcast writes not done in " + NetworkConstant.BROADCAST_WRITE_TIMEOUT + "ms");
             }
-            ChannelFuture future = channel.writeAndFlush(Unpooled.wrappedBuffer(message.serialize()));
-            if (!asyn) {
-                future.await();
-                boolean success = future.isSuccess();
-                if (!success) {
-                    return new BroadcastResult(false, "send message failed");
-                }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new BroadcastResult(false, "send message failed");
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            if (futures.get(i).isSuccess()) {
+                result.getBroadcastNodes().add(sentNodes.get(i));
             }
-        } catch (IOException e) {
-            throw e;
-        } catch (Exception e) {
-            Log.error(e);
+        }
+        if (result.getBroadcastNodes().isEmpty()) {
             return new BroadcastResult(false, "send message failed");
         }
-        return new BroadcastResult(true, "OK");
+        return result;
+    }
+
+    private boolean isInEventLoop(List<ChannelFuture> futures) {
+        for (ChannelFuture future : futures) {
+            if (future.channel().eventLoop().inEventLoop()) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public void setNetwork(NetworkParam network) {
@@ -23,6 +23,9 @@
  */
 package io.nuls.network.service.impl;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.nuls.core.constant.ErrorCode;
 import io.nuls.core.constant.NulsConstant;
 import io.nuls.core.exception.NulsException;
 import io.nuls.core.thread.manager.TaskManager;
@@ -108,17 +111,27 @@ public class ConnectionManager {
 
 
     public void receiveMessage(ByteBuffer buffer, Node node) {
+        buffer.flip();
+        try {
+            receiveMessage(Unpooled.wrappedBuffer(buffer), node);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Decode the messages straight from the frame, the buffer is released after the events are dispatched
+     * 直接从接收到的帧中解析消息，事件分发之后释放buffer
+     */
+    public void receiveMessage(ByteBuf buf, Node node) {
         List<NulsMessage> list;
         try {
-            buffer.flip();
             if (!node.isAlive()) {
-                buffer.clear();
                 return;
             }
             list = new ArrayList<>();
-            while (buffer.hasRemaining()) {
-                NulsMessage message = new NulsMessage(buffer);
-                list.add(message);
+            while (buf.isReadable()) {
+                list.add(readMessage(buf));
             }
             for (NulsMessage message : list) {
                 if (MessageFilterChain.getInstance().doFilter(message)) {
@@ -142,8 +155,26 @@ public class ConnectionManager {
             Log.error(e);
             return;
         } finally {
-            buffer.clear();
+            buf.release();
+        }
+    }
+
+    private NulsMessage readMessage(ByteBuf buf) throws NulsException {
+        if (buf.readableBytes() < NulsMessageHeader.MESSAGE_HEADER_SIZE) {
+            throw new NulsException(ErrorCode.NET_MESSAGE_LENGTH_ERROR);
+        }
+        int magicNumber = buf.readIntLE();
+        int length = buf.readIntLE();
+        byte xor = buf.readByte();
+        byte arithmetic = buf.readByte();
+        if (length < 0 || length > buf.readableBytes()) {
+            throw new NulsException(ErrorCode.NET_MESSAGE_LENGTH_ERROR);
         }
+        byte[] data = new byte[length];
+        buf.readBytes(data);
+        NulsMessage message = new NulsMessage(new NulsMessageHeader(magicNumber, length, xor, arithmetic));
+        message.setData(data);
+        return message;
     }
 
     private SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
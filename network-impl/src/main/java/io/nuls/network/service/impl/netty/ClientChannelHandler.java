@@ -14,7 +14,6 @@ import io.nuls.network.service.NetworkService;
 import io.nuls.protocol.context.NulsContext;
 
 import java.io.UnsupportedEncodingException;
-import java.nio.ByteBuffer;
 import java.util.Map;
 
 public class ClientChannelHandler extends ChannelInboundHandlerAdapter {
@@ -99,14 +98,11 @@ public class ClientChannelHandler extends ChannelInboundHandlerAdapter {
         String nodeId = IpUtil.getNodeId(channel.remoteAddress());
 //        Log.debug(" ---------------------- client channelRead ---------------------- " + nodeId);
         Node node = getNetworkService().getNode(nodeId);
+        ByteBuf buf = (ByteBuf) msg;
         if (node != null && node.isAlive()) {
-            ByteBuf buf = (ByteBuf) msg;
-            byte[] bytes = new byte[buf.readableBytes()];
-            buf.readBytes(bytes);
+            InboundMessageDispatcher.getInstance().dispatch(channel, buf, node);
+        } else {
             buf.release();
-            ByteBuffer buffer = ByteBuffer.allocate(bytes.length);
-            buffer.put(bytes);
-            getNetworkService().receiveMessage(buffer, node);
         }
     }
 
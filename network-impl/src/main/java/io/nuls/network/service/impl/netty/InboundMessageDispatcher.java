@@ -0,0 +1,106 @@
+package io.nuls.network.service.impl.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+import io.nuls.core.constant.NulsConstant;
+import io.nuls.core.thread.manager.NulsThreadFactory;
+import io.nuls.core.thread.manager.TaskManager;
+import io.nuls.core.utils.log.Log;
+import io.nuls.network.entity.Node;
+import io.nuls.network.entity.param.NetworkParam;
+import io.nuls.network.service.impl.ConnectionManager;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hand the received frames over to the decode workers, so the filtering and decoding do not block the IO threads.
+ * All the frames of a channel go to the same worker to keep their order.
+ * When the frames waiting for a channel reach the limit, the channel stops reading until half of them are processed.
+ *
+ * 把接收到的帧交给解码线程处理，避免过滤和解码阻塞IO线程。
+ * 同一个连接的帧总是交给同一个线程，保证处理顺序。
+ * 连接上等待处理的帧达到上限时，暂停读取，直到处理掉一半。
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class InboundMessageDispatcher {
+
+    private static final AttributeKey<AtomicInteger> PENDING_KEY = AttributeKey.valueOf("pendingFrames");
+
+    private static final InboundMessageDispatcher INSTANCE = new InboundMessageDispatcher();
+
+    private final ThreadPoolExecutor[] workers;
+
+    private final int maxPending;
+
+    private final int resumePending;
+
+    private InboundMessageDispatcher() {
+        NetworkParam param = NetworkParam.getInstance();
+        this.maxPending = Math.max(param.getPeerQueueSize(), 1);
+        this.resumePending = this.maxPending / 2;
+        this.workers = new ThreadPoolExecutor[Math.max(param.getDecodeThreadCount(), 1)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = TaskManager.createThreadPool(1, 0, new NulsThreadFactory(NulsConstant.MODULE_ID_NETWORK, "network-decode-" + i));
+        }
+    }
+
+    public static InboundMessageDispatcher getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * The buffer is released by the worker after the messages are dispatched
+     * 消息分发之后由解码线程释放buffer
+     */
+    public void dispatch(Channel channel, ByteBuf buf, Node node) {
+        AtomicInteger pending = getPending(channel);
+        if (pending.incrementAndGet() >= maxPending) {
+            channel.config().setAutoRead(false);
+            //the worker may have drained the queue before the channel was paused
+            if (pending.get() <= resumePending) {
+                channel.config().setAutoRead(true);
+            }
+        }
+        ThreadPoolExecutor worker = workers[(channel.id().hashCode() & Integer.MAX_VALUE) % workers.length];
+        try {
+            worker.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        ConnectionManager.getInstance().receiveMessage(buf, node);
+                    } catch (Exception e) {
+                        Log.error(e);
+                    } finally {
+                        processed(channel, pending);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            Log.error(e);
+            buf.release();
+            processed(channel, pending);
+        }
+    }
+
+    private void processed(Channel channel, AtomicInteger pending) {
+        if (pending.decrementAndGet() <= resumePending && !channel.config().isAutoRead()) {
+            channel.config().setAutoRead(true);
+        }
+    }
+
+    private AtomicInteger getPending(Channel channel) {
+        AtomicInteger pending = channel.attr(PENDING_KEY).get();
+        if (null == pending) {
+            pending = new AtomicInteger();
+            AtomicInteger old = channel.attr(PENDING_KEY).setIfAbsent(pending);
+            if (null != old) {
+                pending = old;
+            }
+        }
+        return pending;
+    }
+}
@@ -17,7 +17,6 @@ import io.nuls.protocol.model.Block;
 
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.nio.ByteBuffer;
 import java.util.Map;
 
 /**
@@ -128,14 +127,11 @@ public class ServerChannelHandler extends ChannelInboundHandlerAdapter {
         String nodeId = IpUtil.getNodeId(channel.remoteAddress());
 //        Log.debug(" ---------------------- server channelRead ------------------------- " + nodeId);
         Node node = getNetworkService().getNode(nodeId);
+        ByteBuf buf = (ByteBuf) msg;
         if (node != null && node.isAlive()) {
-            ByteBuf buf = (ByteBuf) msg;
-            byte[] bytes = new byte[buf.readableBytes()];
-            buf.readBytes(bytes);
+            InboundMessageDispatcher.getInstance().dispatch(channel, buf, node);
+        } else {
             buf.release();
-            ByteBuffer buffer = ByteBuffer.allocate(bytes.length);
-            buffer.put(bytes);
-            getNetworkService().receiveMessage(buffer, node);
         }
     }
 
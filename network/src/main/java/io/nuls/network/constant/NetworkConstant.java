@@ -45,6 +45,8 @@ public interface NetworkConstant {
     String NETWORK_NODE_MAX_IN = "network.max.in";
     String NETWORK_NODE_MAX_OUT = "network.max.out";
     String NETWORK_SEED_IP = "network.seed.ip";
+    String NETWORK_DECODE_THREADS = "network.decode.threads";
+    String NETWORK_PEER_QUEUE_SIZE = "network.peer.queue.size";
 
     String NETWORK_NODE_IN_GROUP = "inNodes";
     String NETWORK_NODE_OUT_GROUP = "outNodes";
@@ -65,4 +67,9 @@ public interface NetworkConstant {
 
     int HANDSHAKE_SEVER_TYPE = 2;
     int HANDSHAKE_CLIENT_TYPE = 1;
+
+    /**
+     * Longest wait of a synchronous broadcast for its writes, in milliseconds
+     */
+    long BROADCAST_WRITE_TIMEOUT = 10000L;
 }
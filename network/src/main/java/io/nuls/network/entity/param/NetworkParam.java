@@ -49,6 +49,8 @@ public class NetworkParam {
         this.packetMagic = NulsConfig.MODULES_CONFIG.getCfgValue(NetworkConstant.NETWORK_SECTION, NetworkConstant.NETWORK_MAGIC, 123456789);
         this.maxInCount = NulsConfig.MODULES_CONFIG.getCfgValue(NetworkConstant.NETWORK_SECTION, NetworkConstant.NETWORK_NODE_MAX_IN, 50);
         this.maxOutCount = NulsConfig.MODULES_CONFIG.getCfgValue(NetworkConstant.NETWORK_SECTION, NetworkConstant.NETWORK_NODE_MAX_OUT, 10);
+        this.decodeThreadCount = NulsConfig.MODULES_CONFIG.getCfgValue(NetworkConstant.NETWORK_SECTION, NetworkConstant.NETWORK_DECODE_THREADS, Runtime.getRuntime().availableProcessors());
+        this.peerQueueSize = NulsConfig.MODULES_CONFIG.getCfgValue(NetworkConstant.NETWORK_SECTION, NetworkConstant.NETWORK_PEER_QUEUE_SIZE, 64);
 
         this.localIps = IpUtil.getIps();
         this.seedIpList = new ArrayList<>();
@@ -70,6 +72,16 @@ public class NetworkParam {
 
     private int maxOutCount;
 
+    /**
+     * threads decoding the received messages
+     */
+    private int decodeThreadCount;
+
+    /**
+     * frames waiting to be decoded for each peer, the peer stops reading when it is full
+     */
+    private int peerQueueSize;
+
     private NulsMessageFilter messageFilter;
 
     private NetworkEventHandlerFactory messageHandlerFactory;
@@ -110,6 +122,22 @@ public class NetworkParam {
         this.maxOutCount = maxOutCount;
     }
 
+    public int getDecodeThreadCount() {
+        return decodeThreadCount;
+    }
+
+    public void setDecodeThreadCount(int decodeThreadCount) {
+        this.decodeThreadCount = decodeThreadCount;
+    }
+
+    public int getPeerQueueSize() {
+        return peerQueueSize;
+    }
+
+    public void setPeerQueueSize(int peerQueueSize) {
+        this.peerQueueSize = peerQueueSize;
+    }
+
     public NulsMessageFilter getMessageFilter() {
         return messageFilter;
     }
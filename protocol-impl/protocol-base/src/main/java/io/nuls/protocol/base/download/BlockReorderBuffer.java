@@ -0,0 +1,79 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.nuls.protocol.base.download;
+
+import io.nuls.protocol.model.Block;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * 下载区块的重排序缓冲区，乱序完成的批次在这里等待，按高度连续地交给存储队列
+ * Reorder buffer of downloaded blocks, batches completed out of order wait here and are handed to the storage queue
+ * contiguously in height order
+ *
+ * Created by agent on 2026/10/18.
+ */
+public class BlockReorderBuffer {
+
+    private final TreeMap<Long, Block> pending = new TreeMap<>();
+    private long nextHeight;
+
+    public BlockReorderBuffer(long nextHeight) {
+        this.nextHeight = nextHeight;
+    }
+
+    public void add(List<Block> blockList) {
+        for (Block block : blockList) {
+            long height = block.getHeader().getHeight();
+            if (height >= nextHeight) {
+                pending.put(height, block);
+            }
+        }
+    }
+
+    /**
+     * 取出从下一个待交付高度开始的连续区块
+     * Take out the contiguous blocks starting at the next height to be delivered
+     */
+    public List<Block> drain() {
+        List<Block> list = new ArrayList<>();
+        Block block;
+        while ((block = pending.remove(nextHeight)) != null) {
+            list.add(block);
+            nextHeight++;
+        }
+        return list;
+    }
+
+    public long getNextHeight() {
+        return nextHeight;
+    }
+
+    public int size() {
+        return pending.size();
+    }
+}
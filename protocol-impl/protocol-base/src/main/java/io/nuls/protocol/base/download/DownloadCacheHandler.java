@@ -28,6 +28,8 @@ import io.nuls.protocol.constant.NotFoundType;
 import io.nuls.protocol.event.entity.BlockHashResponse;
 import io.nuls.protocol.event.entity.NotFound;
 import io.nuls.protocol.model.Block;
+import io.nuls.protocol.model.NulsDigestData;
+import io.nuls.protocol.model.NulsDigestKey;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -40,61 +42,76 @@ public class DownloadCacheHandler {
 
     //TODO 定期清除缓存，否则内存有可能被撑爆
 
-    private static Map<String, CompletableFuture<Block>> blockCacher = new HashMap<>();
-    private static Map<String, CompletableFuture<BlockHashResponse>> blockHashesCacher = new HashMap<>();
-
-    public static CompletableFuture<Block> addGetBlockRequest(String blockHash) {
-
-        CompletableFuture<Block> future = new CompletableFuture<>();
-
-        blockCacher.put(blockHash, future);
-
-        return future;
+    /**
+     * 按hash和请求的节点id保存等待方。批次被重新分配给其它节点时原来的请求仍然保留，每个节点的应答只完成自己的请求，
+     * 由下载线程管理器决定先返回的结果生效
+     * The waiters by hash and the id of the requested node. A range reassigned to another node keeps the original
+     * request, the reply of each node only completes its own request, and the download thread manager lets the first
+     * result returned win
+     */
+    private static Map<NulsDigestKey, Map<String, CompletableFuture<Block>>> blockCacher = new HashMap<>();
+    private static Map<NulsDigestKey, Map<String, CompletableFuture<BlockHashResponse>>> blockHashesCacher = new HashMap<>();
+
+    public static CompletableFuture<Block> addGetBlockRequest(String nodeId, NulsDigestData blockHash) {
+        return addRequest(blockCacher, blockHash.getDigestKey(), nodeId);
     }
 
-    public static void receiveBlock(Block block) {
-        String hash = block.getHeader().getHash().getDigestHex();
-        CompletableFuture<Block> future = blockCacher.get(hash);
-        if (future != null) {
-            future.complete(block);
-            blockCacher.remove(hash);
-        }
+    public static void receiveBlock(String nodeId, Block block) {
+        complete(blockCacher, block.getHeader().getHash().getDigestKey(), nodeId, block);
     }
 
-    public static CompletableFuture<BlockHashResponse> addGetBlockHashesRequest(String requestHash) {
-
-        CompletableFuture<BlockHashResponse> future = new CompletableFuture<>();
-
-        blockHashesCacher.put(requestHash, future);
-
-        return future;
+    public static CompletableFuture<BlockHashResponse> addGetBlockHashesRequest(String nodeId, NulsDigestData requestHash) {
+        return addRequest(blockHashesCacher, requestHash.getDigestKey(), nodeId);
     }
 
-    public static void receiveHashes(BlockHashResponse hashes) {
-        String key = hashes.getRequestEventHash().getDigestHex();
-        CompletableFuture<BlockHashResponse> future = blockHashesCacher.get(key);
-        if (future != null) {
-            future.complete(hashes);
-            blockHashesCacher.remove(key);
-        }
+    public static void receiveHashes(String nodeId, BlockHashResponse hashes) {
+        complete(blockHashesCacher, hashes.getRequestEventHash().getDigestKey(), nodeId, hashes);
     }
 
-    public static void notFoundBlock(NotFound data) {
-        String hash = data.getHash().getDigestHex();
+    public static void notFoundBlock(String nodeId, NotFound data) {
+        NulsDigestKey hash = data.getHash().getDigestKey();
         if (data.getType()== NotFoundType.BLOCK) {
-            CompletableFuture<Block> future = blockCacher.get(hash);
-            if (future != null) {
-                future.complete(null);
-                blockCacher.remove(hash);
-            }
+            complete(blockCacher, hash, nodeId, null);
         }else if(data.getType()==NotFoundType.TRANSACTION){
             //todo
         }else if(data.getType()==NotFoundType.HASHES){
-            CompletableFuture<BlockHashResponse> future = blockHashesCacher.get(hash);
-            if (future != null) {
-                future.complete(null);
-                blockHashesCacher.remove(hash);
+            complete(blockHashesCacher, hash, nodeId, null);
+        }
+    }
+
+    private static <T> CompletableFuture<T> addRequest(Map<NulsDigestKey, Map<String, CompletableFuture<T>>> cacher, NulsDigestKey key, String nodeId) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        CompletableFuture<T> previous;
+        synchronized (cacher) {
+            Map<String, CompletableFuture<T>> waiters = cacher.get(key);
+            if (waiters == null) {
+                waiters = new HashMap<>();
+                cacher.put(key, waiters);
             }
+            previous = waiters.put(nodeId, future);
+        }
+        if (previous != null) {
+            // the same node is asked again, the older request of this node is given up
+            // 同一个节点被再次请求，放弃该节点之前的请求
+            previous.complete(null);
+        }
+        return future;
+    }
+
+    private static <T> void complete(Map<NulsDigestKey, Map<String, CompletableFuture<T>>> cacher, NulsDigestKey key, String nodeId, T value) {
+        CompletableFuture<T> future;
+        synchronized (cacher) {
+            Map<String, CompletableFuture<T>> waiters = cacher.get(key);
+            if (waiters == null) {
+                return;
+            }
+            future = waiters.remove(nodeId);
+            if (waiters.isEmpty()) {
+                cacher.remove(key);
+            }
+        }
+        if (future != null) {
+            future.complete(value);
         }
     }
 }
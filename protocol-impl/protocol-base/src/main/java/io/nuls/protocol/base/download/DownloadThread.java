@@ -24,6 +24,7 @@
 
 package io.nuls.protocol.base.download;
 
+import io.nuls.core.utils.date.TimeService;
 import io.nuls.core.utils.log.Log;
 import io.nuls.network.entity.Node;
 import io.nuls.protocol.model.Block;
@@ -56,6 +57,7 @@ public class DownloadThread implements Callable<ResultMessage> {
     public ResultMessage call() throws Exception {
 
         List<Block> blockList = null;
+        long startTime = TimeService.currentTimeMillis();
         try {
             Log.info("download thread : " + Thread.currentThread().getName() + " ,  startHeight : " + startHeight + ", size : " + size + " , from node : " + node.getId() + " , startHash : " + startHash + " , endHash : " + endHash);
             blockList = downloadUtils.getBlocks(node, startHash, endHash, startHeight, size);
@@ -63,6 +65,8 @@ public class DownloadThread implements Callable<ResultMessage> {
         } catch (Exception e) {
             Log.error(e.getMessage());
         }
-        return new ResultMessage(startHash, endHash, startHeight, size, node, blockList);
+        ResultMessage result = new ResultMessage(startHash, endHash, startHeight, size, node, blockList);
+        result.setCostTime(TimeService.currentTimeMillis() - startTime);
+        return result;
     }
 }
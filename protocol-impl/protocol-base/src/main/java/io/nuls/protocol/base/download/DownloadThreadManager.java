@@ -35,20 +35,19 @@ import io.nuls.core.exception.NulsRuntimeException;
 import io.nuls.core.thread.manager.NulsThreadFactory;
 import io.nuls.core.thread.manager.TaskManager;
 import io.nuls.core.utils.calc.DoubleUtils;
+import io.nuls.core.utils.date.TimeService;
 import io.nuls.core.utils.log.Log;
 import io.nuls.core.utils.queue.service.impl.QueueService;
 import io.nuls.network.entity.Node;
 import io.nuls.network.service.NetworkService;
 import io.nuls.poc.service.intf.ConsensusService;
+import io.nuls.protocol.base.download.entity.DownloadRange;
+import io.nuls.protocol.base.download.entity.NodeDownloadStats;
 import io.nuls.protocol.context.NulsContext;
 import io.nuls.protocol.model.Block;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.FutureTask;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Created by ln on 2018/4/8.
@@ -64,7 +63,13 @@ public class DownloadThreadManager implements Callable<Boolean> {
     private QueueService<Block> blockQueue;
     private String queueName;
 
-    private int maxDowncount = 100;
+    /**
+     * 下载窗口相当于每个节点多少个默认批次
+     * how many default batches per node the download window holds
+     */
+    private static final int WINDOW_BATCHES_PER_NODE = 4;
+    private static final int MAX_NODE_FAILED_COUNT = 3;
+    private static final long POLL_INTERVAL_MILLIS = 1000L;
 
     public DownloadThreadManager(NetworkNewestBlockInfos newestInfos, QueueService<Block> blockQueue, String queueName) {
         this.newestInfos = newestInfos;
@@ -94,111 +99,174 @@ public class DownloadThreadManager implements Callable<Boolean> {
 
         ThreadPoolExecutor executor = TaskManager.createThreadPool(nodes.size(), 0,
                 new NulsThreadFactory(NulsConstant.MODULE_ID_CONSENSUS, "download-thread"));
+        CompletionService<ResultMessage> completionService = new ExecutorCompletionService<>(executor);
+
+        List<NodeDownloadStats> peers = new ArrayList<>();
+        Map<String, NodeDownloadStats> peerMap = new HashMap<>();
+        for (Node node : nodes) {
+            NodeDownloadStats stats = new NodeDownloadStats(node);
+            peers.add(stats);
+            peerMap.put(node.getId(), stats);
+        }
 
-        List<FutureTask<ResultMessage>> futures = new ArrayList<>();
-
-        long totalCount = netBestHeight - localBestHeight;
-
-        long laveCount = totalCount;
-
-        long downCount = (long) Math.ceil((double) totalCount / (maxDowncount * nodes.size()));
-
-        for(long i = 0 ; i < downCount ; i++) {
-
-            long startHeight = (localBestHeight + 1) + i * maxDowncount * nodes.size();
-
-            for(int j = 0 ; j < nodes.size() ; j ++) {
+        //窗口限制了已分配但还没交付的高度范围，也就限制了重排序缓冲区的大小
+        //The window limits the heights assigned but not yet delivered, and so the size of the reorder buffer
+        long windowSize = (long) NodeDownloadStats.DEFAULT_BATCH_SIZE * WINDOW_BATCHES_PER_NODE * nodes.size();
+        int maxRangeFailed = nodes.size() + 1;
 
-                long start = startHeight + j * maxDowncount;
-                int size = maxDowncount;
+        BlockReorderBuffer reorderBuffer = new BlockReorderBuffer(localBestHeight + 1);
+        Map<Long, DownloadRange> runningRanges = new HashMap<>();
+        PriorityQueue<DownloadRange> retryRanges = new PriorityQueue<>();
+        long nextHeight = localBestHeight + 1;
+        int runningCount = 0;
 
-                boolean isEnd = false;
-                if(start + size >= netBestHeight) {
-                    size = (int) (netBestHeight - start) + 1;
-                    isEnd = true;
+        try {
+            while (reorderBuffer.getNextHeight() <= netBestHeight) {
+                //把空闲节点按吞吐量从高到低排序，最快的节点优先领取重试和超时的批次
+                //Sort idle nodes by throughput from high to low, the fastest ones take the retried and timed out ranges first
+                peers.sort((o1, o2) -> Double.compare(o2.getBlocksPerSecond(), o1.getBlocksPerSecond()));
+                long now = TimeService.currentTimeMillis();
+                int activeCount = 0;
+                for (NodeDownloadStats peer : peers) {
+                    if (peer.getFailedCount() < MAX_NODE_FAILED_COUNT) {
+                        activeCount++;
+                    }
                 }
-
-                DownloadThread downloadThread = new DownloadThread(localBestHash, netBestHash, start, size, nodes.get(j));
-
-                FutureTask<ResultMessage> downloadThreadFuture = new FutureTask<ResultMessage>(downloadThread);
-                executor.execute(new Thread(downloadThreadFuture));
-
-                futures.add(downloadThreadFuture);
-
-                if(isEnd) {
-                    break;
+                for (NodeDownloadStats peer : peers) {
+                    if (peer.isBusy() || peer.getFailedCount() >= MAX_NODE_FAILED_COUNT) {
+                        continue;
+                    }
+                    DownloadRange range = pollRetryRange(retryRanges, peer, activeCount);
+                    if (range == null) {
+                        range = findTimeoutRange(runningRanges, peerMap, peer, now);
+                    }
+                    if (range == null) {
+                        long windowEnd = Math.min(netBestHeight, reorderBuffer.getNextHeight() + windowSize - 1);
+                        if (nextHeight > windowEnd) {
+                            continue;
+                        }
+                        int size = (int) Math.min(peer.getBatchSize(), windowEnd - nextHeight + 1);
+                        range = new DownloadRange(nextHeight, size);
+                        nextHeight += size;
+                        runningRanges.put(range.getStartHeight(), range);
+                    }
+                    if (range.getNodeIdSet().isEmpty()) {
+                        range.setDispatchTime(now);
+                    }
+                    range.getNodeIdSet().add(peer.getNode().getId());
+                    peer.setBusy(true);
+                    completionService.submit(new DownloadThread(localBestHash, netBestHash, range.getStartHeight(), range.getSize(), peer.getNode()));
+                    runningCount++;
                 }
-            }
-        }
 
-        for (FutureTask<ResultMessage> task : futures) {
-            ResultMessage result = null;
-            try {
-                result = task.get();
-            } catch (Exception e) {
-                Log.error(e);
-            }
-            List<Block> blockList = null;
-
-            if(result == null || (blockList = result.getBlockList()) == null || blockList.size() == 0) {
-                blockList = retryDownload(executor, result);
-            }
+                if (runningCount == 0) {
+                    resetNetwork("attempts to download blocks from all available nodes failed");
+                }
 
-            if(blockList == null) {
-                executor.shutdown();
-                resetNetwork("attempts to download blocks from all available nodes failed");
-                return true;
-            }
+                Future<ResultMessage> future = completionService.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (future == null) {
+                    continue;
+                }
+                runningCount--;
+                ResultMessage result = future.get();
+                NodeDownloadStats peer = peerMap.get(result.getNode().getId());
+                peer.setBusy(false);
+
+                DownloadRange range = runningRanges.get(result.getStartHeight());
+                if (range == null) {
+                    //另一个节点已经先完成了这个批次
+                    //another node has already completed this range
+                    if (isComplete(result)) {
+                        peer.recordSuccess(result.getSize(), result.getCostTime());
+                    }
+                    continue;
+                }
+                range.getNodeIdSet().remove(peer.getNode().getId());
+
+                if (isComplete(result)) {
+                    peer.recordSuccess(result.getSize(), result.getCostTime());
+                    range.setDone(true);
+                    runningRanges.remove(range.getStartHeight());
+                    reorderBuffer.add(result.getBlockList());
+                    for (Block block : reorderBuffer.drain()) {
+                        blockQueue.offer(queueName, block);
+                    }
+                    continue;
+                }
 
-            for(Block block : blockList) {
-                blockQueue.offer(queueName, block);
+                peer.recordFailure();
+                range.getFailedNodeIdSet().add(peer.getNode().getId());
+                if (!range.getNodeIdSet().isEmpty()) {
+                    continue;
+                }
+                range.setFailedCount(range.getFailedCount() + 1);
+                if (range.getFailedCount() > maxRangeFailed) {
+                    resetNetwork("attempts to download blocks from all available nodes failed");
+                }
+                retryRanges.offer(range);
             }
+        } finally {
+            executor.shutdown();
         }
-        executor.shutdown();
 
         return true;
     }
 
-    private List<Block> retryDownload(ThreadPoolExecutor executor, ResultMessage result) throws InterruptedException, ExecutionException {
-
-        //try download to other nodes
-        List<Node> otherNodes = new ArrayList<>();
-
-        Node defultNode = result.getNode();
-
-        for(Node node : newestInfos.getNodes()) {
-            if(!node.getId().equals(defultNode.getId())) {
-                otherNodes.add(node);
-            }
+    private boolean isComplete(ResultMessage result) {
+        List<Block> blockList = result.getBlockList();
+        if (blockList == null || blockList.size() != result.getSize() || blockList.isEmpty()) {
+            return false;
         }
+        return blockList.get(0).getHeader().getHeight() == result.getStartHeight() &&
+                blockList.get(blockList.size() - 1).getHeader().getHeight() == result.getStartHeight() + result.getSize() - 1;
+    }
 
-        for(Node node : otherNodes) {
-            result.setNode(node);
-            List<Block> blockList = downloadBlockFromNode(executor, result);
-            if(blockList != null && blockList.size() > 0) {
-                return blockList;
-            }
+    /**
+     * 取出高度最低的失败批次，优先交给还没有在这个批次上失败过的节点，所有可用节点都失败过时重新开始轮换
+     * Take the lowest failed range, preferring nodes that have not failed on it yet; once every active node has failed on it
+     * the rotation starts over
+     */
+    private DownloadRange pollRetryRange(PriorityQueue<DownloadRange> retryRanges, NodeDownloadStats peer, int activeCount) {
+        DownloadRange range = retryRanges.peek();
+        if (range == null) {
+            return null;
         }
-
-        //if fail , down again
-        result.setNode(defultNode);
-
-        return downloadBlockFromNode(executor, result);
+        Set<String> failedNodeIdSet = range.getFailedNodeIdSet();
+        if (failedNodeIdSet.size() >= activeCount) {
+            failedNodeIdSet.clear();
+        }
+        if (failedNodeIdSet.contains(peer.getNode().getId())) {
+            return null;
+        }
+        return retryRanges.poll();
     }
 
-    private List<Block> downloadBlockFromNode(ThreadPoolExecutor executor, ResultMessage result) throws ExecutionException, InterruptedException {
-        DownloadThread downloadThread = new DownloadThread(result.getStartHash(), result.getEndHash(), result.getStartHeight(), result.getSize(), result.getNode());
-
-        FutureTask<ResultMessage> downloadThreadFuture = new FutureTask<ResultMessage>(downloadThread);
-        executor.execute(new Thread(downloadThreadFuture));
-
-        List<Block> blockList = null;
-        try {
-            blockList = downloadThreadFuture.get().getBlockList();
-        } catch (Exception e) {
-            Log.error(e);
+    /**
+     * 找一个已经超时、并且可以重新分配给更快节点的批次，原来的请求仍然保留，先返回的结果生效
+     * Find a timed out range that can be reassigned to a faster node, the original request is kept and the first result
+     * returned wins
+     */
+    private DownloadRange findTimeoutRange(Map<Long, DownloadRange> runningRanges, Map<String, NodeDownloadStats> peerMap, NodeDownloadStats peer, long now) {
+        DownloadRange timeoutRange = null;
+        for (DownloadRange range : runningRanges.values()) {
+            if (range.isDone() || range.getNodeIdSet().isEmpty() || range.getNodeIdSet().size() > 1) {
+                continue;
+            }
+            NodeDownloadStats owner = peerMap.get(range.getNodeIdSet().iterator().next());
+            if (owner == null || (peer.getBlocksPerSecond() >= 0 && owner.getBlocksPerSecond() >= peer.getBlocksPerSecond())) {
+                continue;
+            }
+            if (now - range.getDispatchTime() < owner.getTimeoutMillis(range.getSize())) {
+                continue;
+            }
+            if (timeoutRange == null || range.getStartHeight() < timeoutRange.getStartHeight()) {
+                timeoutRange = range;
+            }
+        }
+        if (timeoutRange != null) {
+            peerMap.get(timeoutRange.getNodeIdSet().iterator().next()).recordTimeout();
         }
-        return blockList;
+        return timeoutRange;
     }
 
     private boolean checkFirstBlock() throws NulsException {
@@ -95,9 +95,10 @@ public class DownloadUtils {
         List<Block> resultList = new ArrayList<Block>();
 
         if (startHash.equals(endHash)) {
+            NulsDigestData endDigest = NulsDigestData.fromDigestHex(endHash);
             GetBlockRequest request = new GetBlockRequest(startHeight, (long) size,
-                    NulsDigestData.fromDigestHex(startHash), NulsDigestData.fromDigestHex(endHash));
-            Future<Block> future = DownloadCacheHandler.addGetBlockRequest(endHash);
+                    NulsDigestData.fromDigestHex(startHash), endDigest);
+            Future<Block> future = DownloadCacheHandler.addGetBlockRequest(node.getId(), endDigest);
             BroadcastResult result = networkService.sendToNode(request, node.getId(), false);
             if (!result.isSuccess()) {
                 return resultList;
@@ -114,7 +115,7 @@ public class DownloadUtils {
             }
         } else {
             GetBlocksHashRequest hashesRequest = new GetBlocksHashRequest(startHeight, size);
-            Future<BlockHashResponse> hashesFuture = DownloadCacheHandler.addGetBlockHashesRequest(hashesRequest.getHash().getDigestHex());
+            Future<BlockHashResponse> hashesFuture = DownloadCacheHandler.addGetBlockHashesRequest(node.getId(), hashesRequest.getHash());
             BroadcastResult hashesResult = networkService.sendToNode(hashesRequest, node.getId(), false);
             if (!hashesResult.isSuccess()) {
                 return resultList;
@@ -135,7 +136,7 @@ public class DownloadUtils {
                     response.getHashList().get(0), response.getBestHash());
             List<Future<Block>> futureList = new ArrayList<>();
             for (NulsDigestData hash : response.getHashList()) {
-                Future<Block> future = DownloadCacheHandler.addGetBlockRequest(hash.getDigestHex());
+                Future<Block> future = DownloadCacheHandler.addGetBlockRequest(node.getId(), hash);
                 futureList.add(future);
             }
             BroadcastResult result = networkService.sendToNode(request, node.getId(), false);
@@ -41,6 +41,8 @@ public class ResultMessage {
 
     private List<Block> blockList;
 
+    private long costTime;
+
     public ResultMessage(String startHash, String endHash, long startHeight, int size, Node node, List<Block> blockList) {
         this.startHash = startHash;
         this.endHash = endHash;
@@ -97,4 +99,12 @@ public class ResultMessage {
     public void setBlockList(List<Block> blockList) {
         this.blockList = blockList;
     }
+
+    public long getCostTime() {
+        return costTime;
+    }
+
+    public void setCostTime(long costTime) {
+        this.costTime = costTime;
+    }
 }
@@ -0,0 +1,96 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.nuls.protocol.base.download.entity;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 一段连续高度的下载任务，超时后可以同时分配给多个节点，先返回的结果生效
+ * A download task over a contiguous height range; after a timeout it may be assigned to several nodes at once, and the
+ * first result returned wins
+ *
+ * Created by agent on 2026/10/18.
+ */
+public class DownloadRange implements Comparable<DownloadRange> {
+
+    private final long startHeight;
+    private final int size;
+    private final Set<String> nodeIdSet = new HashSet<>();
+    private final Set<String> failedNodeIdSet = new HashSet<>();
+    private long dispatchTime;
+    private int failedCount;
+    private boolean done;
+
+    public DownloadRange(long startHeight, int size) {
+        this.startHeight = startHeight;
+        this.size = size;
+    }
+
+    @Override
+    public int compareTo(DownloadRange o) {
+        return Long.compare(startHeight, o.startHeight);
+    }
+
+    public long getStartHeight() {
+        return startHeight;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public Set<String> getNodeIdSet() {
+        return nodeIdSet;
+    }
+
+    public Set<String> getFailedNodeIdSet() {
+        return failedNodeIdSet;
+    }
+
+    public long getDispatchTime() {
+        return dispatchTime;
+    }
+
+    public void setDispatchTime(long dispatchTime) {
+        this.dispatchTime = dispatchTime;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(int failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public void setDone(boolean done) {
+        this.done = done;
+    }
+}
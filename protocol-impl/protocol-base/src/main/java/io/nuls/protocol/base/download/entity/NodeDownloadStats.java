@@ -0,0 +1,126 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.nuls.protocol.base.download.entity;
+
+import io.nuls.network.entity.Node;
+
+/**
+ * 单个节点的下载统计，根据实测吞吐量决定分配给它的批次大小和超时时间
+ * Download statistics of one node, the measured throughput decides the batch size and timeout assigned to it
+ *
+ * Created by agent on 2026/10/18.
+ */
+public class NodeDownloadStats {
+
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final int MIN_BATCH_SIZE = 10;
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * 一个批次期望的下载耗时
+     * the expected download time of one batch
+     */
+    private static final long TARGET_BATCH_MILLIS = 5000L;
+    private static final long MIN_TIMEOUT_MILLIS = 15000L;
+    private static final double SMOOTHING = 0.5d;
+
+    private final Node node;
+
+    /**
+     * 平滑后的吞吐量（区块/秒），小于0表示还没有样本
+     * smoothed throughput in blocks per second, negative means there is no sample yet
+     */
+    private double blocksPerSecond = -1d;
+    private int failedCount;
+    private boolean busy;
+
+    public NodeDownloadStats(Node node) {
+        this.node = node;
+    }
+
+    public void recordSuccess(int blockCount, long costMillis) {
+        double sample = blockCount * 1000d / Math.max(1L, costMillis);
+        if (blocksPerSecond < 0) {
+            blocksPerSecond = sample;
+        } else {
+            blocksPerSecond = SMOOTHING * sample + (1 - SMOOTHING) * blocksPerSecond;
+        }
+        failedCount = 0;
+    }
+
+    public void recordFailure() {
+        failedCount++;
+        recordTimeout();
+    }
+
+    /**
+     * 超时的节点吞吐量减半，下一批次会更小
+     * A timed out node has its throughput halved, so its next batch is smaller
+     */
+    public void recordTimeout() {
+        if (blocksPerSecond > 0) {
+            blocksPerSecond = blocksPerSecond / 2;
+        }
+    }
+
+    public int getBatchSize() {
+        if (blocksPerSecond < 0) {
+            return DEFAULT_BATCH_SIZE;
+        }
+        long size = Math.round(blocksPerSecond * TARGET_BATCH_MILLIS / 1000d);
+        return (int) Math.max(MIN_BATCH_SIZE, Math.min(MAX_BATCH_SIZE, size));
+    }
+
+    /**
+     * 按实测吞吐量估算下载指定数量区块的超时时间，为期望耗时的3倍
+     * Estimate the timeout for downloading the given number of blocks from the measured throughput, three times the expected cost
+     */
+    public long getTimeoutMillis(int blockCount) {
+        if (blocksPerSecond <= 0) {
+            return Math.max(MIN_TIMEOUT_MILLIS, blockCount * 3 * TARGET_BATCH_MILLIS / DEFAULT_BATCH_SIZE);
+        }
+        return Math.max(MIN_TIMEOUT_MILLIS, (long) (blockCount * 3000d / blocksPerSecond));
+    }
+
+    public Node getNode() {
+        return node;
+    }
+
+    public double getBlocksPerSecond() {
+        return blocksPerSecond;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public boolean isBusy() {
+        return busy;
+    }
+
+    public void setBusy(boolean busy) {
+        this.busy = busy;
+    }
+}
@@ -43,6 +43,6 @@ public class BlockEventHandler extends AbstractEventHandler<BlockEvent> {
             return;
         }
 
-        DownloadCacheHandler.receiveBlock(block);
+        DownloadCacheHandler.receiveBlock(fromId, block);
     }
 }
@@ -43,6 +43,6 @@ public class BlocksHashHandler extends AbstractEventHandler<BlocksHashEvent> {
 //        }
 
 
-        DownloadCacheHandler.receiveHashes(event.getEventBody());
+        DownloadCacheHandler.receiveHashes(fromId, event.getEventBody());
     }
 }
@@ -60,7 +60,7 @@ public class GetTxGroupHandler extends AbstractEventHandler<GetTxGroupRequest> {
 
         for (NulsDigestData hash : event.getEventBody().getTxHashList()) {
 
-            Transaction tx = temporaryCacheManager.getTx(hash.getDigestHex());
+            Transaction tx = temporaryCacheManager.getTx(hash);
             if (tx == null) {
                 tx = ledgerService.getTx(hash);
             }
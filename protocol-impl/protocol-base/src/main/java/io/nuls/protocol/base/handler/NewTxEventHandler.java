@@ -28,8 +28,10 @@ import io.nuls.core.constant.SeverityLevelEnum;
 import io.nuls.core.utils.log.Log;
 import io.nuls.core.validate.ValidateResult;
 import io.nuls.db.entity.NodePo;
-import io.nuls.event.bus.handler.AbstractEventHandler;
+import io.nuls.event.bus.constant.EventBusConstant;
+import io.nuls.event.bus.handler.AbstractEventBatchHandler;
 import io.nuls.event.bus.service.intf.EventBroadcaster;
+import io.nuls.ledger.entity.BlockValidateContext;
 import io.nuls.ledger.service.intf.LedgerService;
 import io.nuls.network.service.NetworkService;
 import io.nuls.poc.service.intf.ConsensusService;
@@ -37,77 +39,146 @@ import io.nuls.protocol.cache.TemporaryCacheManager;
 import io.nuls.protocol.constant.TransactionConstant;
 import io.nuls.protocol.context.NulsContext;
 import io.nuls.protocol.event.TransactionEvent;
+import io.nuls.protocol.model.NulsDigestData;
 import io.nuls.protocol.model.Transaction;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 /**
  * @author Niels
  * @date 2018/1/8
  */
-public class NewTxEventHandler extends AbstractEventHandler<TransactionEvent> {
+public class NewTxEventHandler extends AbstractEventBatchHandler<TransactionEvent> {
 
-    private static NewTxEventHandler INSTANCE = new NewTxEventHandler();
+    /**
+     * 第一次调用getInstance时才获取依赖的服务
+     */
+    private static final class Holder {
+        private static final NewTxEventHandler INSTANCE = new NewTxEventHandler();
+    }
 
-    private TemporaryCacheManager temporaryCacheManager = TemporaryCacheManager.getInstance();
+    private final NetworkService networkService;
+    private final EventBroadcaster eventBroadcaster;
+    private final LedgerService ledgerService;
+    private final ConsensusService consensusService;
 
-    private NetworkService networkService = NulsContext.getServiceBean(NetworkService.class);
-    private EventBroadcaster eventBroadcaster = NulsContext.getServiceBean(EventBroadcaster.class);
-    private LedgerService ledgerService = NulsContext.getServiceBean(LedgerService.class);
-    private ConsensusService consensusService = NulsContext.getServiceBean(ConsensusService.class);
+    private volatile ForkJoinPool verifyPool;
 
     private NewTxEventHandler() {
+        this(NulsContext.getServiceBean(NetworkService.class), NulsContext.getServiceBean(EventBroadcaster.class),
+                NulsContext.getServiceBean(LedgerService.class), NulsContext.getServiceBean(ConsensusService.class));
+    }
+
+    NewTxEventHandler(NetworkService networkService, EventBroadcaster eventBroadcaster, LedgerService ledgerService, ConsensusService consensusService) {
+        this.networkService = networkService;
+        this.eventBroadcaster = eventBroadcaster;
+        this.ledgerService = ledgerService;
+        this.consensusService = consensusService;
     }
 
     public static NewTxEventHandler getInstance() {
-        return INSTANCE;
+        return Holder.INSTANCE;
     }
 
+    /**
+     * The txs of one batch are verified in parallel, as wide as the handler pool of the event lane, then checked
+     * for conflicts one by one in the order of arrival: a tx repeated within the batch is handled once, and a tx
+     * which spends the same output as an earlier tx of the batch is dropped like a conflict with the waiting txs.
+     * 同一批交易按事件处理线程池的宽度并行验证，然后按到达顺序逐笔检查冲突：批内重复的交易只处理一次，
+     * 与批内前面的交易花费相同输出的交易按照与待确认交易冲突处理。
+     */
     @Override
-    public void onEvent(TransactionEvent event, String fromId) {
-
-        Transaction tx = event.getEventBody();
-        //Log.info("receive new tx {} from {}", tx.getHash().getDigestHex(), fromId);
-        if (null == tx) {
-            return;
-        }
-        if (tx.getType() == TransactionConstant.TX_TYPE_COIN_BASE || tx.getType() == TransactionConstant.TX_TYPE_YELLOW_PUNISH || tx.getType() == TransactionConstant.TX_TYPE_RED_PUNISH) {
-            return;
+    public void onEvents(List<TransactionEvent> events, List<String> fromIds) {
+        Set<NulsDigestData> hashSet = new HashSet<>();
+        List<Integer> indexList = new ArrayList<>();
+        List<Transaction> txList = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            Transaction tx = events.get(i).getEventBody();
+            if (null == tx || !hashSet.add(tx.getHash())) {
+                continue;
+            }
+            if (tx.getType() == TransactionConstant.TX_TYPE_COIN_BASE || tx.getType() == TransactionConstant.TX_TYPE_YELLOW_PUNISH || tx.getType() == TransactionConstant.TX_TYPE_RED_PUNISH) {
+                continue;
+            }
+            if (getCachedTx(tx.getHash()) != null) {
+                continue;
+            }
+            indexList.add(i);
+            txList.add(tx);
         }
-
-        Transaction tempTx = temporaryCacheManager.getTx(tx.getHash().getDigestHex());
-        if (tempTx != null) {
+        if (txList.isEmpty()) {
             return;
         }
-
-        ValidateResult result = tx.verify();
-        if (result.isFailed() && result.getErrorCode() != ErrorCode.ORPHAN_TX) {
-            if (result.getLevel() == SeverityLevelEnum.NORMAL_FOUL) {
-                networkService.removeNode(fromId);
-            } else if (result.getLevel() == SeverityLevelEnum.FLAGRANT_FOUL) {
-                networkService.blackNode(fromId, NodePo.BLACK);
+        List<ValidateResult> resultList = verify(txList);
+
+        BlockValidateContext acceptedTxs = new BlockValidateContext();
+        for (int i = 0; i < txList.size(); i++) {
+            Transaction tx = txList.get(i);
+            TransactionEvent event = events.get(indexList.get(i));
+            String fromId = fromIds.get(indexList.get(i));
+            ValidateResult result = resultList.get(i);
+            if (result.isFailed() && result.getErrorCode() != ErrorCode.ORPHAN_TX) {
+                if (result.getLevel() == SeverityLevelEnum.NORMAL_FOUL) {
+                    networkService.removeNode(fromId);
+                } else if (result.getLevel() == SeverityLevelEnum.FLAGRANT_FOUL) {
+                    networkService.blackNode(fromId, NodePo.BLACK);
+                }
+                continue;
             }
-            return;
-        }
-        try {
-            List<Transaction> waitingList = ledgerService.getWaitingTxList();
-            for (int i = waitingList.size()-1; i >= 0; i--) {
-                if (waitingList.get(i).getHash().equals(tx.getHash())) {
-                    waitingList.remove(i);
-                    break;
+            try {
+                result = ledgerService.conflictDetectWaitingTx(tx);
+                if (result.isSuccess()) {
+                    result = ledgerService.conflictDetectTx(tx, acceptedTxs);
+                }
+                if (result.isFailed()) {
+                    continue;
                 }
+            } catch (Exception e) {
+                Log.error(e);
+                continue;
             }
+            acceptedTxs.add(tx);
+            accept(event, tx, fromId);
+        }
+    }
 
-            result = ledgerService.conflictDetectTx(tx, waitingList);
-            if (result.isFailed()) {
-                return;
-            }
+    /**
+     * @return the verification result of each tx, in the same order
+     */
+    private List<ValidateResult> verify(List<Transaction> txList) {
+        if (txList.size() < 2) {
+            return txList.stream().map(Transaction::verify).collect(Collectors.toList());
+        }
+        try {
+            return getVerifyPool().submit(() -> txList.parallelStream()
+                    .map(Transaction::verify)
+                    .collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             Log.error(e);
-            return;
         }
+        return txList.stream().map(Transaction::verify).collect(Collectors.toList());
+    }
+
+    private ForkJoinPool getVerifyPool() {
+        if (null == verifyPool) {
+            synchronized (this) {
+                if (null == verifyPool) {
+                    verifyPool = new ForkJoinPool(EventBusConstant.THREAD_COUNT);
+                }
+            }
+        }
+        return verifyPool;
+    }
 
-        temporaryCacheManager.cacheTx(tx);
+    private void accept(TransactionEvent event, Transaction tx, String fromId) {
+        cacheTx(tx);
 
         boolean isMine = ledgerService.checkTxIsMySend(tx);
         try {
@@ -125,4 +196,12 @@ public class NewTxEventHandler extends AbstractEventHandler<TransactionEvent> {
         }
     }
 
+    Transaction getCachedTx(NulsDigestData hash) {
+        return TemporaryCacheManager.getInstance().getTx(hash);
+    }
+
+    void cacheTx(Transaction tx) {
+        TemporaryCacheManager.getInstance().cacheTx(tx);
+    }
+
 }
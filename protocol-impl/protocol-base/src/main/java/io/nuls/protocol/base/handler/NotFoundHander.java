@@ -39,6 +39,6 @@ public class NotFoundHander extends AbstractEventHandler<NotFoundEvent> {
      */
     @Override
     public void onEvent(NotFoundEvent event, String fromId) throws NulsException {
-        DownloadCacheHandler.notFoundBlock(event.getEventBody());
+        DownloadCacheHandler.notFoundBlock(fromId, event.getEventBody());
     }
 }
@@ -61,27 +61,27 @@ public class TxGroupHandler extends AbstractEventHandler<TxGroupEvent> {
     public void onEvent(TxGroupEvent event, String fromId) {
         TxGroup txGroup = event.getEventBody();
 
-        SmallBlock smallBlock = temporaryCacheManager.getSmallBlock(txGroup.getBlockHash().getDigestHex());
+        SmallBlock smallBlock = temporaryCacheManager.getSmallBlock(txGroup.getBlockHash());
         if (smallBlock == null) {
             return;
         }
         BlockHeader header = smallBlock.getHeader();
 
-        Map<String, Transaction> txMap = new HashMap<>();
+        Map<NulsDigestKey, Transaction> txMap = new HashMap<>();
         for (Transaction tx : smallBlock.getSubTxList()) {
-            txMap.put(tx.getHash().getDigestHex(), tx);
+            txMap.put(tx.getHash().getDigestKey(), tx);
         }
         txMap.putAll(txGroup.getTxMap());
         for (NulsDigestData hash : smallBlock.getTxHashList()) {
-            String hashHex = hash.getDigestHex();
-            Transaction tx = txMap.get(hashHex);
+            NulsDigestKey key = hash.getDigestKey();
+            Transaction tx = txMap.get(key);
             if (null == tx) {
-                tx = temporaryCacheManager.getTx(hashHex);
+                tx = temporaryCacheManager.getTx(hash);
             }
             if (null == tx) {
                return;
             }
-            txMap.put(tx.getHash().getDigestHex(), tx);
+            txMap.put(key, tx);
         }
 
         Block block = ConsensusTool.assemblyBlock(header, txMap, smallBlock.getTxHashList());
@@ -35,6 +35,7 @@ import io.nuls.core.utils.spring.lite.annotation.Autowired;
 import io.nuls.core.validate.ValidateResult;
 import io.nuls.db.entity.BlockHeaderPo;
 import io.nuls.db.transactional.annotation.DbSession;
+import io.nuls.ledger.entity.BlockValidateContext;
 import io.nuls.ledger.service.intf.LedgerService;
 import io.nuls.protocol.constant.TxStatusEnum;
 import io.nuls.protocol.context.NulsContext;
@@ -169,9 +170,10 @@ public class BlockServiceImpl implements BlockService {
             Log.error(e);
         }
         if (null != localTxList && !localTxList.isEmpty()) {
+            List<Transaction> blockTxList = new BlockValidateContext(block.getTxs());
             for (Transaction tx : localTxList) {
                 try {
-                    ValidateResult result = ledgerService.conflictDetectTx(tx, block.getTxs());
+                    ValidateResult result = ledgerService.conflictDetectTx(tx, blockTxList);
                     if (result.isFailed()) {
                         ledgerService.deleteLocalTx(tx.getHash().getDigestHex());
                     }
@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.protocol.base.handler;
+
+import io.nuls.core.exception.NulsException;
+import io.nuls.core.validate.ValidateResult;
+import io.nuls.event.bus.service.intf.EventBroadcaster;
+import io.nuls.ledger.service.intf.LedgerService;
+import io.nuls.network.service.NetworkService;
+import io.nuls.poc.service.intf.ConsensusService;
+import io.nuls.protocol.event.TransactionEvent;
+import io.nuls.protocol.model.NulsDigestData;
+import io.nuls.protocol.model.Transaction;
+import io.nuls.protocol.utils.io.NulsByteBuffer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class NewTxEventHandlerTest {
+
+    private List<Transaction> newTxList = new ArrayList<>();
+    private NewTxEventHandler handler;
+
+    @Before
+    public void init() {
+        LedgerService ledgerService = stub(LedgerService.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "conflictDetectWaitingTx":
+                    return ValidateResult.getSuccessResult();
+                case "conflictDetectTx":
+                    // the tx data stands for the spent output
+                    Transaction tx = (Transaction) args[0];
+                    for (Transaction other : (List<Transaction>) args[1]) {
+                        if (other.getTxData().equals(tx.getTxData())) {
+                            return ValidateResult.getFailedResult("double spend");
+                        }
+                    }
+                    return ValidateResult.getSuccessResult();
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        });
+        ConsensusService consensusService = stub(ConsensusService.class, (proxy, method, args) -> {
+            if (method.getName().equals("newTx")) {
+                newTxList.add((Transaction) args[0]);
+                return true;
+            }
+            return defaultValue(method.getReturnType());
+        });
+        handler = new NewTxEventHandler(stub(NetworkService.class, null), stub(EventBroadcaster.class, null), ledgerService, consensusService) {
+            @Override
+            Transaction getCachedTx(NulsDigestData hash) {
+                return null;
+            }
+
+            @Override
+            void cacheTx(Transaction tx) {
+            }
+        };
+    }
+
+    @Test
+    public void testBatch() {
+        Transaction first = newTx(1, 1);
+        Transaction doubleSpend = newTx(2, 1);
+        Transaction second = newTx(3, 2);
+        List<TransactionEvent> events = Arrays.asList(event(first), event(first), event(doubleSpend), event(second));
+
+        handler.onEvents(events, Arrays.asList("a", "b", "c", "d"));
+
+        assertEquals(Arrays.asList(first, second), newTxList);
+    }
+
+    @Test
+    public void testSingleEvent() throws NulsException {
+        Transaction tx = newTx(1, 1);
+        handler.onEvent(event(tx), "a");
+        assertEquals(Arrays.asList(tx), newTxList);
+    }
+
+    private TransactionEvent event(Transaction tx) {
+        TransactionEvent event = new TransactionEvent();
+        event.setEventBody(tx);
+        return event;
+    }
+
+    private Transaction newTx(int id, int spent) {
+        TestTransaction tx = new TestTransaction();
+        tx.setTime(1525000000000L);
+        tx.setTxData(NulsDigestData.calcDigestData(new byte[]{(byte) spent}));
+        tx.setHash(NulsDigestData.calcDigestData(new byte[]{0, (byte) id}));
+        return tx;
+    }
+
+    private static <T> T stub(Class<T> clazz, InvocationHandler invocationHandler) {
+        InvocationHandler defaultHandler = (proxy, method, args) -> defaultValue(method.getReturnType());
+        return (T) Proxy.newProxyInstance(clazz.getClassLoader(), new Class[]{clazz},
+                null == invocationHandler ? defaultHandler : invocationHandler);
+    }
+
+    private static Object defaultValue(Class type) {
+        return type == boolean.class ? Boolean.FALSE : null;
+    }
+
+    private static class TestTransaction extends Transaction<NulsDigestData> {
+
+        private TestTransaction() {
+            super(1000);
+        }
+
+        @Override
+        public NulsDigestData parseTxData(NulsByteBuffer byteBuffer) throws NulsException {
+            return byteBuffer.readHash();
+        }
+    }
+}
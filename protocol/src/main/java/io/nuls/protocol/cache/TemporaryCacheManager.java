@@ -24,6 +24,8 @@
 package io.nuls.protocol.cache;
 
 import io.nuls.cache.util.CacheMap;
+import io.nuls.protocol.model.NulsDigestData;
+import io.nuls.protocol.model.NulsDigestKey;
 import io.nuls.protocol.model.SmallBlock;
 import io.nuls.protocol.model.Transaction;
 
@@ -36,8 +38,8 @@ import io.nuls.protocol.model.Transaction;
 public class TemporaryCacheManager {
     private static final TemporaryCacheManager INSTANCE = new TemporaryCacheManager();
 
-    private CacheMap<String, SmallBlock> smallBlockCacheMap = new CacheMap<>("temp-small-block-cache", 16, 1000, 0);
-    private CacheMap<String, Transaction> txCacheMap = new CacheMap<>("temp-tx-cache", 64, 3600, 0);
+    private CacheMap<NulsDigestKey, SmallBlock> smallBlockCacheMap = new CacheMap<>("temp-small-block-cache", NulsDigestKey.class, 16, 1000, 0);
+    private CacheMap<NulsDigestKey, Transaction> txCacheMap = new CacheMap<>("temp-tx-cache", NulsDigestKey.class, 64, 3600, 0);
 
     private TemporaryCacheManager() {
     }
@@ -47,32 +49,32 @@ public class TemporaryCacheManager {
     }
 
     public void cacheSmallBlock(SmallBlock newBlock) {
-        smallBlockCacheMap.put(newBlock.getHeader().getHash().getDigestHex(), newBlock);
+        smallBlockCacheMap.put(newBlock.getHeader().getHash().getDigestKey(), newBlock);
     }
 
-    public SmallBlock getSmallBlock(String hash) {
-        if (null == smallBlockCacheMap) {
+    public SmallBlock getSmallBlock(NulsDigestData hash) {
+        if (null == smallBlockCacheMap || null == hash) {
             return null;
         }
-        return smallBlockCacheMap.get(hash);
+        return smallBlockCacheMap.get(hash.getDigestKey());
     }
 
     public void cacheTx(Transaction tx) {
-        txCacheMap.put(tx.getHash().getDigestHex(), tx);
+        txCacheMap.put(tx.getHash().getDigestKey(), tx);
     }
 
-    public Transaction getTx(String hash) {
-        if (null == txCacheMap) {
+    public Transaction getTx(NulsDigestData hash) {
+        if (null == txCacheMap || null == hash) {
             return null;
         }
-        return txCacheMap.get(hash);
+        return txCacheMap.get(hash.getDigestKey());
     }
 
-    public void remove(String hash) {
-        if (null == smallBlockCacheMap) {
+    public void remove(NulsDigestData hash) {
+        if (null == smallBlockCacheMap || null == hash) {
             return;
         }
-        smallBlockCacheMap.remove(hash);
+        smallBlockCacheMap.remove(hash.getDigestKey());
     }
 
 
@@ -63,8 +63,14 @@ public abstract class BaseEvent<T extends BaseNulsData> extends BaseNulsData imp
 
     @Override
     protected void parse(NulsByteBuffer byteBuffer) throws NulsException {
+        int start = byteBuffer.getCursor();
         this.header = byteBuffer.readNulsData(new EventHeader());
         this.eventBody = parseEventBody(byteBuffer);
+        int end = byteBuffer.getCursor();
+        if (end - start == this.size()) {
+            this.hash = byteBuffer.digest(start, end, null, end, end);
+            return;
+        }
         try {
             this.hash = NulsDigestData.calcDigestData(this.serialize());
         } catch (IOException e) {
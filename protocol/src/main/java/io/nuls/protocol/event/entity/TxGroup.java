@@ -28,6 +28,7 @@ import io.nuls.core.exception.NulsException;
 import io.nuls.core.utils.crypto.Utils;
 import io.nuls.protocol.model.BaseNulsData;
 import io.nuls.protocol.model.NulsDigestData;
+import io.nuls.protocol.model.NulsDigestKey;
 import io.nuls.protocol.model.Transaction;
 import io.nuls.protocol.utils.io.NulsByteBuffer;
 import io.nuls.protocol.utils.io.NulsOutputStreamBuffer;
@@ -46,7 +47,7 @@ public class TxGroup extends BaseNulsData {
 
     private NulsDigestData blockHash;
     private List<Transaction> txList;
-    private Map<String, Transaction> txMap;
+    private Map<NulsDigestKey, Transaction> txMap;
 
     @Override
     public int size() {
@@ -92,7 +93,7 @@ public class TxGroup extends BaseNulsData {
     private void initTxMap() {
         this.txMap = new HashMap<>();
         for (Transaction tx : txList) {
-            txMap.put(tx.getHash().getDigestHex(), tx);
+            txMap.put(tx.getHash().getDigestKey(), tx);
         }
     }
 
@@ -113,11 +114,11 @@ public class TxGroup extends BaseNulsData {
         initTxMap();
     }
 
-    public Transaction getTx(String digestHex) {
-        return txMap.get(digestHex);
+    public Transaction getTx(NulsDigestData hash) {
+        return txMap.get(hash.getDigestKey());
     }
 
-    public Map<String,Transaction> getTxMap(){
+    public Map<NulsDigestKey,Transaction> getTxMap(){
         return txMap;
     }
 }
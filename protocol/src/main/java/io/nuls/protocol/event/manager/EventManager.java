@@ -31,11 +31,18 @@ import io.nuls.protocol.event.base.BaseEvent;
 import io.nuls.protocol.event.base.EventHeader;
 import io.nuls.protocol.utils.io.NulsByteBuffer;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * @author Niels
@@ -46,6 +53,12 @@ public class EventManager {
     private static final Map<String, Class<? extends BaseEvent>> EVENT_MAP = new ConcurrentHashMap<>();
     private static final Set<Class<? extends BaseEvent>> EVENT_CLASSES = new HashSet<>();
 
+    /**
+     * Factories of the events, indexed by module id and then by event type
+     * 事件的创建工厂，先按模块id再按事件类型索引
+     */
+    private static volatile Supplier<? extends BaseEvent>[][] FACTORY_TABLE = new Supplier[0][];
+
     public static void care(Class<? extends BaseEvent> busDataClass) {
         boolean b = EVENT_CLASSES.contains(busDataClass);
         if (!b) {
@@ -62,14 +75,83 @@ public class EventManager {
         }
     }
 
-    private static void putEvent(short moduleId, short type, Class<? extends BaseEvent> clazz) {
+    private static synchronized void putEvent(short moduleId, short type, Class<? extends BaseEvent> clazz) {
         if (type == 0) {
             throw new NulsRuntimeException(ErrorCode.FAILED, "the event type cannot be 0!,module:" + moduleId + ",eventType:" + type);
         }
-        EVENT_MAP.put(moduleId + "_" + type, clazz);
+        if (moduleId < 0 || type < 0) {
+            throw new NulsRuntimeException(ErrorCode.FAILED, "the module id and event type cannot be negative!,module:" + moduleId + ",eventType:" + type);
+        }
+        EVENT_MAP.put(moduleId + KEY_SPLIT + type, clazz);
+        putFactory(moduleId, type, createFactory(clazz));
         cacheDataClass(clazz);
     }
 
+    private static void putFactory(short moduleId, short type, Supplier<? extends BaseEvent> factory) {
+        Supplier<? extends BaseEvent>[][] table = FACTORY_TABLE;
+        if (moduleId >= table.length) {
+            table = Arrays.copyOf(table, moduleId + 1);
+        } else {
+            table = table.clone();
+        }
+        Supplier<? extends BaseEvent>[] row = table[moduleId];
+        if (null == row) {
+            row = new Supplier[type + 1];
+        } else if (type >= row.length) {
+            row = Arrays.copyOf(row, type + 1);
+        } else {
+            row = row.clone();
+        }
+        row[type] = factory;
+        table[moduleId] = row;
+        FACTORY_TABLE = table;
+    }
+
+    /**
+     * Create a factory calling the no-arg constructor directly, fall back to the reflective constructor
+     * 创建直接调用无参构造方法的工厂，失败时退回到反射调用
+     */
+    private static Supplier<? extends BaseEvent> createFactory(Class<? extends BaseEvent> clazz) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle constructor = lookup.findConstructor(clazz, MethodType.methodType(void.class));
+            CallSite site = LambdaMetafactory.metafactory(lookup, "get", MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class), constructor, MethodType.methodType(clazz));
+            return (Supplier<? extends BaseEvent>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            Log.debug("create event factory by reflection:" + clazz.getName());
+        }
+        try {
+            Constructor<? extends BaseEvent> constructor = clazz.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return () -> {
+                try {
+                    return constructor.newInstance();
+                } catch (Exception e) {
+                    throw new NulsRuntimeException(ErrorCode.DATA_PARSE_ERROR, e.getMessage());
+                }
+            };
+        } catch (NoSuchMethodException e) {
+            throw new NulsRuntimeException(ErrorCode.FAILED, "the event must have a no-arg constructor:" + clazz.getName());
+        }
+    }
+
+    /**
+     * Create an empty event of the type, or null when the type is not registered
+     * 创建该类型的空事件，类型未注册时返回null
+     */
+    public static BaseEvent newEvent(short moduleId, short type) {
+        Supplier<? extends BaseEvent>[][] table = FACTORY_TABLE;
+        if (moduleId < 0 || moduleId >= table.length || type < 0) {
+            return null;
+        }
+        Supplier<? extends BaseEvent>[] row = table[moduleId];
+        if (null == row || type >= row.length || null == row[type]) {
+            return null;
+        }
+        return row[type].get();
+    }
+
     private static void cacheDataClass(Class<? extends BaseEvent> clazz) {
         EVENT_CLASSES.add(clazz);
         if (!clazz.getSuperclass().equals(BaseEvent.class)) {
@@ -81,17 +163,16 @@ public class EventManager {
         EventHeader header = new EventHeader();
 
         header.parse(new NulsByteBuffer(bytes));
-        Class<? extends BaseEvent> clazz = EVENT_MAP.get(header.getModuleId() + "_" + header.getEventType());
-        if (null == clazz) {
-            return null;
-        }
         BaseEvent event;
         try {
-            event = clazz.newInstance();
+            event = newEvent(header.getModuleId(), header.getEventType());
         } catch (Exception e) {
             Log.error(e);
             throw new NulsException(ErrorCode.DATA_PARSE_ERROR);
         }
+        if (null == event) {
+            return null;
+        }
         try {
             event.parse(bytes);
         } catch (Exception e) {
@@ -102,6 +102,13 @@ public abstract class BaseNulsData implements NulsData,Serializable, Cloneable {
         this.parse(new NulsByteBuffer(bytes));
     }
 
+    /**
+     * Parse from the current cursor of the buffer, the payload is shared instead of copied
+     */
+    public final void parseFrom(NulsByteBuffer byteBuffer) throws NulsException {
+        this.parse(byteBuffer);
+    }
+
     /**
      * serialize important field
      *
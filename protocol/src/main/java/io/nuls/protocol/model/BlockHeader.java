@@ -23,6 +23,7 @@
  */
 package io.nuls.protocol.model;
 
+import io.nuls.core.constant.NulsConstant;
 import io.nuls.core.exception.NulsException;
 import io.nuls.core.utils.crypto.Utils;
 import io.nuls.core.utils.log.Log;
@@ -98,6 +99,7 @@ public class BlockHeader extends BaseNulsData {
 
     @Override
     protected void parse(NulsByteBuffer byteBuffer) throws NulsException {
+        int start = byteBuffer.getCursor();
         this.preHash = byteBuffer.readHash();
         this.merkleHash = byteBuffer.readHash();
         this.time = byteBuffer.readVarInt();
@@ -105,10 +107,16 @@ public class BlockHeader extends BaseNulsData {
         this.txCount = byteBuffer.readVarInt();
         this.packingAddress = byteBuffer.readByLengthByte();
         this.extend = byteBuffer.readByLengthByte();
-        try {
-            this.hash = NulsDigestData.calcDigestData(this.serialize());
-        } catch (IOException e) {
-            Log.error(e);
+        int end = byteBuffer.getCursor();
+        // the hash covers the header without sign, which is serialized as a place holder
+        if (end - start + NulsConstant.PLACE_HOLDER.length == this.size()) {
+            this.hash = byteBuffer.digest(start, end, NulsConstant.PLACE_HOLDER, end, end);
+        } else {
+            try {
+                this.hash = NulsDigestData.calcDigestData(this.serialize());
+            } catch (IOException e) {
+                Log.error(e);
+            }
         }
         this.scriptSign = byteBuffer.readNulsData(new P2PKHScriptSig());
     }
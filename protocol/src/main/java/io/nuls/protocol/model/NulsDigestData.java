@@ -47,6 +47,9 @@ public class NulsDigestData extends BaseNulsData {
     protected short digestAlgType = DIGEST_ALG_SHA256;
     protected byte[] digestBytes;
 
+    private transient NulsDigestKey digestKey;
+    private transient String digestHex;
+
     public static short DIGEST_ALG_SHA256=0;
     public static short DIGEST_ALG_SHA160=1;
 
@@ -74,6 +77,8 @@ public class NulsDigestData extends BaseNulsData {
 
     public void setDigestAlgType(short digestAlgType) {
         this.digestAlgType = digestAlgType;
+        this.digestKey = null;
+        this.digestHex = null;
     }
 
     @Override
@@ -95,17 +100,34 @@ public class NulsDigestData extends BaseNulsData {
         }catch (Exception e){
            Log.error(e);
         }
+        this.digestKey = null;
+        this.digestHex = null;
     }
 
     public String getDigestHex() {
+        if (null != digestHex) {
+            return digestHex;
+        }
         try {
-            return Hex.encode(serialize());
+            digestHex = Hex.encode(serialize());
+            return digestHex;
         } catch (IOException e) {
             Log.error(e);
             return null;
         }
     }
 
+    /**
+     * Binary key of the digest, cached after the first call
+     * 摘要的二进制key，首次调用后缓存
+     */
+    public NulsDigestKey getDigestKey() {
+        if (null == digestKey && null != digestBytes) {
+            digestKey = new NulsDigestKey(digestAlgType, digestBytes);
+        }
+        return digestKey;
+    }
+
     public static NulsDigestData fromDigestHex(String hex) {
         byte[] bytes = Hex.decode(hex);
         return new NulsDigestData(bytes);
@@ -191,13 +213,20 @@ public class NulsDigestData extends BaseNulsData {
         if (!(obj instanceof NulsDigestData)) {
             return false;
         }
-        if (this.getWholeBytes() == null || ((NulsDigestData) obj).getWholeBytes() == null) {
+        NulsDigestKey key = this.getDigestKey();
+        if (null == key) {
             return false;
         }
-        if (this.getWholeBytes().length != ((NulsDigestData) obj).getWholeBytes().length) {
-            return false;
+        return key.equals(((NulsDigestData) obj).getDigestKey());
+    }
+
+    @Override
+    public int hashCode() {
+        NulsDigestKey key = this.getDigestKey();
+        if (null == key) {
+            return 0;
         }
-        return this.getDigestHex().equals(((NulsDigestData) obj).getDigestHex());
+        return key.hashCode();
     }
 
     @Override
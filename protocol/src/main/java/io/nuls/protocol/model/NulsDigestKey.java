@@ -0,0 +1,87 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.protocol.model;
+
+import java.io.Serializable;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Immutable binary key of a digest, used as the key of maps and caches instead of the hex string of the digest.
+ * The hash code is calculated once and equals compares the bytes in constant time.
+ *
+ * 摘要的二进制不可变key，用于替代hex字符串作为map和缓存的key
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public final class NulsDigestKey implements Serializable {
+
+    private final short digestAlgType;
+
+    private final byte[] digestBytes;
+
+    private final int hashCode;
+
+    public NulsDigestKey(short digestAlgType, byte[] digestBytes) {
+        this.digestAlgType = digestAlgType;
+        this.digestBytes = digestBytes.clone();
+        this.hashCode = 31 * Arrays.hashCode(this.digestBytes) + digestAlgType;
+    }
+
+    public static NulsDigestKey fromDigestHex(String hex) {
+        return NulsDigestData.fromDigestHex(hex).getDigestKey();
+    }
+
+    public short getDigestAlgType() {
+        return digestAlgType;
+    }
+
+    public NulsDigestData toDigestData() {
+        return new NulsDigestData(digestAlgType, digestBytes.clone());
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof NulsDigestKey)) {
+            return false;
+        }
+        NulsDigestKey other = (NulsDigestKey) obj;
+        return this.hashCode == other.hashCode && this.digestAlgType == other.digestAlgType
+                && MessageDigest.isEqual(this.digestBytes, other.digestBytes);
+    }
+
+    @Override
+    public String toString() {
+        return toDigestData().getDigestHex();
+    }
+}
@@ -73,6 +73,8 @@ public abstract class Transaction<T extends BaseNulsData> extends BaseNulsData {
 
     protected boolean isMine;
 
+    private static final byte[] EMPTY_SCRIPT_SIG = new VarInt(0).encode();
+
     public Transaction(int type) {
         this.dataType = NulsDataType.TRANSACTION;
         this.time = TimeService.currentTimeMillis();
@@ -115,19 +117,49 @@ public abstract class Transaction<T extends BaseNulsData> extends BaseNulsData {
 
     @Override
     protected void parse(NulsByteBuffer byteBuffer) throws NulsException {
+        int start = byteBuffer.getCursor();
         type = (int) byteBuffer.readVarInt();
         time = byteBuffer.readVarInt();
         long feeValue = byteBuffer.readInt48();
         this.fee = Na.valueOf(feeValue);
         this.remark = byteBuffer.readByLengthByte();
         txData = this.parseTxData(byteBuffer);
+        int signStart = byteBuffer.getCursor();
+        scriptSig = byteBuffer.readByLengthByte();
+        //sign = byteBuffer.readSign();
+        int signEnd = byteBuffer.getCursor();
+        this.parseAfterSign(byteBuffer);
+        this.hash = this.calcHash(byteBuffer, start, signStart, signEnd);
+    }
+
+    /**
+     * Parse the data serialized after the scriptSig, it is included in the hash
+     * 解析签名之后的数据，这部分数据参与hash计算
+     */
+    protected void parseAfterSign(NulsByteBuffer byteBuffer) throws NulsException {
+    }
+
+    /**
+     * The hash is calculated with an empty scriptSig. When the bytes read are exactly the bytes the transaction
+     * serializes to, hash them in place, otherwise fall back to serializing the transaction.
+     *
+     * hash计算时签名为空，读取的字节与序列化结果一致时直接对读取的字节计算，否则重新序列化后计算
+     */
+    private NulsDigestData calcHash(NulsByteBuffer byteBuffer, int start, int signStart, int signEnd) {
+        int end = byteBuffer.getCursor();
+        if (end - start == this.size()) {
+            return byteBuffer.digest(start, signStart, EMPTY_SCRIPT_SIG, signEnd, end);
+        }
+        byte[] scriptSigCache = this.scriptSig;
+        this.scriptSig = null;
         try {
-            hash = NulsDigestData.calcDigestData(this.serialize());
+            return NulsDigestData.calcDigestData(this.serialize());
         } catch (IOException e) {
             Log.error(e);
+            return null;
+        } finally {
+            this.scriptSig = scriptSigCache;
         }
-        scriptSig = byteBuffer.readByLengthByte();
-        //sign = byteBuffer.readSign();
     }
 
     public long getTime() {
@@ -82,7 +82,9 @@ public class TransactionManager {
     }
 
     public static Transaction getInstance(NulsByteBuffer byteBuffer) throws Exception {
-        int txType = (int) new NulsByteBuffer(byteBuffer.getPayloadByCursor()).readVarInt();
+        int cursor = byteBuffer.getCursor();
+        int txType = (int) byteBuffer.readVarInt();
+        byteBuffer.setCursor(cursor);
         Class<? extends Transaction> txClass = getTxClass(txType);
         if (null == txClass) {
             throw new NulsRuntimeException(ErrorCode.FAILED, "transaction type not exist!");
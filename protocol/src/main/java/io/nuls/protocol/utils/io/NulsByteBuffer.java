@@ -26,6 +26,7 @@ package io.nuls.protocol.utils.io;
 import io.nuls.core.cfg.NulsConfig;
 import io.nuls.core.constant.ErrorCode;
 import io.nuls.core.constant.NulsConstant;
+import io.nuls.core.crypto.Sha256Hash;
 import io.nuls.core.crypto.VarInt;
 import io.nuls.core.exception.NulsException;
 import io.nuls.core.exception.NulsRuntimeException;
@@ -38,6 +39,7 @@ import io.nuls.protocol.model.Transaction;
 import io.nuls.protocol.utils.TransactionManager;
 
 import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
 import java.util.Arrays;
 
 /**
@@ -163,6 +165,31 @@ public class NulsByteBuffer {
         this.cursor = 0;
     }
 
+    public int getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(int cursor) {
+        this.cursor = cursor;
+    }
+
+    /**
+     * Calculate the digest of payload[start, end) + middle + payload[nextStart, nextEnd) directly from the payload,
+     * so the parsed object does not need to be serialized again to get its hash.
+     *
+     * 直接对已读取的字节片段计算摘要，避免解析后再次序列化
+     */
+    public NulsDigestData digest(int start, int end, byte[] middle, int nextStart, int nextEnd) {
+        MessageDigest digest = Sha256Hash.newDigest();
+        digest.update(payload, start, end - start);
+        if (null != middle) {
+            digest.update(middle);
+        }
+        digest.update(payload, nextStart, nextEnd - nextStart);
+        byte[] bytes = digest.digest(digest.digest());
+        return new NulsDigestData(NulsDigestData.DIGEST_ALG_SHA256, bytes);
+    }
+
     public short readShort() throws NulsException {
         byte[] bytes = this.readBytes(2);
         if (null == bytes) {
@@ -223,10 +250,9 @@ public class NulsByteBuffer {
                 return null;
             }
         }
-        byte[] bytes = new byte[length];
-        System.arraycopy(payload, cursor, bytes, 0, length);
-        nulsData.parse(bytes);
-        cursor += nulsData.size();
+        int start = cursor;
+        nulsData.parseFrom(this);
+        cursor = start + nulsData.size();
         return nulsData;
     }
 
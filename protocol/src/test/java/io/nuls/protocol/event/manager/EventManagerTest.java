@@ -0,0 +1,79 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package io.nuls.protocol.event.manager;
+
+import io.nuls.core.exception.NulsException;
+import io.nuls.protocol.event.base.BaseEvent;
+import io.nuls.protocol.event.base.NoticeData;
+import io.nuls.protocol.model.NulsDigestData;
+import io.nuls.protocol.utils.io.NulsByteBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * Events are created through the factory table and parsed with the same hash as the serialized event
+ */
+public class EventManagerTest {
+
+    private static final short MODULE_ID = 99;
+    private static final short EVENT_TYPE = 7;
+
+    @Test
+    public void testFactoryTable() throws IOException, NulsException {
+        EventManager.putEvent(TestEvent.class);
+        Assert.assertTrue(EventManager.newEvent(MODULE_ID, EVENT_TYPE) instanceof TestEvent);
+        Assert.assertNull(EventManager.newEvent(MODULE_ID, (short) (EVENT_TYPE + 1)));
+        Assert.assertNull(EventManager.newEvent((short) (MODULE_ID + 1), EVENT_TYPE));
+
+        TestEvent event = new TestEvent();
+        event.setEventBody(NulsDigestData.calcDigestData(new byte[]{1, 2, 3}));
+        byte[] bytes = event.serialize();
+
+        BaseEvent parsed = EventManager.getInstance(bytes);
+        Assert.assertTrue(parsed instanceof TestEvent);
+        Assert.assertEquals(event.getEventBody(), parsed.getEventBody());
+        Assert.assertEquals(NulsDigestData.calcDigestData(bytes), parsed.getHash());
+    }
+
+    public static class TestEvent extends BaseEvent<NulsDigestData> {
+
+        public TestEvent() {
+            super(MODULE_ID, EVENT_TYPE);
+        }
+
+        @Override
+        protected NulsDigestData parseEventBody(NulsByteBuffer byteBuffer) throws NulsException {
+            return byteBuffer.readHash();
+        }
+
+        @Override
+        public NoticeData getNotice() {
+            return null;
+        }
+    }
+}
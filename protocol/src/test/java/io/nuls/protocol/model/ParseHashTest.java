@@ -0,0 +1,99 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package io.nuls.protocol.model;
+
+import io.nuls.core.exception.NulsException;
+import io.nuls.protocol.utils.io.NulsByteBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * The hash calculated from the parsed bytes must be the same as the hash of the serialized object
+ */
+public class ParseHashTest {
+
+    @Test
+    public void testBlockHeaderHash() throws IOException, NulsException {
+        BlockHeader header = new BlockHeader();
+        header.setPreHash(NulsDigestData.calcDigestData(new byte[]{1, 2, 3}));
+        header.setMerkleHash(NulsDigestData.calcDigestData(new byte[]{4, 5, 6}));
+        header.setTime(1525000000000L);
+        header.setHeight(1024L);
+        header.setTxCount(3L);
+        header.setPackingAddress(new byte[]{7, 8, 9, 10});
+        header.setExtend(new byte[]{11, 12});
+        NulsDigestData hash = NulsDigestData.calcDigestData(header.serialize());
+
+        BlockHeader parsed = new BlockHeader();
+        parsed.parse(header.serialize());
+        Assert.assertEquals(hash, parsed.getHash());
+    }
+
+    @Test
+    public void testTransactionHash() throws IOException, NulsException {
+        TestTransaction tx = new TestTransaction();
+        tx.setTime(1525000000000L);
+        tx.setFee(Na.valueOf(100000L));
+        tx.setRemark(new byte[]{1, 2, 3});
+        NulsDigestData hash = NulsDigestData.calcDigestData(tx.serialize());
+        tx.setScriptSig(new byte[]{4, 5, 6, 7, 8});
+
+        TestTransaction parsed = new TestTransaction();
+        parsed.parse(tx.serialize());
+        Assert.assertEquals(hash, parsed.getHash());
+        Assert.assertArrayEquals(tx.getScriptSig(), parsed.getScriptSig());
+    }
+
+    @Test
+    public void testReadNulsDataInBuffer() throws IOException, NulsException {
+        NulsDigestData first = NulsDigestData.calcDigestData(new byte[]{1});
+        NulsDigestData second = NulsDigestData.calcDigestData(new byte[]{2});
+        byte[] firstBytes = first.serialize();
+        byte[] secondBytes = second.serialize();
+        byte[] bytes = new byte[firstBytes.length + secondBytes.length];
+        System.arraycopy(firstBytes, 0, bytes, 0, firstBytes.length);
+        System.arraycopy(secondBytes, 0, bytes, firstBytes.length, secondBytes.length);
+
+        NulsByteBuffer buffer = new NulsByteBuffer(bytes);
+        Assert.assertEquals(first, buffer.readHash());
+        Assert.assertEquals(second, buffer.readHash());
+        Assert.assertTrue(buffer.isFinished());
+    }
+
+    public static class TestTransaction extends Transaction<NulsDigestData> {
+
+        public TestTransaction() {
+            super(1000);
+        }
+
+        @Override
+        public NulsDigestData parseTxData(NulsByteBuffer byteBuffer) throws NulsException {
+            return byteBuffer.readHash();
+        }
+    }
+}